@@ -0,0 +1,157 @@
+package de.wpvs.sudo_ku.model.dictionary;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.model.DatabaseHolder;
+import de.wpvs.sudo_ku.thread.database.MatchKnownWords;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark, which compares the lookup latency of the known words in the database
+ * (one query per word and batched queries) with the in-memory trie. The candidates are all
+ * substrings through one field of a random 16x16 board, like they are searched after each move
+ * of the letter game.
+ */
+@RunWith(AndroidJUnit4.class)
+public class KnownWordLookupBenchmark {
+    private static final int MOVES = 50;
+    private static final int SIZE = 16;
+
+    private DatabaseHolder database;
+    private KnownWordDao dao;
+    private final List<String> knownWords = new ArrayList<>();
+
+    /**
+     * Fill an in-memory database with the shipped word list.
+     *
+     * @throws IOException Error while reading the word list
+     */
+    @Before
+    public void createDatabase() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        this.database = Room.inMemoryDatabaseBuilder(context, DatabaseHolder.class).build();
+        this.dao = this.database.knownWordDao();
+
+        try (BufferedReader fromFile = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.knownwords)))) {
+            String word;
+
+            while ((word = fromFile.readLine()) != null) {
+                KnownWordEntity entity = new KnownWordEntity();
+                entity.word = word;
+
+                this.dao.insert(entity);
+                this.knownWords.add(word);
+            }
+        }
+    }
+
+    /**
+     * Close the database.
+     */
+    @After
+    public void closeDatabase() {
+        this.database.close();
+    }
+
+    /**
+     * Search the substrings of many simulated moves with all lookups.
+     */
+    @Test
+    public void benchmark_sqlAgainstTrie() {
+        KnownWordTrie trie = KnownWordTrie.build(this.knownWords);
+        List<String> candidates = createCandidates(new Random(11));
+
+        long start = System.nanoTime();
+        int sqlMatches = 0;
+
+        for (String candidate : candidates) {
+            if (this.dao.searchSynchronously(candidate) != 0) {
+                sqlMatches += 1;
+            }
+        }
+
+        long sqlNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int trieMatches = 0;
+        Set<String> matchedWords = new HashSet<>();
+
+        for (String candidate : candidates) {
+            if (trie.contains(candidate)) {
+                trieMatches += 1;
+                matchedWords.add(candidate);
+            }
+        }
+
+        long trieNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Set<String> batchMatches = this.database.runInTransaction(() -> {
+            Set<String> matches = new HashSet<>();
+
+            for (int i = 0; i < candidates.size(); i += MatchKnownWords.MAX_QUERY_PARAMETERS) {
+                List<String> chunk = candidates.subList(i, Math.min(i + MatchKnownWords.MAX_QUERY_PARAMETERS, candidates.size()));
+                matches.addAll(this.dao.searchAllSynchronously(chunk));
+            }
+
+            return matches;
+        });
+
+        long batchNanos = System.nanoTime() - start;
+
+        assertEquals(sqlMatches, trieMatches);
+        assertEquals(matchedWords, batchMatches);
+
+        Log.i("sudo-ku", String.format("%d lookups for %d moves: SQL %.1f µs, batched SQL %.1f µs, trie %.2f µs per lookup",
+                candidates.size(), MOVES, sqlNanos / 1e3 / candidates.size(),
+                batchNanos / 1e3 / candidates.size(), trieNanos / 1e3 / candidates.size()));
+    }
+
+    /**
+     * @param random Source of randomness
+     * @return All horizontal and vertical substrings through one field of each simulated move
+     */
+    private static List<String> createCandidates(Random random) {
+        List<String> candidates = new ArrayList<>();
+
+        for (int move = 0; move < MOVES; move++) {
+            char[] line = new char[SIZE];
+            int position = random.nextInt(SIZE);
+
+            for (int axis = 0; axis < 2; axis++) {
+                for (int i = 0; i < SIZE; i++) {
+                    line[i] = (char) ('a' + random.nextInt(SIZE));
+                }
+
+                for (int start = 0; start <= position; start++) {
+                    for (int stop = position; stop < SIZE; stop++) {
+                        candidates.add(new String(line, start, stop - start + 1));
+                    }
+                }
+            }
+        }
+
+        return candidates;
+    }
+}
@@ -0,0 +1,90 @@
+package de.wpvs.sudo_ku.model.dictionary;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.model.DatabaseHolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark, which compares the time needed to fill an empty database with the
+ * shipped word list: One insert (and thus one implicit transaction) per word against one batched
+ * insert inside a single transaction, like PreloadKnownWords does it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class KnownWordPreloadBenchmark {
+    private Context context;
+    private final List<KnownWordEntity> entities = new ArrayList<>();
+
+    /**
+     * Read the shipped word list.
+     *
+     * @throws IOException Error while reading the word list
+     */
+    @Before
+    public void readWordList() throws IOException {
+        this.context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+        try (BufferedReader fromFile = new BufferedReader(new InputStreamReader(this.context.getResources().openRawResource(R.raw.knownwords)))) {
+            String word;
+
+            while ((word = fromFile.readLine()) != null) {
+                KnownWordEntity entity = new KnownWordEntity();
+                entity.word = word;
+                this.entities.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Fill a new database with single inserts and another one with a batched transaction.
+     */
+    @Test
+    public void benchmark_singleInsertsAgainstTransaction() {
+        DatabaseHolder database = Room.inMemoryDatabaseBuilder(this.context, DatabaseHolder.class).build();
+        KnownWordDao dao = database.knownWordDao();
+        long start = System.nanoTime();
+
+        for (KnownWordEntity entity : this.entities) {
+            dao.insert(entity);
+        }
+
+        long singleNanos = System.nanoTime() - start;
+        int singleRows = dao.getRowCountSynchronously();
+        database.close();
+
+        database = Room.inMemoryDatabaseBuilder(this.context, DatabaseHolder.class).build();
+        KnownWordDao batchDao = database.knownWordDao();
+        start = System.nanoTime();
+
+        database.runInTransaction(() -> {
+            batchDao.deleteAll();
+            batchDao.insertAll(this.entities);
+        });
+
+        long batchNanos = System.nanoTime() - start;
+        int batchRows = batchDao.getRowCountSynchronously();
+        database.close();
+
+        assertEquals(singleRows, batchRows);
+
+        Log.i("sudo-ku", String.format("%d known words: single inserts %.1f ms, one transaction %.1f ms",
+                batchRows, singleNanos / 1e6, batchNanos / 1e6));
+    }
+}
@@ -1,17 +1,36 @@
 "use strict";
 
+/**
+ * Flags of a field sent by the Java side (see GameBoardFragment).
+ */
+const FIELD_WORD = 1;
+const FIELD_LOCKED = 2;
+
+/**
+ * Cached elements of all fields, indexed by xPos * size + yPos, and the characters of the game,
+ * indexed by their character code. Both are set up once by createGameBoard().
+ */
+let gameFields = [];
+let gameCharacters = [];
+let highlightedFields = [];
+
 /**
  * Public function called from the Java side to create all HTML elements for the game board.
  * This should only be called exactly once at the very beginning,
  *
  * @param {Integer} size Base size of the game board (e.g. 4, 9 or 16).
  * @param {Integer] sectionSize How many fields make up one section (2, 3 or 4).
+ * @param {List<String>} characters Characters of the game, indexed by their character code
  */
-function createGameBoard(size, sectionSize) {
+function createGameBoard(size, sectionSize, characters) {
     // Delete old fields, if any
     let gameBoardElement = document.querySelector("#game-board");
     gameBoardElement.innerHTML = "";
 
+    gameFields = new Array(size * size);
+    gameCharacters = characters;
+    highlightedFields = [];
+
     // Create game field elements
     for (let xPos = 0; xPos < size; xPos++) {
         // Determine right border
@@ -56,6 +75,12 @@ function createGameBoard(size, sectionSize) {
             pencilElement.classList.add("pencil");
             gameFieldElement.appendChild(pencilElement);
 
+            gameFields[xPos * size + yPos] = {
+                field:     gameFieldElement,
+                character: characterElement,
+                pencil:    pencilElement,
+            };
+
             // Attach event listener to select field on click
             gameFieldElement.addEventListener("click", event => {
                 let clickedField = event.target;
@@ -85,36 +110,40 @@ function createGameBoard(size, sectionSize) {
 }
 
 /**
- * Public function called by the Java side to display the contents of the character fields.
- * We will always get all fields of the whole game board. Therefore, before any values are shown,
- * the previous values should be wiped.
+ * Public function called by the Java side to display the contents of the changed fields. Only
+ * the fields changed since the last call are sent, each as four numbers: The field index
+ * (xPos * size + yPos), the character code (-1 if empty), the bit mask of the pencil marks and
+ * the flags (see constants). The time needed is reported back to the Java side.
  *
- * @param {List<CharacterFieldEntity>} All game board fields
+ * @param {List<Integer>} fields Four numbers for each changed field
  */
-function updateCharacterFields(characterFields) {
-    characterFields.forEach(characterField => {
-        let xPos = characterField.xPos, yPos = characterField.yPos;
-
-        let gameFieldElement = document.querySelector(`.xpos-${xPos}.ypos-${yPos}`);
-        let characterElement = gameFieldElement.querySelector(".character");
-        let pencilElement = gameFieldElement.querySelector(".pencil");
-
-        characterElement.textContent = characterField.character;
-        pencilElement.textContent = "";
-        characterField.pencil.forEach(p => pencilElement.textContent += ` ${p}`);
-
-        if (characterField.words.length > 0) {
-            gameFieldElement.classList.add("word");
-        } else {
-            gameFieldElement.classList.remove("word");
+function updateFields(fields) {
+    let start = performance.now();
+
+    for (let i = 0; i < fields.length; i += 4) {
+        let gameField = gameFields[fields[i]];
+        let code = fields[i + 1], pencil = fields[i + 2], flags = fields[i + 3];
+
+        if (!gameField) {
+            continue;
         }
 
-        if (characterField.locked) {
-            gameFieldElement.classList.add("locked");
-        } else {
-            gameFieldElement.classList.remove("locked");
+        gameField.character.textContent = code >= 0 ? gameCharacters[code] : "";
+
+        let pencilText = "";
+
+        for (let pencilCode = 0; pencil >> pencilCode; pencilCode++) {
+            if (pencil & (1 << pencilCode)) {
+                pencilText += ` ${gameCharacters[pencilCode]}`;
+            }
         }
-    });
+
+        gameField.pencil.textContent = pencilText;
+        gameField.field.classList.toggle("word", (flags & FIELD_WORD) != 0);
+        gameField.field.classList.toggle("locked", (flags & FIELD_LOCKED) != 0);
+    }
+
+    Android.onFieldsUpdated(Math.round((performance.now() - start) * 1000));
 }
 
 /**
@@ -126,11 +155,17 @@ function updateCharacterFields(characterFields) {
  * @param {List<GameLogic.Coordinate>} Coordinates to highlight
  */
 function highlightFields(coordinates) {
-    document.querySelectorAll(".game-field.highlighted").forEach(e => e.classList.remove("highlighted"));
+    let size = Math.sqrt(gameFields.length);
+
+    highlightedFields.forEach(e => e.classList.remove("highlighted"));
+    highlightedFields = [];
 
     coordinates.forEach(coordinate => {
-        let xPos = coordinate.xPos, yPos = coordinate.yPos;
-        let gameFieldElement = document.querySelector(`.xpos-${xPos}.ypos-${yPos}`);
-        gameFieldElement.classList.add("highlighted");
+        let gameField = gameFields[coordinate.xPos * size + coordinate.yPos];
+
+        if (gameField) {
+            gameField.field.classList.add("highlighted");
+            highlightedFields.push(gameField.field);
+        }
     });
 }
\ No newline at end of file
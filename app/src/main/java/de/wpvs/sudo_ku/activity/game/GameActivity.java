@@ -1,9 +1,12 @@
 package de.wpvs.sudo_ku.activity.game;
 
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.view.Choreographer;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -23,13 +26,19 @@ import androidx.lifecycle.LiveData;
 import de.wpvs.sudo_ku.R;
 import de.wpvs.sudo_ku.activity.AppDialogFragmentBuilder;
 import de.wpvs.sudo_ku.activity.NavigationUtils;
+import de.wpvs.sudo_ku.metrics.Metric;
+import de.wpvs.sudo_ku.metrics.Metrics;
 import de.wpvs.sudo_ku.model.DatabaseHolder;
+import de.wpvs.sudo_ku.model.game.ChangeSet;
+import de.wpvs.sudo_ku.model.game.GameCheckpoint;
 import de.wpvs.sudo_ku.model.game.GameDao;
 import de.wpvs.sudo_ku.model.game.GameState;
 import de.wpvs.sudo_ku.model.game.GameUtils;
 import de.wpvs.sudo_ku.thread.clock.ClockThread;
 import de.wpvs.sudo_ku.thread.database.DatabaseThread;
+import de.wpvs.sudo_ku.thread.database.MoveJournalWriter;
 import de.wpvs.sudo_ku.thread.database.PreloadKnownWords;
+import de.wpvs.sudo_ku.thread.database.SaveGameCheckpoint;
 import de.wpvs.sudo_ku.thread.database.SaveOrDeleteGame;
 
 /**
@@ -44,11 +53,19 @@ import de.wpvs.sudo_ku.thread.database.SaveOrDeleteGame;
  *   » Displaying the elapsed time and progress in the application header
  *   » Updating the game state to advance the elapsed time every second
  *   » Regularly persisting the current game state in the database
+ *   » Appending each move to the move journal in between
  *   » Providing an opaque implementation for message exchange with the fragments
+ *   » Refreshing the fragments at most once per display frame
+ *   » Choosing between the webview and the native game board (see GameBoardCanvasFragment)
+ *   » Showing the recorded performance metrics (see Metrics)
  */
 public class GameActivity extends AppCompatActivity implements Handler.Callback {
     private Bundle savedInstanceState;
 
+    private static final String PREFERENCES_NAME = "game_activity";
+    private static final String KEY_NATIVE_GAME_BOARD = "native_game_board";
+    private SharedPreferences preferences;
+
     private static final int SAVE_GAME_STATE_INTERVAL = 30;
     private int savedGameStateAge = 0;
     private long lastFullSecond = 0;
@@ -63,21 +80,23 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
 
     private final GameStateClient.GameMessageExchange gameMessageExchange = new GameStateClient.GameMessageExchange() {
         /**
-         * Send empty message to all fragments.
+         * Send empty message to all fragments subscribed to it.
          *
          * @param what Message code (see constants)
          */
         @Override
         public void sendEmptyMessage(int what) {
             for (GameStateClient gameStateClient : GameActivity.this.gameStateClients) {
-                gameStateClient.onGameStateMessage(what, -1, -1);
+                if ((gameStateClient.getSubscribedMessages() & what) != 0) {
+                    gameStateClient.onGameStateMessage(what, -1, -1);
+                }
             }
 
             GameActivity.this.onGameStateMessage(what, -1, -1);
         }
 
         /**
-         * Send a message with field coordinates to all fragments.
+         * Send a message with field coordinates to all fragments subscribed to it.
          *
          * @param what Message code (see constants)
          * @param xPos Horizontal coordinate
@@ -86,15 +105,34 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
         @Override
         public void sendFieldMessage(int what, int xPos, int yPos) {
             for (GameStateClient gameStateClient : GameActivity.this.gameStateClients) {
-                gameStateClient.onGameStateMessage(what, xPos, yPos);
+                if ((gameStateClient.getSubscribedMessages() & what) != 0) {
+                    gameStateClient.onGameStateMessage(what, xPos, yPos);
+                }
             }
 
             GameActivity.this.onGameStateMessage(what, xPos, yPos);
         }
+
+        /**
+         * Get the fields changed since the previous frame.
+         *
+         * @return Merged changes of all moves since the previous frame
+         */
+        @Override
+        public ChangeSet getChangedFields() {
+            return GameActivity.this.refreshedChanges;
+        }
     };
 
+    private ChangeSet pendingChanges;
+    private ChangeSet refreshedChanges;
+    private int pendingRefreshRequests = 0;
+    private int refreshedProgress = 0;
+    private final Choreographer.FrameCallback refreshFrameCallback = this::onRefreshFrame;
+
     private GameState gameState;
     private Handler handler;
+    private MoveJournalWriter moveJournalWriter;
 
     /**
      * System callback that will be used to inflate the UI, after the activity has been created.
@@ -105,10 +143,13 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         // Inflate UI
+        GameBoardMetrics.markLaunch();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.game_activity);
 
         this.savedInstanceState = savedInstanceState;
+        this.preferences = this.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        this.createGameBoardFragment();
 
         // Retrieve often needed view instances
         this.actionBar = this.getSupportActionBar();
@@ -135,6 +176,23 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
         DatabaseThread.getInstance().post(new PreloadKnownWords());
     }
 
+    /**
+     * Add the chosen implementation of the game board to the UI, unless it has already been
+     * restored from the saved instance state.
+     */
+    private void createGameBoardFragment() {
+        boolean nativeGameBoard = this.preferences.getBoolean(KEY_NATIVE_GAME_BOARD, false);
+        FragmentManager fragmentManager = this.getSupportFragmentManager();
+        Fragment fragment = fragmentManager.findFragmentById(R.id.game_activity_game_board_fragment);
+
+        if (fragment != null && (fragment instanceof GameBoardCanvasFragment) == nativeGameBoard) {
+            return;
+        }
+
+        fragment = nativeGameBoard ? new GameBoardCanvasFragment() : new GameBoardFragment();
+        fragmentManager.beginTransaction().replace(R.id.game_activity_game_board_fragment, fragment).commitNow();
+    }
+
     /**
      * Finish initialization of the UI once the game state has been loaded and is available in
      * this.gameState.
@@ -146,15 +204,26 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
 
         // Set up callback for the database thread to get exclusive access on the game state,
         // when matched words have been found. See comments on setThreadMutexCallback() about
-        // the reasoning and why that sounds worse than it is.
+        // the reasoning and why that sounds worse than it is. The found words are committed
+        // like a move afterwards, which refreshes the views via the change listener below.
         this.gameState.setThreadMutexCallback(blockThread -> {
             this.runOnUiThread(() -> {
                 blockThread.run();
-                this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_REFRESH_VIEWS);
+                this.gameState.getGameLogic().commitBackgroundChanges();
             });
         });
 
+        // Replay the moves saved after the last checkpoint and journal all further moves
+        this.gameState.replayMoves();
+
+        this.moveJournalWriter = new MoveJournalWriter();
+        this.gameState.setMoveListener(this.moveJournalWriter);
+
         // Hand over the game state to the fragments
+        int size = this.gameState.game.size;
+        this.pendingChanges = new ChangeSet(size);
+        this.refreshedChanges = new ChangeSet(size);
+
         FragmentManager fragmentManager = this.getSupportFragmentManager();
 
         for (Fragment fragment : fragmentManager.getFragments()) {
@@ -168,23 +237,89 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
             gameStateClient.setGameState(this.gameState, this.gameMessageExchange);
         }
 
+        // Inform all views about each move or batch of moves, no matter which fragment changed
+        // the game board. The changes are collected until the next display frame, so that a
+        // burst of moves and matched words found meanwhile are rendered only once.
+        this.gameState.getGameLogic().addChangeListener(changeSet -> {
+            this.pendingChanges.addAll(changeSet);
+            this.scheduleRefresh();
+        });
+
         this.checkGameWon = false;
+        this.refreshedProgress = this.gameState.game.progress;
         this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_REFRESH_VIEWS);
         this.checkGameWon = true;
     }
 
+    /**
+     * Inform all fragments about the changes on the next display frame, unless this has already
+     * been requested.
+     */
+    private void scheduleRefresh() {
+        if (this.pendingRefreshRequests == 0) {
+            Choreographer.getInstance().postFrameCallback(this.refreshFrameCallback);
+        }
+
+        this.pendingRefreshRequests += 1;
+    }
+
+    /**
+     * Send one message of each kind to the fragments for all changes since the previous frame.
+     * MESSAGE_WORDS_CHANGED and MESSAGE_PROGRESS_CHANGED are only sent, if any words or the
+     * progress have actually been changed. The change sets are swapped, so that changes made
+     * while the fragments are refreshed lead to another refresh on the next frame.
+     *
+     * @param frameTimeNanos Start of the frame
+     */
+    private void onRefreshFrame(long frameTimeNanos) {
+        long start = System.nanoTime();
+
+        ChangeSet changes = this.pendingChanges;
+        this.pendingChanges = this.refreshedChanges;
+        this.refreshedChanges = changes;
+
+        Metrics.get("gameRefresh.requestsPerFrame").record(this.pendingRefreshRequests);
+        Metrics.get("gameRefresh.fieldsPerFrame").record(changes.count());
+        this.pendingRefreshRequests = 0;
+
+        if (!changes.isEmpty()) {
+            this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_FIELDS_CHANGED);
+        }
+
+        if (changes.hasChanges(ChangeSet.CHANGED_WORDS)) {
+            this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_WORDS_CHANGED);
+        }
+
+        if (this.gameState.game.progress != this.refreshedProgress) {
+            this.refreshedProgress = this.gameState.game.progress;
+            this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_PROGRESS_CHANGED);
+        }
+
+        changes.clear();
+
+        Metrics.get("gameRefresh.micros").recordMicrosSince(start);
+    }
+
     /**
      * Handle messages indicating changes to the game state. Usually the activity doesn't
-     * participate in the game logic. We need the event however, to detect when the game
-     * has been won.
+     * participate in the game logic. We need the events however, to display the progress and
+     * to detect when the game has been won.
      *
      * @param what Message code (see constants)
      * @param xPos Horizontal field number or -1
      * @param yPos Vertical field number or -1
      */
     public void onGameStateMessage(int what, int xPos, int yPos) {
-        if (this.checkGameWon && this.gameState.game.progress == 100) {
-            NavigationUtils.gotoFinished(this, this.gameState.game.uid);
+        switch (what) {
+            case GameStateClient.MESSAGE_PROGRESS_CHANGED:
+                this.updateTimeAndProgressUi();
+                break;
+            case GameStateClient.MESSAGE_REFRESH_VIEWS:
+            case GameStateClient.MESSAGE_FIELDS_CHANGED:
+                if (this.checkGameWon && this.gameState.getGameLogic().isSolved()) {
+                    NavigationUtils.gotoFinished(this, this.gameState.game.uid);
+                }
+                break;
         }
     }
 
@@ -212,6 +347,9 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
     public boolean onPrepareOptionsMenu(Menu menu) {
         this.elapsedTimeMenuItem = menu.findItem(R.id.action_game_elapsed_time);
         this.progressMenuItem = menu.findItem(R.id.action_game_progress);
+
+        MenuItem nativeGameBoardMenuItem = menu.findItem(R.id.action_game_native_board);
+        nativeGameBoardMenuItem.setChecked(this.preferences.getBoolean(KEY_NATIVE_GAME_BOARD, false));
         return true;
     }
 
@@ -228,6 +366,12 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
             case R.id.action_game_discard:
                 this.deleteGameStateAndLeave();
                 break;
+            case R.id.action_game_native_board:
+                this.switchGameBoard(!item.isChecked());
+                break;
+            case R.id.action_game_show_metrics:
+                this.showMetrics();
+                break;
             default:
                 return super.onOptionsItemSelected(item);
         }
@@ -235,6 +379,42 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
         return true;
     }
 
+    /**
+     * Switch between the webview and the native game board. The activity is recreated to replace
+     * the game board, so that both can be compared from the same starting point. The game is
+     * saved when the activity is paused for this.
+     *
+     * @param nativeGameBoard Use GameBoardCanvasFragment instead of GameBoardFragment
+     */
+    private void switchGameBoard(boolean nativeGameBoard) {
+        this.preferences.edit().putBoolean(KEY_NATIVE_GAME_BOARD, nativeGameBoard).apply();
+        this.recreate();
+    }
+
+    /**
+     * Show all metrics recorded since the app has been started, e.g. to compare the webview with
+     * the native game board after playing a few moves on each.
+     */
+    private void showMetrics() {
+        StringBuilder message = new StringBuilder();
+
+        for (Metric metric : Metrics.getAll()) {
+            message.append(metric.toString()).append("\n");
+        }
+
+        if (message.length() == 0) {
+            message.append(this.getString(R.string.game_show_metrics_empty));
+        }
+
+        AppDialogFragmentBuilder appDialogFragmentBuilder = new AppDialogFragmentBuilder(this, this.savedInstanceState);
+        AlertDialog.Builder builder = appDialogFragmentBuilder.getAlertDialogBuilder();
+        builder.setTitle(R.string.game_show_metrics);
+        builder.setMessage(message.toString().trim());
+        builder.setPositiveButton(android.R.string.ok, null);
+
+        appDialogFragmentBuilder.create().show(this.getSupportFragmentManager(), "show_metrics");
+    }
+
     /**
      * Display the elapsed time and game progress in the action bar.
      */
@@ -261,7 +441,8 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
     }
 
     /**
-     * Pause game clock and save the game, when the activity becomes invisible.
+     * Pause game clock and save the game, when the activity becomes invisible. The metrics are
+     * written into the debug log at the same time, so that they can be read with logcat.
      */
     @Override
     protected void onPause() {
@@ -272,6 +453,21 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
         if (this.saveOnExit) {
             this.saveGameState();
         }
+
+        Metrics.log();
+    }
+
+    /**
+     * Cancel a pending refresh, when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        if (this.pendingRefreshRequests > 0) {
+            Choreographer.getInstance().removeFrameCallback(this.refreshFrameCallback);
+            this.pendingRefreshRequests = 0;
+        }
     }
 
     /**
@@ -293,6 +489,7 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
 
     /**
      * Update time and progress every second. Save game every SAVE_GAME_STATE_INTERVAL seconds.
+     * The moves in between are saved by the move journal.
      */
     private void onClockTick() {
         // Wait until the game state becomes ready
@@ -317,12 +514,24 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
     }
 
     /**
-     * Clone the current game state and save it on the database.
+     * Save the changes of the current game state since the last save on the database. This
+     * folds the move journal into the saved board, so that the moves, which have not been
+     * written to the journal yet, don't need to be written anymore. The UI thread only takes a
+     * snapshot of the board, which is encoded and written by the database thread.
      */
     private void saveGameState() {
+        if (this.gameState == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
         this.gameState.game.saveDate = new Date();
-        GameState persistedGameState = new GameState(this.gameState);
-        DatabaseThread.getInstance().post(new SaveOrDeleteGame(persistedGameState, SaveOrDeleteGame.Operation.UPDATE));
+        GameCheckpoint checkpoint = this.gameState.createCheckpoint();
+        this.moveJournalWriter.discardPendingMoves();
+        DatabaseThread.getInstance().post(new SaveGameCheckpoint(checkpoint));
+
+        Metrics.get("gameSave.uiMicros").recordMicrosSince(start);
     }
 
     /**
@@ -337,6 +546,11 @@ public class GameActivity extends AppCompatActivity implements Handler.Callback
             // Stop clock, delete game
             ClockThread.getInstance().pauseClock();
 
+            if (this.moveJournalWriter != null) {
+                this.gameState.setMoveListener(null);
+                this.moveJournalWriter.discardPendingMoves();
+            }
+
             SaveOrDeleteGame task = new SaveOrDeleteGame(this.gameState, SaveOrDeleteGame.Operation.DELETE);
             DatabaseThread.getInstance().post(task);
             this.saveOnExit = false;
@@ -0,0 +1,137 @@
+package de.wpvs.sudo_ku.activity.game;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Collections;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.model.game.ChangeSet;
+import de.wpvs.sudo_ku.model.game.GameState;
+
+/**
+ * Alternative to GameBoardFragment, which draws the game board natively with GameBoardView
+ * instead of rendering it in a webview. It can be chosen in the options menu of the game (see
+ * GameActivity), so that both implementations can be compared with each other.
+ *
+ * Like GameBoardFragment, only the fields contained in the merged change set of each refresh are
+ * painted again.
+ */
+public class GameBoardCanvasFragment extends Fragment implements GameStateClient {
+    private GameState gameState;
+    private GameMessageExchange gameMessageExchange;
+
+    private GameBoardView gameBoardView;
+
+    /**
+     * Callback to inflate the view hierarchy.
+     *
+     * @param inflater UI inflater
+     * @param container Parent container
+     * @param savedInstanceState Saved instance state
+     * @return New root view
+     */
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.game_board_canvas_fragment, container, false);
+    }
+
+    /**
+     * Callback for further initialisation of the views, once they are completely created.
+     *
+     * @param view Root view
+     * @param savedInstanceState Saved instance state
+     */
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        this.gameBoardView = view.findViewById(R.id.game_board_canvas_fragment_view);
+
+        this.gameBoardView.setOnFieldSelectedListener((xPos, yPos) -> {
+            this.gameMessageExchange.sendFieldMessage(GameStateClient.MESSAGE_FIELD_SELECTED, xPos, yPos);
+        });
+
+        if (this.gameState != null) {
+            this.gameBoardView.setGameLogic(this.gameState.getGameLogic());
+        }
+    }
+
+    /**
+     * Receive the game state and the message exchange object from the parent activity.
+     *
+     * @param gameState State of the current game
+     * @param gameMessageExchange Object used to send message to the other clients
+     */
+    @Override
+    public void setGameState(GameState gameState, GameMessageExchange gameMessageExchange) {
+        this.gameState = gameState;
+        this.gameMessageExchange = gameMessageExchange;
+
+        if (this.gameBoardView != null) {
+            this.gameBoardView.setGameLogic(this.gameState.getGameLogic());
+        }
+    }
+
+    /**
+     * Forget the view, when it is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        this.gameBoardView = null;
+    }
+
+    /**
+     * @return Bit mask of the messages handled by this fragment
+     */
+    @Override
+    public int getSubscribedMessages() {
+        return GameStateClient.MESSAGE_REFRESH_VIEWS
+                | GameStateClient.MESSAGE_FIELDS_CHANGED
+                | GameStateClient.MESSAGE_FIELD_SELECTED;
+    }
+
+    /**
+     * Handle messages indicating changes to the game state.
+     *
+     * @param what Message code (see constants)
+     * @param xPos Horizontal field number or -1
+     * @param yPos Vertical field number or -1
+     */
+    @Override
+    public void onGameStateMessage(int what, int xPos, int yPos) {
+        if (this.gameBoardView == null) {
+            return;
+        }
+
+        switch (what) {
+            case GameStateClient.MESSAGE_REFRESH_VIEWS:
+                this.gameBoardView.invalidateAllFields();
+                break;
+            case GameStateClient.MESSAGE_FIELDS_CHANGED:
+                ChangeSet changeSet = this.gameMessageExchange.getChangedFields();
+
+                for (int i = 0; i < changeSet.count(); i++) {
+                    this.gameBoardView.invalidateField(changeSet.getIndex(i));
+                }
+
+                if (this.gameBoardView.hasInvalidFields()) {
+                    this.gameBoardView.invalidate();
+                }
+                break;
+            case GameStateClient.MESSAGE_FIELD_SELECTED:
+                if (xPos >= 0 && yPos >= 0) {
+                    this.gameBoardView.setHighlightedFields(this.gameState.getGameLogic().getFieldsWithoutDuplicates(xPos, yPos));
+                } else {
+                    this.gameBoardView.setHighlightedFields(Collections.emptyList());
+                }
+                break;
+        }
+    }
+}
@@ -12,6 +12,8 @@ import android.webkit.WebViewClient;
 
 import com.google.gson.Gson;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 
@@ -19,8 +21,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.metrics.Metrics;
+import de.wpvs.sudo_ku.model.game.ChangeSet;
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
 import de.wpvs.sudo_ku.model.game.GameLogic;
 import de.wpvs.sudo_ku.model.game.GameState;
+import de.wpvs.sudo_ku.model.game.PackedBoard;
 
 /**
  * View fragment with the game board. This paints the fields and handles all direct UI interactions
@@ -29,15 +35,30 @@ import de.wpvs.sudo_ku.model.game.GameState;
  * This implementation is using a webview to render the game board in HTML. While this definitely
  * is not the most efficient thing to do, it saves us from writing a full custom widget for the
  * time being.
+ *
+ * To keep the traffic through the JavaScript bridge small, only the fields changed since the last
+ * refresh are sent to the webview. The changed fields are taken from the merged change set handed
+ * over with each refresh (see GameStateClient). Each field is sent as four numbers: Its index
+ * (xPos * size + yPos), its character code, the bit mask of its pencil marks and its flags
+ * (FIELD_WORD, FIELD_LOCKED). The characters themselves are only sent once, when the game board
+ * is created. The size of each update and the render time reported back by the webview are
+ * recorded as metrics.
+ *
+ * See GameBoardCanvasFragment for a native alternative without the webview.
  */
 public class GameBoardFragment extends Fragment implements GameStateClient {
     private GameState gameState;
     private GameMessageExchange gameMessageExchange;
 
+    private static final int FIELD_WORD = 1;
+    private static final int FIELD_LOCKED = 2;
+
     private WebView webView;
     private boolean gameBoardInitialized = false;
     private final Semaphore gameStateReady = new Semaphore(0);
 
+    private final BitSet dirtyFields = new BitSet();
+
     /**
      * Callback methods called from the JavaScript code running in the web view. Note, that the
      * methods of this class will not run on the UI thread.
@@ -65,6 +86,17 @@ public class GameBoardFragment extends Fragment implements GameStateClient {
                 GameBoardFragment.this.gameMessageExchange.sendFieldMessage(GameStateClient.MESSAGE_FIELD_SELECTED, xPos, yPos);
             });
         }
+
+        /**
+         * Receive the time needed by the webview to render an update of the game board.
+         *
+         * @param micros Render time in microseconds
+         */
+        @JavascriptInterface
+        public void onFieldsUpdated(long micros) {
+            Metrics.get("gameBoard.renderMicros").record(micros);
+            GameBoardMetrics.recordFirstFrame(GameBoardMetrics.RENDERER_WEBVIEW);
+        }
     }
 
     /**
@@ -105,13 +137,21 @@ public class GameBoardFragment extends Fragment implements GameStateClient {
                 // Then initialize game board
                 GameBoardFragment.this.gameStateReady.acquireUninterruptibly();
 
+                GameLogic gameLogic = GameBoardFragment.this.gameState.getGameLogic();
+                CharacterCodec codec = gameLogic.getCodec();
+                List<String> characters = new ArrayList<>(codec.size());
                 int size = GameBoardFragment.this.gameState.game.size;
                 int sectionSize = (int) Math.sqrt(size);
 
-                String javascript = "createGameBoard(" + size + ", " + sectionSize + ");";
+                for (int code = 0; code < codec.size(); code++) {
+                    characters.add(codec.decode(code));
+                }
+
+                String javascript = "createGameBoard(" + size + ", " + sectionSize + ", " + new Gson().toJson(characters) + ");";
                 view.evaluateJavascript(javascript, null);
 
-                // Refresh view to display the field numbers after the board has been set up
+                // Refresh view to display all fields after the board has been set up
+                GameBoardFragment.this.dirtyFields.set(0, size * size);
                 GameBoardFragment.this.refreshView();
             }
         });
@@ -132,6 +172,16 @@ public class GameBoardFragment extends Fragment implements GameStateClient {
         this.gameBoardInitialized = false;
     }
 
+    /**
+     * @return Bit mask of the messages handled by this fragment
+     */
+    @Override
+    public int getSubscribedMessages() {
+        return GameStateClient.MESSAGE_REFRESH_VIEWS
+                | GameStateClient.MESSAGE_FIELDS_CHANGED
+                | GameStateClient.MESSAGE_FIELD_SELECTED;
+    }
+
     /**
      * Handle messages indicating changes to the game state.
      *
@@ -143,6 +193,20 @@ public class GameBoardFragment extends Fragment implements GameStateClient {
     public void onGameStateMessage(int what, int xPos, int yPos) {
         switch (what) {
             case GameStateClient.MESSAGE_REFRESH_VIEWS:
+                if (this.gameBoardInitialized) {
+                    int size = this.gameState.game.size;
+                    this.dirtyFields.set(0, size * size);
+                }
+
+                this.refreshView();
+                break;
+            case GameStateClient.MESSAGE_FIELDS_CHANGED:
+                ChangeSet changeSet = this.gameMessageExchange.getChangedFields();
+
+                for (int i = 0; i < changeSet.count(); i++) {
+                    this.dirtyFields.set(changeSet.getIndex(i));
+                }
+
                 this.refreshView();
                 break;
             case GameStateClient.MESSAGE_FIELD_SELECTED:
@@ -152,18 +216,50 @@ public class GameBoardFragment extends Fragment implements GameStateClient {
     }
 
     /**
-     * Update the game board after the game state has changed. Also create the game board HTML
-     * structure, if this has not been done, already.
+     * Update the changed fields of the game board after the game state has changed. Also create
+     * the game board HTML structure, if this has not been done, already.
      */
     private void refreshView() {
         if (!this.gameBoardInitialized) {
             this.gameBoardInitialized = true;
             this.gameStateReady.release(1);
+            return;
         }
 
-        String characterFieldsJson = new Gson().toJson(this.gameState.characterFields);
-        String javascript = "updateCharacterFields(" + characterFieldsJson + ")";
-        this.webView.evaluateJavascript(javascript, null);
+        if (this.dirtyFields.isEmpty()) {
+            return;
+        }
+
+        GameLogic gameLogic = this.gameState.getGameLogic();
+        PackedBoard board = gameLogic.getBoard();
+        int size = board.getSize();
+        StringBuilder javascript = new StringBuilder("updateFields([");
+
+        for (int index = this.dirtyFields.nextSetBit(0); index >= 0; index = this.dirtyFields.nextSetBit(index + 1)) {
+            int xPos = index / size;
+            int yPos = index % size;
+            int flags = 0;
+
+            if (!gameLogic.getCharacterField(xPos, yPos).words.isEmpty()) {
+                flags |= FIELD_WORD;
+            }
+
+            if (board.isLocked(xPos, yPos)) {
+                flags |= FIELD_LOCKED;
+            }
+
+            javascript.append(index).append(',')
+                    .append(board.getCharacter(xPos, yPos)).append(',')
+                    .append(board.getPencil(xPos, yPos)).append(',')
+                    .append(flags).append(',');
+        }
+
+        javascript.setCharAt(javascript.length() - 1, ']');
+        javascript.append(")");
+        this.dirtyFields.clear();
+
+        Metrics.get("gameBoard.payloadChars").record(javascript.length());
+        this.webView.evaluateJavascript(javascript.toString(), null);
     }
 
     /**
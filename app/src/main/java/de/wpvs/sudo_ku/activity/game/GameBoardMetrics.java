@@ -0,0 +1,55 @@
+package de.wpvs.sudo_ku.activity.game;
+
+import android.os.Debug;
+
+import de.wpvs.sudo_ku.metrics.Metrics;
+
+/**
+ * Launch metrics of the game board, so that the webview (GameBoardFragment) and the native
+ * canvas (GameBoardCanvasFragment) can be compared with each other. GameActivity marks the start
+ * of the launch, the game board records its first frame showing the game. Recorded are the time
+ * between both and the memory used by the app at that time. Note, that most of the memory of the
+ * webview is allocated by a separate renderer process, which is not included here.
+ */
+final class GameBoardMetrics {
+    static final String RENDERER_WEBVIEW = "webView";
+    static final String RENDERER_CANVAS = "canvas";
+
+    private static long launchNanos = 0;
+
+    /**
+     * Don't allow instantiation of this utility class.
+     */
+    private GameBoardMetrics() {
+    }
+
+    /**
+     * Remember the start of the launch. Must be called by the activity before the game board is
+     * created.
+     */
+    static synchronized void markLaunch() {
+        launchNanos = System.nanoTime();
+    }
+
+    /**
+     * Record the launch time and memory usage, if this is the first frame after the launch.
+     * Later calls will be ignored until the next launch.
+     *
+     * @param renderer Name of the game board implementation (see constants)
+     */
+    static synchronized void recordFirstFrame(String renderer) {
+        if (launchNanos == 0) {
+            return;
+        }
+
+        Metrics.get("gameBoard." + renderer + ".launchMillis").record((System.nanoTime() - launchNanos) / 1000000);
+        launchNanos = 0;
+
+        Runtime runtime = Runtime.getRuntime();
+        long javaHeap = runtime.totalMemory() - runtime.freeMemory();
+        long nativeHeap = Debug.getNativeHeapAllocatedSize();
+
+        Metrics.get("gameBoard." + renderer + ".javaHeapKiB").record(javaHeap / 1024);
+        Metrics.get("gameBoard." + renderer + ".nativeHeapKiB").record(nativeHeap / 1024);
+    }
+}
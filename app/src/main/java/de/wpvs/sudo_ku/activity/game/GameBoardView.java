@@ -0,0 +1,443 @@
+package de.wpvs.sudo_ku.activity.game;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.BitSet;
+import java.util.List;
+
+import androidx.core.content.ContextCompat;
+import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.metrics.Metrics;
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+import de.wpvs.sudo_ku.model.game.GameLogic;
+import de.wpvs.sudo_ku.model.game.PackedBoard;
+
+/**
+ * Native widget that draws the game board directly on a canvas. It looks like the HTML game
+ * board of GameBoardFragment (same colors, same borders, xPos from left to right and yPos from
+ * top to bottom), but needs neither a webview nor the JavaScript bridge.
+ *
+ * The fields are painted into an offscreen bitmap, so that only the changed fields need to be
+ * painted again. Hardware accelerated views are always redrawn completely, which is why
+ * invalidating only the rectangle of a field would not be enough. onDraw() therefor paints the
+ * fields marked with invalidateField() into the bitmap and then copies the whole bitmap onto the
+ * screen, which is cheap. The time needed for each frame is recorded as a metric.
+ */
+public class GameBoardView extends View {
+    /**
+     * Callback for the player selecting or unselecting a field.
+     */
+    public interface OnFieldSelectedListener {
+        /**
+         * Called when a field has been selected or unselected by the player.
+         *
+         * @param xPos Horizontal coordinate or -1
+         * @param yPos Vertical coordinate or -1
+         */
+        void onFieldSelected(int xPos, int yPos);
+    }
+
+    private GameLogic gameLogic;
+    private String[] characters = new String[0];
+    private int size = 0;
+    private int sectionSize = 1;
+
+    private OnFieldSelectedListener onFieldSelectedListener;
+    private int selectedIndex = -1;
+    private final BitSet highlightedFields = new BitSet();
+    private final BitSet dirtyFields = new BitSet();
+
+    private Bitmap bitmap;
+    private Canvas bitmapCanvas;
+    private float borderWidthNormal;
+    private float borderWidthSection;
+    private float fieldSize;
+
+    private final Paint characterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pencilPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint backgroundPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+
+    private final int colorCharacter;
+    private final int colorCharacterLocked;
+    private final int colorCharacterSelected;
+    private final int colorHighlighted;
+    private final int colorSelected;
+    private final int colorBorderNormal;
+    private final int colorBorderSection;
+
+    /**
+     * Constructor used by the layout inflater.
+     *
+     * @param context Parent context
+     * @param attrs XML attributes
+     */
+    public GameBoardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        float density = this.getResources().getDisplayMetrics().density;
+        this.borderWidthNormal = 1 * density;
+        this.borderWidthSection = 3 * density;
+
+        this.colorCharacter = ContextCompat.getColor(context, R.color.game_board_character);
+        this.colorCharacterLocked = ContextCompat.getColor(context, R.color.game_board_character_locked);
+        this.colorCharacterSelected = ContextCompat.getColor(context, R.color.game_board_character_selected);
+        this.colorHighlighted = ContextCompat.getColor(context, R.color.game_board_highlighted);
+        this.colorSelected = ContextCompat.getColor(context, R.color.game_board_selected);
+        this.colorBorderNormal = ContextCompat.getColor(context, R.color.game_board_border_normal);
+        this.colorBorderSection = ContextCompat.getColor(context, R.color.game_board_border_section);
+
+        this.characterPaint.setTextAlign(Paint.Align.CENTER);
+        this.pencilPaint.setTextAlign(Paint.Align.RIGHT);
+        this.pencilPaint.setColor(ContextCompat.getColor(context, R.color.game_board_pencil));
+    }
+
+    /**
+     * Set the game logic, whose board shall be displayed. All fields will be painted on the next
+     * frame.
+     *
+     * @param gameLogic Game logic of the current game
+     */
+    public void setGameLogic(GameLogic gameLogic) {
+        CharacterCodec codec = gameLogic.getCodec();
+
+        this.gameLogic = gameLogic;
+        this.size = gameLogic.getBoard().getSize();
+        this.sectionSize = Math.max(1, (int) Math.sqrt(this.size));
+        this.characters = new String[codec.size()];
+
+        for (int code = 0; code < codec.size(); code++) {
+            this.characters[code] = codec.decode(code);
+        }
+
+        this.selectedIndex = -1;
+        this.highlightedFields.clear();
+        this.updateFieldSize();
+        this.invalidateAllFields();
+    }
+
+    /**
+     * @param onFieldSelectedListener Callback for selected fields or null
+     */
+    public void setOnFieldSelectedListener(OnFieldSelectedListener onFieldSelectedListener) {
+        this.onFieldSelectedListener = onFieldSelectedListener;
+    }
+
+    /**
+     * Mark a field as changed, so that it will be painted again on the next frame. Call
+     * invalidate() afterwards to request the next frame.
+     *
+     * @param index Field index (xPos * size + yPos)
+     */
+    public void invalidateField(int index) {
+        this.dirtyFields.set(index);
+    }
+
+    /**
+     * Mark all fields as changed. See invalidateField().
+     */
+    public void invalidateAllFields() {
+        this.dirtyFields.set(0, this.size * this.size);
+        this.invalidate();
+    }
+
+    /**
+     * @return true, if at least one field must be painted again
+     */
+    public boolean hasInvalidFields() {
+        return !this.dirtyFields.isEmpty();
+    }
+
+    /**
+     * Highlight the related fields of the selected field. The previously highlighted fields will
+     * be reset.
+     *
+     * @param coordinates Fields to highlight
+     */
+    public void setHighlightedFields(List<GameLogic.Coordinate> coordinates) {
+        this.dirtyFields.or(this.highlightedFields);
+        this.highlightedFields.clear();
+
+        for (GameLogic.Coordinate coordinate : coordinates) {
+            this.highlightedFields.set(coordinate.xPos * this.size + coordinate.yPos);
+        }
+
+        this.dirtyFields.or(this.highlightedFields);
+        this.invalidate();
+    }
+
+    /**
+     * Keep the board square within the available space.
+     *
+     * @param widthMeasureSpec Horizontal space requirements
+     * @param heightMeasureSpec Vertical space requirements
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            width = height;
+        } else if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            height = width;
+        }
+
+        int boardSize = Math.min(width, height);
+        this.setMeasuredDimension(boardSize, boardSize);
+    }
+
+    /**
+     * Create a new offscreen bitmap for the new size of the view.
+     *
+     * @param width New width
+     * @param height New height
+     * @param oldWidth Previous width
+     * @param oldHeight Previous height
+     */
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+
+        if (this.bitmap != null) {
+            this.bitmap.recycle();
+            this.bitmap = null;
+            this.bitmapCanvas = null;
+        }
+
+        if (width > 0 && height > 0) {
+            this.bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            this.bitmapCanvas = new Canvas(this.bitmap);
+        }
+
+        this.updateFieldSize();
+        this.invalidateAllFields();
+    }
+
+    /**
+     * Calculate the size of a single field and the text sizes from the size of the view.
+     */
+    private void updateFieldSize() {
+        if (this.size == 0) {
+            return;
+        }
+
+        this.fieldSize = (this.getWidth() - 2 * this.borderWidthSection) / this.size;
+        this.characterPaint.setTextSize(this.fieldSize * 0.6f);
+        this.pencilPaint.setTextSize(this.fieldSize * 0.25f);
+    }
+
+    /**
+     * Paint the changed fields into the offscreen bitmap, copy it onto the screen and draw the
+     * borders on top.
+     *
+     * @param canvas Canvas of the view
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (this.gameLogic == null || this.bitmap == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        for (int index = this.dirtyFields.nextSetBit(0); index >= 0; index = this.dirtyFields.nextSetBit(index + 1)) {
+            this.drawField(this.bitmapCanvas, index / this.size, index % this.size);
+        }
+
+        this.dirtyFields.clear();
+
+        canvas.drawBitmap(this.bitmap, 0, 0, null);
+        this.drawBorders(canvas);
+
+        Metrics.get("gameBoard.canvas.drawMicros").recordMicrosSince(start);
+        GameBoardMetrics.recordFirstFrame(GameBoardMetrics.RENDERER_CANVAS);
+    }
+
+    /**
+     * Paint a single field with its background, character and pencil marks.
+     *
+     * @param canvas Offscreen canvas
+     * @param xPos Horizontal coordinate
+     * @param yPos Vertical coordinate
+     */
+    private void drawField(Canvas canvas, int xPos, int yPos) {
+        PackedBoard board = this.gameLogic.getBoard();
+        int index = xPos * this.size + yPos;
+
+        float left = this.borderWidthSection + xPos * this.fieldSize;
+        float top = this.borderWidthSection + yPos * this.fieldSize;
+        float right = left + this.fieldSize;
+        float bottom = top + this.fieldSize;
+
+        // Background
+        canvas.save();
+        canvas.clipRect(left, top, right, bottom);
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+
+        if (index == this.selectedIndex) {
+            this.backgroundPaint.setColor(this.colorSelected);
+            canvas.drawRect(left, top, right, bottom, this.backgroundPaint);
+        } else if (this.highlightedFields.get(index)) {
+            this.backgroundPaint.setColor(this.colorHighlighted);
+            canvas.drawRect(left, top, right, bottom, this.backgroundPaint);
+        }
+
+        // Character
+        int code = board.getCharacter(xPos, yPos);
+
+        if (code >= 0 && code < this.characters.length) {
+            if (board.isLocked(xPos, yPos)) {
+                this.characterPaint.setColor(this.colorCharacterLocked);
+            } else if (index == this.selectedIndex) {
+                this.characterPaint.setColor(this.colorCharacterSelected);
+            } else {
+                this.characterPaint.setColor(this.colorCharacter);
+            }
+
+            boolean word = !this.gameLogic.getCharacterField(xPos, yPos).words.isEmpty();
+            this.characterPaint.setTypeface(word ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT);
+
+            float baseline = top + (this.fieldSize - this.characterPaint.ascent() - this.characterPaint.descent()) / 2;
+            canvas.drawText(this.characters[code], left + this.fieldSize / 2, baseline, this.characterPaint);
+        }
+
+        // Pencil marks
+        int pencil = board.getPencil(xPos, yPos);
+
+        if (pencil != 0) {
+            StringBuilder pencilText = new StringBuilder();
+
+            for (int pencilCode = 0; (pencil >> pencilCode) != 0 && pencilCode < this.characters.length; pencilCode++) {
+                if ((pencil & (1 << pencilCode)) != 0) {
+                    pencilText.append(' ').append(this.characters[pencilCode]);
+                }
+            }
+
+            float padding = this.borderWidthNormal * 2;
+            canvas.drawText(pencilText.toString(), right - padding, bottom - padding - this.pencilPaint.descent(), this.pencilPaint);
+        }
+
+        canvas.restore();
+    }
+
+    /**
+     * Draw the borders between the fields and around the board. The borders between two sections
+     * are drawn thicker than between two fields.
+     *
+     * @param canvas Canvas of the view
+     */
+    private void drawBorders(Canvas canvas) {
+        float start = this.borderWidthSection;
+        float stop = this.borderWidthSection + this.size * this.fieldSize;
+
+        // Normal borders first, so that the section borders are drawn on top
+        this.borderPaint.setColor(this.colorBorderNormal);
+        this.borderPaint.setStrokeWidth(this.borderWidthNormal);
+
+        for (int i = 1; i < this.size; i++) {
+            if (i % this.sectionSize != 0) {
+                float position = this.borderWidthSection + i * this.fieldSize;
+                canvas.drawLine(position, start, position, stop, this.borderPaint);
+                canvas.drawLine(start, position, stop, position, this.borderPaint);
+            }
+        }
+
+        this.borderPaint.setColor(this.colorBorderSection);
+        this.borderPaint.setStrokeWidth(this.borderWidthSection);
+
+        for (int i = 0; i <= this.size; i += this.sectionSize) {
+            float position = this.borderWidthSection + i * this.fieldSize;
+            float outerStart = start - this.borderWidthSection / 2;
+            float outerStop = stop + this.borderWidthSection / 2;
+
+            if (i == 0) {
+                position -= this.borderWidthSection / 2;
+            } else if (i == this.size) {
+                position += this.borderWidthSection / 2;
+            }
+
+            canvas.drawLine(position, outerStart, position, outerStop, this.borderPaint);
+            canvas.drawLine(outerStart, position, outerStop, position, this.borderPaint);
+        }
+    }
+
+    /**
+     * Select or unselect the touched field.
+     *
+     * @param event Touch event
+     * @return true, if the event has been handled
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (this.gameLogic == null || this.fieldSize <= 0) {
+            return super.onTouchEvent(event);
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                int xPos = (int) ((event.getX() - this.borderWidthSection) / this.fieldSize);
+                int yPos = (int) ((event.getY() - this.borderWidthSection) / this.fieldSize);
+
+                if (xPos >= 0 && xPos < this.size && yPos >= 0 && yPos < this.size) {
+                    this.toggleSelection(xPos * this.size + yPos);
+                    this.performClick();
+                }
+
+                return true;
+        }
+
+        return super.onTouchEvent(event);
+    }
+
+    /**
+     * Required for accessibility, since onTouchEvent() is overridden.
+     *
+     * @return true, if a click listener has been called
+     */
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Select the given field or unselect it, if it is already selected. Inform the listener
+     * about the change.
+     *
+     * @param index Field index (xPos * size + yPos)
+     */
+    private void toggleSelection(int index) {
+        if (this.selectedIndex >= 0) {
+            this.dirtyFields.set(this.selectedIndex);
+        }
+
+        this.selectedIndex = index == this.selectedIndex ? -1 : index;
+
+        if (this.selectedIndex >= 0) {
+            this.dirtyFields.set(this.selectedIndex);
+        }
+
+        this.invalidate();
+
+        if (this.onFieldSelectedListener != null) {
+            if (this.selectedIndex >= 0) {
+                this.onFieldSelectedListener.onFieldSelected(this.selectedIndex / this.size, this.selectedIndex % this.size);
+            } else {
+                this.onFieldSelectedListener.onFieldSelected(-1, -1);
+            }
+        }
+    }
+}
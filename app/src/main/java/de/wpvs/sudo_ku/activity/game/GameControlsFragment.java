@@ -8,23 +8,21 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageButton;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import de.wpvs.sudo_ku.R;
-import de.wpvs.sudo_ku.model.game.CharacterFieldEntity;
+import de.wpvs.sudo_ku.model.game.ChangeSet;
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
 import de.wpvs.sudo_ku.model.game.GameLogic;
 import de.wpvs.sudo_ku.model.game.GameState;
-import de.wpvs.sudo_ku.model.game.GameUtils;
+import de.wpvs.sudo_ku.model.game.PackedBoard;
 
 /**
  * View fragment with the game controls. Listens for selection changed messages from the game
  * board to update its views and actively changes the game state when the player selects or
- * erases characters.
+ * erases characters. Changed fields only update the character buttons, if they can change the
+ * allowed characters of the selected field.
  */
 public class GameControlsFragment extends Fragment implements GameStateClient {
     private GameState gameState;
@@ -63,7 +61,7 @@ public class GameControlsFragment extends Fragment implements GameStateClient {
             R.id.game_controls_character_button_16,
     };
 
-    private final Map<String, Button> characterButtons = new HashMap<>();
+    private Button[] characterButtons = new Button[0];
 
     /**
      * Callback to inflate the view hierarchy. To prevent crashes new views can be created here,
@@ -124,24 +122,36 @@ public class GameControlsFragment extends Fragment implements GameStateClient {
         this.gameState = gameState;
         this.gameMessageExchange = gameMessageExchange;
 
-        // Initialize character buttons
-        GameUtils.sortCharacterSet(this.gameState.game.characterSet, this.gameState.game.gameType);
+        // Initialize character buttons. They are ordered by the character codes, which follow
+        // the sorted character set, so that a button can be found by its code.
+        CharacterCodec codec = this.gameState.getGameLogic().getCodec();
+        this.characterButtons = new Button[Math.min(codec.size(), this.characterButtonIds.length)];
 
-        for (int i = 0; i < this.gameState.game.characterSet.size() && i < this.characterButtonIds.length; i++) {
-            Button button = this.getView().findViewById(this.characterButtonIds[i]);
-            String character = this.gameState.game.characterSet.get(i);
+        for (int code = 0; code < this.characterButtons.length; code++) {
+            Button button = this.getView().findViewById(this.characterButtonIds[code]);
+            int buttonCode = code;
 
-            button.setText(character);
+            button.setText(codec.decode(code));
             button.setEnabled(true);
-            button.setOnClickListener(v -> this.onCharacterButtonClick(character));
+            button.setOnClickListener(v -> this.onCharacterButtonClick(buttonCode));
 
-            this.characterButtons.put(character, button);
+            this.characterButtons[code] = button;
         }
 
         this.updatePencilButton();
         this.updateCharacterButtons();
     }
 
+    /**
+     * @return Bit mask of the messages handled by this fragment
+     */
+    @Override
+    public int getSubscribedMessages() {
+        return GameStateClient.MESSAGE_REFRESH_VIEWS
+                | GameStateClient.MESSAGE_FIELDS_CHANGED
+                | GameStateClient.MESSAGE_FIELD_SELECTED;
+    }
+
     /**
      * Handle messages indicating changes to the game state.
      *
@@ -155,6 +165,11 @@ public class GameControlsFragment extends Fragment implements GameStateClient {
             case GameStateClient.MESSAGE_REFRESH_VIEWS:
                 this.updateCharacterButtons();
                 break;
+            case GameStateClient.MESSAGE_FIELDS_CHANGED:
+                if (this.isSelectionAffected(this.gameMessageExchange.getChangedFields())) {
+                    this.updateCharacterButtons();
+                }
+                break;
             case GameStateClient.MESSAGE_FIELD_SELECTED:
                 this.xPosSelected = xPos;
                 this.yPosSelected = yPos;
@@ -163,6 +178,34 @@ public class GameControlsFragment extends Fragment implements GameStateClient {
         }
     }
 
+    /**
+     * Check whether the changed fields affect the character buttons. This is the case, if the
+     * selected field itself has been changed or a character has been set or erased on one of
+     * its peers, since this changes the allowed characters.
+     *
+     * @param changeSet Changed fields
+     * @return true, if the character buttons need to be updated
+     */
+    private boolean isSelectionAffected(ChangeSet changeSet) {
+        GameLogic gameLogic = this.gameState.getGameLogic();
+
+        if (gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected) == null) {
+            return false;
+        }
+
+        if (changeSet.contains(this.xPosSelected, this.yPosSelected)) {
+            return true;
+        }
+
+        for (int peer : gameLogic.getBoard().getPeerTable().getPeers(this.xPosSelected, this.yPosSelected)) {
+            if ((changeSet.getChanges(peer) & ChangeSet.CHANGED_CHARACTER) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Update styling of the pencil button, depending on whether pencil mode is active.
      */
@@ -177,68 +220,67 @@ public class GameControlsFragment extends Fragment implements GameStateClient {
     /**
      * Update the character buttons to reflect the game state of the currently selected field.
      * If no field is selected, all buttons are inactive. Otherwise the set value is higlighted
-     * and only disallowed characters are made inactive.
+     * and only disallowed characters are made inactive. The allowed characters are queried only
+     * once as a bit mask, which is then checked for each button.
      */
     private void updateCharacterButtons() {
         // Get selected character field, if any
         GameLogic gameLogic = this.gameState.getGameLogic();
-        CharacterFieldEntity characterField = gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected);
+        PackedBoard board = gameLogic.getBoard();
 
         // Update buttons
-        if (characterField == null) {
-            for (Button button : this.characterButtons.values()) {
+        if (gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected) == null) {
+            for (Button button : this.characterButtons) {
                 button.setTextColor(this.characterColorInactive);
                 button.setEnabled(false);
             }
         } else {
-            List<String> allowedCharacters = gameLogic.getAllowedCharacters(this.xPosSelected, this.yPosSelected, this.flags);
+            int allowedCharacters = gameLogic.getAllowedCharacterMask(this.xPosSelected, this.yPosSelected, this.flags);
+            int character = board.getCharacter(this.xPosSelected, this.yPosSelected);
+            int pencil = board.getPencil(this.xPosSelected, this.yPosSelected);
+            boolean locked = board.isLocked(this.xPosSelected, this.yPosSelected);
 
-            for (String character : this.characterButtons.keySet()) {
-                Button button = this.characterButtons.get(character);
-                assert button != null;
+            for (int code = 0; code < this.characterButtons.length; code++) {
+                Button button = this.characterButtons[code];
+                boolean allowed = (allowedCharacters & (1 << code)) != 0;
 
-                if (!this.pencil && character.equals(characterField.character)) {
-                    if (!characterField.locked) {
+                if (!allowed) {
+                    button.setTextColor(this.characterColorNotAllowed);
+                } else if (!this.pencil && code == character) {
+                    if (!locked) {
                         button.setTextColor(this.characterColorActive);
                     } else {
                         button.setTextColor(this.characterColorLocked);
                     }
-                } else if (this.pencil && characterField.pencil.contains(character)) {
+                } else if (this.pencil && (pencil & (1 << code)) != 0) {
                     button.setTextColor(this.characterColorActive);
                 } else {
                     button.setTextColor(this.characterColorInactive);
                 }
 
-                if (!allowedCharacters.contains(character)) {
-                    button.setTextColor(this.characterColorNotAllowed);
-                }
-
-                button.setEnabled(allowedCharacters.contains(character) && !characterField.locked);
+                button.setEnabled(allowed && !locked);
             }
         }
     }
 
     /**
      * Update game state after a button has been clicked.
-     * @param character Clicked character
+     * @param code Character code of the clicked button
      */
-    private void onCharacterButtonClick(String character) {
+    private void onCharacterButtonClick(int code) {
         GameLogic gameLogic = this.gameState.getGameLogic();
-        CharacterFieldEntity characterField = gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected);
+        PackedBoard board = gameLogic.getBoard();
         boolean set = true;
 
-        if (characterField == null) {
+        if (gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected) == null) {
             return;
-        } else if (!pencil && characterField.character.equals(character)) {
+        } else if (!pencil && board.getCharacter(this.xPosSelected, this.yPosSelected) == code) {
             set = false;
-        } else if (pencil && characterField.pencil.contains(character)) {
+        } else if (pencil && (board.getPencil(this.xPosSelected, this.yPosSelected) & (1 << code)) != 0) {
             set = false;
         }
 
-        boolean accepted = this.gameState.setCharacter(this.xPosSelected, this.yPosSelected, this.flags, character, set);
-
-        if (accepted) {
-            this.gameMessageExchange.sendEmptyMessage(GameStateClient.MESSAGE_REFRESH_VIEWS);
-        }
+        // The views are refreshed by the game activity, once the change has been committed
+        this.gameState.setCharacter(this.xPosSelected, this.yPosSelected, this.flags, code, set);
     }
 }
@@ -1,36 +1,35 @@
 package de.wpvs.sudo_ku.activity.game;
 
-import android.graphics.Typeface;
 import android.os.Bundle;
-import android.text.Spannable;
-import android.text.TextPaint;
-import android.text.method.LinkMovementMethod;
-import android.text.style.CharacterStyle;
-import android.text.style.ClickableSpan;
-import android.text.style.StyleSpan;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.TextView;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import com.google.android.flexbox.FlexDirection;
+import com.google.android.flexbox.FlexWrap;
+import com.google.android.flexbox.FlexboxLayoutManager;
+
+import java.util.HashSet;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
 import de.wpvs.sudo_ku.R;
 import de.wpvs.sudo_ku.activity.NavigationUtils;
 import de.wpvs.sudo_ku.model.game.CharacterFieldEntity;
-import de.wpvs.sudo_ku.model.game.GameLogic;
 import de.wpvs.sudo_ku.model.game.GameState;
-import de.wpvs.sudo_ku.model.game.WordEntity;
+import de.wpvs.sudo_ku.model.game.MatchedWordList;
 
 /**
  * View fragment with a list of matched words. Passively watches the game state to display a list
  * all already matched words in the letter game. Also handles some UI interactions like clicking
  * a word to open its description.
+ *
+ * The words are displayed as wrapping chips in a RecyclerView. When words have been matched or
+ * removed, only the changed words are inserted or removed (see MatchedWordList). When another
+ * field is selected, only the words whose highlighting has changed are updated.
  */
 public class GameMatchedWordsFragment extends Fragment implements GameStateClient {
     private GameState gameState;
@@ -39,42 +38,8 @@ public class GameMatchedWordsFragment extends Fragment implements GameStateClien
     private int xPosSelected = -1;
     private int yPosSelected = -1;
 
-    private TextView textView;
-
-    /**
-     * Custom clickable text span that allows opening the corresponding TLDR page for a given
-     * word.
-     */
-    private class TldrClickableSpan extends ClickableSpan {
-        private final String word;
-
-        /**
-         * Constructor
-         *
-         * @param word Matched word
-         */
-        public TldrClickableSpan(String word) {
-            this.word = word;
-        }
-
-        /**
-         * Open TLDR page on click
-         *
-         * @param widget Not used
-         */
-        @Override
-        public void onClick(@NonNull View widget) {
-            NavigationUtils.gotoTldrPage(GameMatchedWordsFragment.this.getContext(), this.word);
-        }
-
-        /**
-         * Don't change styling for the links.
-         * @param ds Text paint
-         */
-        @Override
-        public void updateDrawState(@NonNull TextPaint ds) {
-        }
-    }
+    private final MatchedWordList matchedWords = new MatchedWordList();
+    private final GameMatchedWordsRecyclerViewAdapter adapter = new GameMatchedWordsRecyclerViewAdapter(this.matchedWords);
 
     /**
      * Callback to inflate the view hierarchy. To prevent crashes new views can be created here,
@@ -100,7 +65,12 @@ public class GameMatchedWordsFragment extends Fragment implements GameStateClien
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
-        this.textView = view.findViewById(R.id.game_matched_words_fragment_textview);
+
+        RecyclerView recyclerView = view.findViewById(R.id.game_matched_words_fragment_recyclerview);
+        recyclerView.setLayoutManager(new FlexboxLayoutManager(this.getContext(), FlexDirection.ROW, FlexWrap.WRAP));
+        recyclerView.setAdapter(this.adapter);
+
+        this.adapter.setClickListener(word -> NavigationUtils.gotoTldrPage(this.getContext(), word));
     }
 
     /**
@@ -115,6 +85,16 @@ public class GameMatchedWordsFragment extends Fragment implements GameStateClien
         this.gameMessageExchange = gameMessageExchange;
     }
 
+    /**
+     * @return Bit mask of the messages handled by this fragment
+     */
+    @Override
+    public int getSubscribedMessages() {
+        return GameStateClient.MESSAGE_REFRESH_VIEWS
+                | GameStateClient.MESSAGE_WORDS_CHANGED
+                | GameStateClient.MESSAGE_FIELD_SELECTED;
+    }
+
     /**
      * Handle messages indicating changes to the game state.
      *
@@ -126,77 +106,37 @@ public class GameMatchedWordsFragment extends Fragment implements GameStateClien
     public void onGameStateMessage(int what, int xPos, int yPos) {
         switch (what) {
             case GameStateClient.MESSAGE_REFRESH_VIEWS:
-                this.refreshView();
+            case GameStateClient.MESSAGE_WORDS_CHANGED:
+                this.matchedWords.update(this.gameState.words, this.adapter);
+                this.updateHighlightedWords();
                 break;
             case GameStateClient.MESSAGE_FIELD_SELECTED:
                 this.xPosSelected = xPos;
                 this.yPosSelected = yPos;
-                this.refreshView();
+                this.updateHighlightedWords();
                 break;
         }
     }
 
     /**
-     * Rebuild the displayed content after a change in the game statae or selected field has
-     * been received.
+     * Highlight the words of the selected field. Each occurrence of a word has its own word
+     * number, but each word is only displayed once. It is highlighted, if any of its occurrences
+     * contains the selected field.
      */
-    private void refreshView() {
-        // Get selected character field, if any
-        GameLogic gameLogic = this.gameState.getGameLogic();
-        CharacterFieldEntity characterField = gameLogic.getCharacterField(this.xPosSelected, this.yPosSelected);
-
-        // Get sorted list of all matched words
-        List<WordEntity> words = new LinkedList<WordEntity>(this.gameState.words);
-        Collections.sort(words, (o1, o2) -> o1.word.compareTo(o2.word));
-
-        // Rebuild word cloud
-        class SpanRange {
-            int start = 0;
-            int end = 0;
-            CharacterStyle style = null;
-        }
-
-        StringBuilder wordCloudString = new StringBuilder();
-        List<SpanRange> spanRanges = new LinkedList<>();
-        int pos = 0;
-
-        for (WordEntity word : words) {
-            // Link to the TLDR page
-            SpanRange spanRange = new SpanRange();
-            spanRange.start = pos;
-            spanRange.end = pos + word.word.length();
-            spanRange.style = new TldrClickableSpan(word.word);
-            spanRanges.add(spanRange);
-
-            if (characterField != null && characterField.words.contains(word.wordNumber)) {
-                spanRange = new SpanRange();
-                spanRange.start = pos;
-                spanRange.end = pos + word.word.length();
-                spanRange.style = new StyleSpan(Typeface.BOLD);
-                spanRanges.add(spanRange);
-            }
-
-            wordCloudString.append(word.word);
-            pos = spanRange.end;
-
-            // Four spaces
-            spanRange = new SpanRange();
-            spanRange.start = pos;
-            spanRange.end = pos + 4;
-            spanRange.style = new StyleSpan(Typeface.NORMAL);
-            spanRanges.add(spanRange);
+    private void updateHighlightedWords() {
+        CharacterFieldEntity characterField = this.gameState.getGameLogic().getCharacterField(this.xPosSelected, this.yPosSelected);
+        Set<String> highlightedWords = new HashSet<>();
 
-            wordCloudString.append("    ");
-            pos += 4;
-        }
-
-        Spannable wordCloudSpannable = Spannable.Factory.getInstance().newSpannable(wordCloudString.toString());
+        if (characterField != null) {
+            for (int wordNumber : characterField.words) {
+                String word = this.matchedWords.getWord(wordNumber);
 
-        for (SpanRange spanRange : spanRanges) {
-            wordCloudSpannable.setSpan(spanRange.style, spanRange.start, spanRange.end, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+                if (word != null) {
+                    highlightedWords.add(word);
+                }
+            }
         }
 
-        this.textView.setText(wordCloudSpannable);
-        this.textView.setMovementMethod(LinkMovementMethod.getInstance());
+        this.adapter.setHighlightedWords(highlightedWords);
     }
 }
@@ -0,0 +1,212 @@
+package de.wpvs.sudo_ku.activity.game;
+
+import android.graphics.Typeface;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.model.game.MatchedWordList;
+
+/**
+ * Adapter class to display the matched words of a game as chips in a RecyclerView. The words
+ * are taken from a MatchedWordList, whose changes are forwarded to the RecyclerView, so that
+ * only the inserted and removed words are bound. The words of the selected field are displayed
+ * bold. Changing the selection only rebinds the words, whose highlighting has changed.
+ */
+public class GameMatchedWordsRecyclerViewAdapter extends RecyclerView.Adapter<GameMatchedWordsRecyclerViewAdapter.ViewHolder> implements MatchedWordList.Listener {
+    private static final Object PAYLOAD_HIGHLIGHT = new Object();
+
+    /**
+     * ViewHolder class that is used by the RecyclerView to hold a reference to the text view
+     * of one word.
+     */
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        public final TextView textView;
+
+        /**
+         * Constructor
+         *
+         * @param textView Text view of the word
+         */
+        public ViewHolder(@NonNull TextView textView) {
+            super(textView);
+            this.textView = textView;
+        }
+    }
+
+    /**
+     * Callback interface for when a word was clicked
+     */
+    public interface ClickListener {
+        /**
+         * Handle click on a matched word.
+         *
+         * @param word Clicked word
+         */
+        void onWordClicked(String word);
+    }
+
+    private final MatchedWordList matchedWords;
+    private Set<String> highlightedWords = new HashSet<>();
+    private ClickListener clickListener;
+
+    /**
+     * Constructor.
+     *
+     * @param matchedWords Displayed words
+     */
+    public GameMatchedWordsRecyclerViewAdapter(MatchedWordList matchedWords) {
+        this.matchedWords = matchedWords;
+    }
+
+    /**
+     * Set or change the callback object for clicked words.
+     *
+     * @param clickListener Click listener callback
+     */
+    public void setClickListener(ClickListener clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * Change the words displayed bold. Only the words, which are highlighted now but have not
+     * been before or the other way round, are rebound.
+     *
+     * @param highlightedWords Words of the selected field
+     */
+    public void setHighlightedWords(Set<String> highlightedWords) {
+        Set<String> previousWords = this.highlightedWords;
+        this.highlightedWords = highlightedWords;
+
+        for (String word : previousWords) {
+            if (!highlightedWords.contains(word)) {
+                this.notifyWordChanged(word);
+            }
+        }
+
+        for (String word : highlightedWords) {
+            if (!previousWords.contains(word)) {
+                this.notifyWordChanged(word);
+            }
+        }
+    }
+
+    /**
+     * Rebind the highlighting of a single word, if it is displayed.
+     *
+     * @param word Changed word
+     */
+    private void notifyWordChanged(String word) {
+        int position = this.matchedWords.indexOf(word);
+
+        if (position >= 0) {
+            this.notifyItemChanged(position, PAYLOAD_HIGHLIGHT);
+        }
+    }
+
+    /**
+     * Forward inserted words from the MatchedWordList to the RecyclerView.
+     *
+     * @param position Position of the new word
+     */
+    @Override
+    public void onWordInserted(int position) {
+        this.notifyItemInserted(position);
+    }
+
+    /**
+     * Forward removed words from the MatchedWordList to the RecyclerView.
+     *
+     * @param position Previous position of the removed word
+     */
+    @Override
+    public void onWordRemoved(int position) {
+        this.notifyItemRemoved(position);
+    }
+
+    /**
+     * This method is required so that the RecyclerView knows how many words it needs to show.
+     *
+     * @returns the amount of distinct words
+     */
+    @Override
+    public int getItemCount() {
+        return this.matchedWords.size();
+    }
+
+    /**
+     * This method is required by the RecyclerView to create the ViewHolder instances and thus
+     * the views that will be used to display the individual words.
+     *
+     * @param parent ViewGroup to which the new views will belong
+     * @param viewType Type of the new view (unused)
+     * @returns a new ViewHolder instance
+     */
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView textView = (TextView) LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.game_matched_words_item, parent, false);
+
+        ViewHolder holder = new ViewHolder(textView);
+
+        textView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+
+            if (this.clickListener != null && position != RecyclerView.NO_POSITION) {
+                this.clickListener.onWordClicked(this.matchedWords.get(position));
+            }
+        });
+
+        return holder;
+    }
+
+    /**
+     * This method is required by the RecyclerView to bind the given ViewHolder instance to a
+     * particular word on screen.
+     *
+     * @param holder Any previously created ViewHolder instance
+     * @param position Position of the word to display
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        String word = this.matchedWords.get(position);
+
+        holder.textView.setText(word);
+        this.bindHighlight(holder, word);
+    }
+
+    /**
+     * Only update the highlighting, if nothing else has changed.
+     *
+     * @param holder Previously bound ViewHolder instance
+     * @param position Position of the word to display
+     * @param payloads PAYLOAD_HIGHLIGHT or empty for a full bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            this.onBindViewHolder(holder, position);
+        } else {
+            this.bindHighlight(holder, this.matchedWords.get(position));
+        }
+    }
+
+    /**
+     * Display the word bold, if it belongs to the selected field.
+     *
+     * @param holder ViewHolder of the word
+     * @param word Displayed word
+     */
+    private void bindHighlight(ViewHolder holder, String word) {
+        int style = this.highlightedWords.contains(word) ? Typeface.BOLD : Typeface.NORMAL;
+        holder.textView.setTypeface(null, style);
+    }
+}
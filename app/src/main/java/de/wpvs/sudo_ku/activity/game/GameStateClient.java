@@ -1,5 +1,6 @@
 package de.wpvs.sudo_ku.activity.game;
 
+import de.wpvs.sudo_ku.model.game.ChangeSet;
 import de.wpvs.sudo_ku.model.game.GameState;
 
 /**
@@ -7,10 +8,26 @@ import de.wpvs.sudo_ku.model.game.GameState;
  * API to connect with each other. The aim here is to keep the game activity as well as the
  * fragments as loosely coupled as possible. Thus, the only way the interact with each other is
  * by a simply message exchange under control of the game activity.
+ *
+ * The message codes are bit flags, so that each client can subscribe only to the messages that
+ * are relevant for what it displays (see getSubscribedMessages()):
+ *
+ *   » MESSAGE_REFRESH_VIEWS: Everything must be displayed again, e.g. after the game is loaded
+ *   » MESSAGE_FIELD_SELECTED: The player selected or unselected a field (given as coordinates)
+ *   » MESSAGE_FIELDS_CHANGED: Fields have been changed, see getChangedFields()
+ *   » MESSAGE_WORDS_CHANGED: Words have been matched or removed
+ *   » MESSAGE_PROGRESS_CHANGED: The progress of the game has changed
+ *
+ * The last three are sent at most once per display frame, no matter how many moves have been
+ * made since the previous frame. The fields changed by all these moves can be taken from the
+ * message exchange while the messages are handled.
  */
 public interface GameStateClient {
     int MESSAGE_REFRESH_VIEWS = 1;
     int MESSAGE_FIELD_SELECTED = 2;
+    int MESSAGE_FIELDS_CHANGED = 4;
+    int MESSAGE_WORDS_CHANGED = 8;
+    int MESSAGE_PROGRESS_CHANGED = 16;
 
     /**
      * Handle passed to the clients to be able to send messages among each other.
@@ -31,6 +48,15 @@ public interface GameStateClient {
          * @param yPos Vertical coordinate
          */
         void sendFieldMessage(int what, int xPos, int yPos);
+
+        /**
+         * Get the fields changed since the previous frame. This is only meaningful while
+         * MESSAGE_FIELDS_CHANGED or MESSAGE_WORDS_CHANGED is handled and must not be kept
+         * afterwards.
+         *
+         * @return Merged changes of all moves since the previous frame
+         */
+        ChangeSet getChangedFields();
     }
 
     /**
@@ -41,6 +67,13 @@ public interface GameStateClient {
      */
     void setGameState(GameState gameState, GameMessageExchange gameMessageExchange);
 
+    /**
+     * Called on each message to find out, whether the client shall receive it.
+     *
+     * @return Bit mask of the messages handled by the client (see constants)
+     */
+    int getSubscribedMessages();
+
     /**
      * Handle message sent by one of the other clients.
      *
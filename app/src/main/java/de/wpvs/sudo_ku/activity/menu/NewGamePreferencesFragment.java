@@ -25,6 +25,7 @@ import de.wpvs.sudo_ku.model.game.GameState;
 import de.wpvs.sudo_ku.model.game.GameUtils;
 import de.wpvs.sudo_ku.thread.database.DatabaseThread;
 import de.wpvs.sudo_ku.thread.database.SaveOrDeleteGame;
+import de.wpvs.sudo_ku.thread.puzzle.PuzzlePoolThread;
 
 /**
  * Fragment which holds the actual preferences view with the settings for a new game.
@@ -72,6 +73,7 @@ public class NewGamePreferencesFragment extends PreferenceFragmentCompat {
 
         this.preferenceBoardSize.setOnPreferenceChangeListener((preference, newValue) -> {
             this.shuffleCharacterSet(this.preferenceGameType.getValue(), newValue.toString());
+            this.warmPuzzlePool(newValue.toString(), this.preferencePrefill.getValue());
             return true;
         });
 
@@ -117,8 +119,12 @@ public class NewGamePreferencesFragment extends PreferenceFragmentCompat {
 
         this.preferencePrefill.setOnPreferenceChangeListener((preference, newValue) -> {
             preference.setSummary("" + newValue + "%");
+            this.warmPuzzlePool(this.preferenceBoardSize.getValue(), (Integer) newValue);
             return true;
         });
+
+        // Start generating puzzles for the current settings, while the player is still busy
+        this.warmPuzzlePool(this.preferenceBoardSize.getValue(), this.preferencePrefill.getValue());
     }
 
     /**
@@ -175,6 +181,17 @@ public class NewGamePreferencesFragment extends PreferenceFragmentCompat {
         this.preferenceCharacterSet.setValues(new HashSet<>(characterSet));
     }
 
+    /**
+     * Let the puzzle pool generate puzzles for the given settings in the background, so that
+     * the game can be started right away.
+     *
+     * @param boardSize Selected board size
+     * @param prefill Selected percentage of prefilled fields
+     */
+    private void warmPuzzlePool(String boardSize, int prefill) {
+        PuzzlePoolThread.warm(Integer.parseInt(boardSize), prefill);
+    }
+
     /**
      * Check all values for plausibility and start the game if all is good. Otherwise present a
      * snack bar with a hint on the erroneous value.
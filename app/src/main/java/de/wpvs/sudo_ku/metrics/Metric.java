@@ -0,0 +1,108 @@
+package de.wpvs.sudo_ku.metrics;
+
+/**
+ * A single measured value, e.g. the latency of a database query or the number of rows written
+ * by a save. Only a few aggregates are kept: The number of samples, their sum, their maximum and
+ * the last sample. This is enough to get averages and outliers without storing every sample.
+ *
+ * All methods are synchronized, since samples are usually recorded by background threads, while
+ * the values are read by the UI thread.
+ */
+public final class Metric {
+    private final String name;
+    private long count;
+    private long sum;
+    private long max;
+    private long last;
+
+    /**
+     * Constructor.
+     *
+     * @param name Name of the metric, including its unit (e.g. "knownWords.queryMicros")
+     */
+    Metric(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a new sample.
+     *
+     * @param value Measured value
+     */
+    public synchronized void record(long value) {
+        if (this.count == 0 || value > this.max) {
+            this.max = value;
+        }
+
+        this.count += 1;
+        this.sum += value;
+        this.last = value;
+    }
+
+    /**
+     * Record the time elapsed since the given start in microseconds.
+     *
+     * @param startNanos Value of System.nanoTime() at the start of the measurement
+     */
+    public void recordMicrosSince(long startNanos) {
+        this.record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    /**
+     * Forget all samples.
+     */
+    public synchronized void reset() {
+        this.count = 0;
+        this.sum = 0;
+        this.max = 0;
+        this.last = 0;
+    }
+
+    /**
+     * @return Name of the metric
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return Number of samples
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return Sum of all samples
+     */
+    public synchronized long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * @return Largest sample
+     */
+    public synchronized long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return Last sample
+     */
+    public synchronized long getLast() {
+        return this.last;
+    }
+
+    /**
+     * @return Average of all samples or zero
+     */
+    public synchronized double getAverage() {
+        return this.count > 0 ? (double) this.sum / this.count : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: count=%d, average=%.1f, max=%d, last=%d",
+                this.name, this.count, this.getAverage(), this.max, this.last);
+    }
+}
@@ -0,0 +1,71 @@
+package de.wpvs.sudo_ku.metrics;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry of all metrics, which are used to measure the effect of performance relevant
+ * changes in the running app. Each metric is created on first use, so that clients simply call
+ * Metrics.get("name").record(value) without any setup.
+ *
+ * The metrics are only kept in memory. GameActivity writes them into the debug log with log(),
+ * whenever it is paused, and shows them with "Show Metrics" in its options menu.
+ */
+public final class Metrics {
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Don't allow instantiation of this class.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Get a metric, creating it if necessary.
+     *
+     * @param name Name of the metric, including its unit
+     * @return The metric
+     */
+    public static Metric get(String name) {
+        Metric metric = metrics.get(name);
+
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(name, Metric::new);
+        }
+
+        return metric;
+    }
+
+    /**
+     * @return All metrics sorted by their name
+     */
+    public static List<Metric> getAll() {
+        List<Metric> all = new ArrayList<>(metrics.values());
+        Collections.sort(all, Comparator.comparing(Metric::getName));
+        return all;
+    }
+
+    /**
+     * Forget all samples of all metrics.
+     */
+    public static void resetAll() {
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * Write all metrics into the debug log.
+     */
+    public static void log() {
+        for (Metric metric : getAll()) {
+            Log.d("sudo-ku", metric.toString());
+        }
+    }
+}
@@ -7,22 +7,21 @@ import androidx.room.TypeConverters;
 import de.wpvs.sudo_ku.MyApplication;
 import de.wpvs.sudo_ku.model.dictionary.KnownWordDao;
 import de.wpvs.sudo_ku.model.dictionary.KnownWordEntity;
-import de.wpvs.sudo_ku.model.game.CharacterFieldEntity;
 import de.wpvs.sudo_ku.model.game.GameDao;
 import de.wpvs.sudo_ku.model.game.GameEntity;
-import de.wpvs.sudo_ku.model.game.WordEntity;
+import de.wpvs.sudo_ku.model.game.MoveEntity;
 
 /**
  * Main database class which acts as an entry point for all database access objects, which can
- * be used for database access.
+ * be used for database access. Saved games are migrated from version 11 on (see
+ * DatabaseMigrations), older databases are recreated.
  */
 @Database(
-        version = 11,
+        version = 13,
         entities = {
-                CharacterFieldEntity.class,
                 GameEntity.class,
                 KnownWordEntity.class,
-                WordEntity.class,
+                MoveEntity.class,
         })
 @TypeConverters({DatabaseTypeConverters.class})
 public abstract class DatabaseHolder extends RoomDatabase {
@@ -36,7 +35,10 @@ public abstract class DatabaseHolder extends RoomDatabase {
      */
     public static DatabaseHolder getInstance() {
         if (singleton == null) {
-            singleton = Room.databaseBuilder(MyApplication.getInstance(), DatabaseHolder.class, DATABASE_NAME).fallbackToDestructiveMigration().build();
+            singleton = Room.databaseBuilder(MyApplication.getInstance(), DatabaseHolder.class, DATABASE_NAME)
+                    .addMigrations(DatabaseMigrations.MIGRATION_11_12, DatabaseMigrations.MIGRATION_12_13)
+                    .fallbackToDestructiveMigration()
+                    .build();
         }
 
         return singleton;
@@ -0,0 +1,94 @@
+package de.wpvs.sudo_ku.model;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import de.wpvs.sudo_ku.model.game.BoardCodec;
+import de.wpvs.sudo_ku.model.game.CharacterFieldEntity;
+import de.wpvs.sudo_ku.model.game.GameEntity;
+import de.wpvs.sudo_ku.model.game.WordEntity;
+
+/**
+ * Manual migrations between database versions, that must keep the saved games. Older versions
+ * without a migration are still recreated from scratch (see DatabaseHolder).
+ */
+public class DatabaseMigrations {
+    /**
+     * Version 12 stores the character fields and words of each game in the binary board column
+     * of the Game table (see BoardCodec) instead of the tables CharacterField and Word. The rows
+     * of both tables are encoded into the board of their game, then the tables are dropped.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            DatabaseTypeConverters converters = new DatabaseTypeConverters();
+            List<GameEntity> games = new ArrayList<>();
+
+            database.execSQL("ALTER TABLE Game ADD COLUMN board BLOB");
+
+            try (Cursor cursor = database.query("SELECT uid, gameType, size, characterSet FROM Game")) {
+                while (cursor.moveToNext()) {
+                    GameEntity game = new GameEntity();
+                    game.uid = cursor.getLong(0);
+                    game.gameType = converters.stringToGameType(cursor.getString(1));
+                    game.size = cursor.getInt(2);
+                    game.characterSet = converters.stringToStringList(cursor.getString(3));
+                    games.add(game);
+                }
+            }
+
+            for (GameEntity game : games) {
+                List<CharacterFieldEntity> characterFields = new ArrayList<>();
+                List<WordEntity> words = new ArrayList<>();
+                Object[] gameUid = new Object[] {game.uid};
+
+                try (Cursor cursor = database.query("SELECT xPos, yPos, character, pencil, words, locked FROM CharacterField WHERE gameUid = ?", gameUid)) {
+                    while (cursor.moveToNext()) {
+                        CharacterFieldEntity characterField = new CharacterFieldEntity();
+                        characterField.gameUid = game.uid;
+                        characterField.xPos = cursor.getInt(0);
+                        characterField.yPos = cursor.getInt(1);
+                        characterField.character = cursor.isNull(2) ? "" : cursor.getString(2);
+                        characterField.pencil = converters.stringToStringList(cursor.getString(3));
+                        characterField.words = converters.stringToIntegerList(cursor.getString(4));
+                        characterField.locked = cursor.getInt(5) != 0;
+                        characterFields.add(characterField);
+                    }
+                }
+
+                try (Cursor cursor = database.query("SELECT wordNumber, word FROM Word WHERE gameUid = ?", gameUid)) {
+                    while (cursor.moveToNext()) {
+                        WordEntity wordEntity = new WordEntity();
+                        wordEntity.gameUid = game.uid;
+                        wordEntity.wordNumber = cursor.getInt(0);
+                        wordEntity.word = cursor.isNull(1) ? "" : cursor.getString(1);
+                        words.add(wordEntity);
+                    }
+                }
+
+                byte[] board = BoardCodec.encode(game, characterFields, words);
+                database.execSQL("UPDATE Game SET board = ? WHERE uid = ?", new Object[] {board, game.uid});
+            }
+
+            database.execSQL("DROP TABLE IF EXISTS CharacterField");
+            database.execSQL("DROP TABLE IF EXISTS Word");
+        }
+    };
+
+    /**
+     * Version 13 adds the move journal (see MoveEntity) and the journal sequence of the moves,
+     * that are contained in the board. Existing games start with an empty journal.
+     */
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE Game ADD COLUMN journalSequence INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `Move` (`gameUid` INTEGER NOT NULL, `sequence` INTEGER NOT NULL, `xPos` INTEGER NOT NULL, `yPos` INTEGER NOT NULL, `flags` INTEGER NOT NULL, `code` INTEGER NOT NULL, `set` INTEGER NOT NULL, PRIMARY KEY(`gameUid`, `sequence`), FOREIGN KEY(`gameUid`) REFERENCES `Game`(`uid`) ON UPDATE CASCADE ON DELETE CASCADE )");
+        }
+    };
+}
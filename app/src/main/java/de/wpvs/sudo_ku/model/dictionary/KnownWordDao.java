@@ -17,12 +17,24 @@ public interface KnownWordDao {
     @Insert(onConflict = OnConflictStrategy.IGNORE)
     void insert(KnownWordEntity knownWordEntity);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<KnownWordEntity> knownWordEntities);
+
     @Query("DELETE FROM KnownWord WHERE word = :word")
     void delete(String word);
 
+    @Query("DELETE FROM KnownWord")
+    void deleteAll();
+
     @Query("SELECT COUNT(*) FROM KnownWord WHERE word = :word")
     int searchSynchronously(String word);
 
+    @Query("SELECT word FROM KnownWord WHERE word IN (:words)")
+    List<String> searchAllSynchronously(List<String> words);
+
+    @Query("SELECT DISTINCT LENGTH(word) FROM KnownWord")
+    List<Integer> selectWordLengthsSynchronously();
+
     @Query("SELECT * FROM KnownWord ORDER BY word")
     LiveData<List<KnownWordEntity>> selectAll();
 
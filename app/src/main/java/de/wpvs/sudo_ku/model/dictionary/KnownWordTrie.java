@@ -0,0 +1,278 @@
+package de.wpvs.sudo_ku.model.dictionary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Compact in-memory index of all known words of the letter game, so that the words on the game
+ * board can be matched without any database queries. The index is a trie, whose nodes are stored
+ * in a few parallel arrays instead of one object per node: The children of each node are stored
+ * next to each other, sorted by their character, so that a child can be found with a binary
+ * search.
+ *
+ * Besides searching complete words, the trie can be walked character by character with
+ * getChild(). This allows to stop as soon as a prefix cannot lead to any known word.
+ *
+ * The trie is immutable and thus thread-safe. The trie of the known words in the database is
+ * built once by the database thread (see loadInstance()) and can then be used from any thread.
+ */
+public final class KnownWordTrie {
+    /**
+     * Result of getChild(), if there is no such child.
+     */
+    public static final int NO_NODE = -1;
+
+    private static final int ROOT = 0;
+
+    private static volatile KnownWordTrie instance;
+
+    private final char[] labels;
+    private final int[] firstChildren;
+    private final int[] childCounts;
+    private final boolean[] words;
+    private final int wordCount;
+    private final int maxWordLength;
+
+    /**
+     * Constructor. Use build() to create a new trie.
+     *
+     * @param labels Character of each node
+     * @param firstChildren Index of the first child of each node
+     * @param childCounts Number of children of each node
+     * @param words Flag for each node, whether it completes a known word
+     * @param wordCount Number of known words
+     * @param maxWordLength Length of the longest known word
+     */
+    private KnownWordTrie(char[] labels, int[] firstChildren, int[] childCounts, boolean[] words, int wordCount, int maxWordLength) {
+        this.labels = labels;
+        this.firstChildren = firstChildren;
+        this.childCounts = childCounts;
+        this.words = words;
+        this.wordCount = wordCount;
+        this.maxWordLength = maxWordLength;
+    }
+
+    /**
+     * Build a new trie containing the given words. Duplicates and empty words are ignored.
+     *
+     * @param knownWords Known words
+     * @return New trie
+     */
+    public static KnownWordTrie build(Collection<String> knownWords) {
+        TreeSet<String> sortedWords = new TreeSet<>(knownWords);
+        sortedWords.remove("");
+
+        String[] words = sortedWords.toArray(new String[0]);
+        int maxWordLength = 0;
+
+        for (String word : words) {
+            maxWordLength = Math.max(maxWordLength, word.length());
+        }
+
+        // Create the nodes breadth first, so that the children of each node get consecutive
+        // indices. Each queued node covers the range of sorted words starting with its prefix.
+        List<Character> labels = new ArrayList<>();
+        List<Integer> firstChildren = new ArrayList<>();
+        List<Integer> childCounts = new ArrayList<>();
+        List<Boolean> wordFlags = new ArrayList<>();
+        Deque<int[]> queue = new ArrayDeque<>();
+
+        labels.add('\0');
+        firstChildren.add(0);
+        childCounts.add(0);
+        wordFlags.add(false);
+        queue.add(new int[] {ROOT, 0, words.length, 0});
+
+        while (!queue.isEmpty()) {
+            int[] entry = queue.poll();
+            int node = entry[0];
+            int start = entry[1];
+            int stop = entry[2];
+            int depth = entry[3];
+
+            // Since the words are sorted, the word equal to the prefix comes first
+            if (start < stop && words[start].length() == depth) {
+                wordFlags.set(node, true);
+                start += 1;
+            }
+
+            firstChildren.set(node, labels.size());
+
+            while (start < stop) {
+                char label = words[start].charAt(depth);
+                int childStop = start;
+
+                while (childStop < stop && words[childStop].charAt(depth) == label) {
+                    childStop += 1;
+                }
+
+                queue.add(new int[] {labels.size(), start, childStop, depth + 1});
+                labels.add(label);
+                firstChildren.add(0);
+                childCounts.add(0);
+                wordFlags.add(false);
+                childCounts.set(node, childCounts.get(node) + 1);
+
+                start = childStop;
+            }
+        }
+
+        int nodeCount = labels.size();
+        char[] labelArray = new char[nodeCount];
+        int[] firstChildArray = new int[nodeCount];
+        int[] childCountArray = new int[nodeCount];
+        boolean[] wordArray = new boolean[nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            labelArray[i] = labels.get(i);
+            firstChildArray[i] = firstChildren.get(i);
+            childCountArray[i] = childCounts.get(i);
+            wordArray[i] = wordFlags.get(i);
+        }
+
+        return new KnownWordTrie(labelArray, firstChildArray, childCountArray, wordArray, words.length, maxWordLength);
+    }
+
+    /**
+     * Get the trie of all known words in the database, if it has already been loaded.
+     *
+     * @return Trie of all known words or null
+     */
+    public static KnownWordTrie getInstance() {
+        return instance;
+    }
+
+    /**
+     * Load all known words from the database into a new trie, which replaces the current
+     * instance. This must be called on a background thread.
+     *
+     * @param dao Data access object for the known words
+     * @return The new trie
+     */
+    public static KnownWordTrie loadInstance(KnownWordDao dao) {
+        List<String> knownWords = new ArrayList<>();
+
+        for (KnownWordEntity entity : dao.selectAllSynchronously()) {
+            knownWords.add(entity.word);
+        }
+
+        instance = build(knownWords);
+        return instance;
+    }
+
+    /**
+     * Replace the trie of all known words, e.g. after the known words have been changed.
+     *
+     * @param knownWordTrie New trie or null to fall back to the database
+     */
+    public static void setInstance(KnownWordTrie knownWordTrie) {
+        instance = knownWordTrie;
+    }
+
+    /**
+     * @return Root node, which represents the empty prefix
+     */
+    public int getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * Go one character deeper into the trie.
+     *
+     * @param node Current node
+     * @param character Next character of the prefix
+     * @return Node of the extended prefix or NO_NODE, if no known word starts with it
+     */
+    public int getChild(int node, char character) {
+        int low = this.firstChildren[node];
+        int high = low + this.childCounts[node] - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = this.labels[middle];
+
+            if (label < character) {
+                low = middle + 1;
+            } else if (label > character) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return NO_NODE;
+    }
+
+    /**
+     * Go several characters deeper into the trie.
+     *
+     * @param node Current node
+     * @param characters Next characters of the prefix
+     * @return Node of the extended prefix or NO_NODE, if no known word starts with it
+     */
+    public int getChild(int node, CharSequence characters) {
+        for (int i = 0; i < characters.length() && node != NO_NODE; i++) {
+            node = this.getChild(node, characters.charAt(i));
+        }
+
+        return node;
+    }
+
+    /**
+     * @param node Node
+     * @return true, if the prefix of the node is a known word
+     */
+    public boolean isWord(int node) {
+        return this.words[node];
+    }
+
+    /**
+     * @param node Node
+     * @return true, if longer known words start with the prefix of the node
+     */
+    public boolean hasChildren(int node) {
+        return this.childCounts[node] > 0;
+    }
+
+    /**
+     * @param word Searched word
+     * @return true, if the word is a known word
+     */
+    public boolean contains(CharSequence word) {
+        int node = this.getChild(ROOT, word);
+        return node != NO_NODE && this.words[node];
+    }
+
+    /**
+     * @param prefix Searched prefix
+     * @return true, if at least one known word starts with the prefix
+     */
+    public boolean containsPrefix(CharSequence prefix) {
+        return this.getChild(ROOT, prefix) != NO_NODE;
+    }
+
+    /**
+     * @return Number of known words
+     */
+    public int getWordCount() {
+        return this.wordCount;
+    }
+
+    /**
+     * @return Length of the longest known word
+     */
+    public int getMaxWordLength() {
+        return this.maxWordLength;
+    }
+
+    /**
+     * @return Number of nodes, mainly to estimate the memory usage
+     */
+    public int getNodeCount() {
+        return this.labels.length;
+    }
+}
@@ -0,0 +1,229 @@
+package de.wpvs.sudo_ku.model.game;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of the game board, which is stored in a single column of the Game table (see
+ * GameEntity.board). Other than one database row per character field, the whole board can be
+ * read and written with a single row. The format starts with a version number, so that it can be
+ * extended later:
+ *
+ *   » Format version (byte) and board size (byte)
+ *   » For each field, ordered by xPos * size + yPos: Character code (byte, -1 if empty),
+ *     pencil bit mask (int) and flags (byte, FLAG_LOCKED)
+ *   » Number of words (int) and for each word: Word number (int), the word (UTF), the number of
+ *     its fields (short) and the index of each field (short)
+ *
+ * The character codes and bit masks are the same as used by the game logic (see CharacterCodec),
+ * so they don't depend on the order in which the character set is stored.
+ */
+public final class BoardCodec {
+    /**
+     * Current version of the format.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int FLAG_LOCKED = 1;
+
+    /**
+     * Don't allow instantiation of this utility class.
+     */
+    private BoardCodec() {
+    }
+
+    /**
+     * Encode the character fields and words of a game.
+     *
+     * @param game Game header with the size and character set
+     * @param characterFields All character fields of the game
+     * @param words All words of the game
+     * @return Encoded board
+     */
+    public static byte[] encode(GameEntity game, List<CharacterFieldEntity> characterFields, List<WordEntity> words) {
+        CharacterCodec codec = new CharacterCodec(game.characterSet, game.gameType);
+        CharacterFieldEntity[] fields = new CharacterFieldEntity[game.size * game.size];
+        List<List<Integer>> fieldsByWord = new ArrayList<>(words.size());
+        Map<Integer, Integer> wordIndices = new HashMap<>();
+
+        for (CharacterFieldEntity characterField : characterFields) {
+            fields[characterField.xPos * game.size + characterField.yPos] = characterField;
+        }
+
+        for (int i = 0; i < words.size(); i++) {
+            fieldsByWord.add(new ArrayList<>());
+            wordIndices.put(words.get(i).wordNumber, i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(fields.length * 6 + words.size() * 16 + 8);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(game.size);
+
+            for (int index = 0; index < fields.length; index++) {
+                CharacterFieldEntity characterField = fields[index];
+
+                if (characterField == null) {
+                    out.writeByte(CharacterCodec.EMPTY);
+                    out.writeInt(0);
+                    out.writeByte(0);
+                    continue;
+                }
+
+                out.writeByte(codec.encode(characterField.character));
+                out.writeInt(codec.encodeMask(characterField.pencil));
+                out.writeByte(characterField.locked ? FLAG_LOCKED : 0);
+
+                for (int wordNumber : characterField.words) {
+                    Integer wordIndex = wordIndices.get(wordNumber);
+
+                    if (wordIndex != null) {
+                        fieldsByWord.get(wordIndex).add(index);
+                    }
+                }
+            }
+
+            out.writeInt(words.size());
+
+            for (int i = 0; i < words.size(); i++) {
+                out.writeInt(words.get(i).wordNumber);
+                out.writeUTF(words.get(i).word);
+                out.writeShort(fieldsByWord.get(i).size());
+
+                for (int index : fieldsByWord.get(i)) {
+                    out.writeShort(index);
+                }
+            }
+        } catch (IOException ex) {
+            // Cannot happen with a ByteArrayOutputStream
+            Log.e("sudo-ku", "IOException", ex);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encode a snapshot of the board of a running game (see GameState.createCheckpoint()). This
+     * gives the same result as encoding the character fields and words of the game state, but is
+     * meant to be called by a background thread while the game goes on.
+     *
+     * @param game Game header
+     * @param snapshot Snapshot of the board
+     * @return Encoded board
+     */
+    public static byte[] encode(GameEntity game, BoardSnapshot snapshot) {
+        int size = snapshot.getSize();
+        List<WordOccurrenceIndex.Occurrence> occurrences = snapshot.getOccurrences();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * size * 6 + occurrences.size() * 16 + 8);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(game.size);
+
+            for (int index = 0; index < size * size; index++) {
+                out.writeByte(snapshot.getCharacter(index));
+                out.writeInt(snapshot.getPencil(index));
+                out.writeByte(snapshot.isLocked(index) ? FLAG_LOCKED : 0);
+            }
+
+            out.writeInt(occurrences.size());
+
+            for (WordOccurrenceIndex.Occurrence occurrence : occurrences) {
+                out.writeInt(occurrence.wordEntity.wordNumber);
+                out.writeUTF(occurrence.wordEntity.word);
+                out.writeShort(occurrence.stop - occurrence.start + 1);
+
+                for (int position = occurrence.start; position <= occurrence.stop; position++) {
+                    out.writeShort(WordOccurrenceIndex.getIndex(size, occurrence.line, position));
+                }
+            }
+        } catch (IOException ex) {
+            // Cannot happen with a ByteArrayOutputStream
+            Log.e("sudo-ku", "IOException", ex);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the board of a game into a new game state. If the game has no board yet or the
+     * board cannot be decoded, the game state gets an empty board. Afterwards the encoded board
+     * is removed from the game header, since it is outdated after the first move.
+     *
+     * @param game Game header with the encoded board (will be used directly in the game state)
+     * @return New game state with all character fields and words
+     */
+    public static GameState decode(GameEntity game) {
+        GameState gameState = new GameState();
+        gameState.game = game;
+        gameState.characterFields = GameUtils.createCharacterFields(game.size);
+
+        for (CharacterFieldEntity characterField : gameState.characterFields) {
+            characterField.gameUid = game.uid;
+        }
+
+        byte[] board = game.board;
+        game.board = null;
+
+        if (board == null || board.length == 0) {
+            return gameState;
+        }
+
+        CharacterCodec codec = new CharacterCodec(game.characterSet, game.gameType);
+        CharacterFieldEntity[] fields = new CharacterFieldEntity[game.size * game.size];
+
+        for (CharacterFieldEntity characterField : gameState.characterFields) {
+            fields[characterField.xPos * game.size + characterField.yPos] = characterField;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(board))) {
+            int version = in.readByte();
+            int size = in.readByte();
+
+            if (version != FORMAT_VERSION || size != game.size) {
+                Log.e("sudo-ku", "Unsupported board format " + version + " for size " + size);
+                return gameState;
+            }
+
+            for (CharacterFieldEntity characterField : fields) {
+                int code = in.readByte();
+                int pencil = in.readInt();
+                int flags = in.readByte();
+
+                characterField.character = codec.decode(code);
+                characterField.pencil = codec.decodeMask(pencil);
+                characterField.locked = (flags & FLAG_LOCKED) != 0;
+            }
+
+            int wordCount = in.readInt();
+
+            for (int i = 0; i < wordCount; i++) {
+                WordEntity wordEntity = new WordEntity();
+                wordEntity.gameUid = game.uid;
+                wordEntity.wordNumber = in.readInt();
+                wordEntity.word = in.readUTF();
+                gameState.words.add(wordEntity);
+
+                int fieldCount = in.readShort();
+
+                for (int j = 0; j < fieldCount; j++) {
+                    fields[in.readShort()].words.add(wordEntity.wordNumber);
+                }
+            }
+        } catch (IOException | IndexOutOfBoundsException ex) {
+            Log.e("sudo-ku", "IOException", ex);
+        }
+
+        return gameState;
+    }
+}
@@ -0,0 +1,85 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the game board, that is taken by GameState.createCheckpoint() on the UI
+ * thread and encoded by the database thread (see BoardCodec). Taking the snapshot doesn't copy
+ * anything: The packed rows of the board and the list of matched words are shared with the game
+ * logic, which copies a row or the word list only before its next change (copy on write).
+ *
+ * Each field is packed into one integer: The character code plus one in the lowest byte, the
+ * lock flag in the next bit and the pencil bit mask in the upper 16 bits.
+ */
+public final class BoardSnapshot {
+    private static final int CHARACTER_MASK = 0xFF;
+    private static final int LOCKED = 0x100;
+    private static final int PENCIL_SHIFT = 16;
+
+    private final int size;
+    private final int[][] rows;
+    private final List<WordOccurrenceIndex.Occurrence> occurrences;
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the game board
+     * @param rows Packed fields organized [xPos][yPos] (must not be changed afterwards)
+     * @param occurrences Matched words in the order of the word list (must not be changed afterwards)
+     */
+    BoardSnapshot(int size, int[][] rows, List<WordOccurrenceIndex.Occurrence> occurrences) {
+        this.size = size;
+        this.rows = rows;
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Pack the content of a field into one integer.
+     *
+     * @param code Character code or CharacterCodec.EMPTY
+     * @param pencil Bit mask of the penciled in characters
+     * @param locked Lock flag
+     * @return Packed field
+     */
+    static int pack(int code, int pencil, boolean locked) {
+        return (code + 1) | (locked ? LOCKED : 0) | (pencil << PENCIL_SHIFT);
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param index Field index (xPos * size + yPos)
+     * @return Character code of the given field or CharacterCodec.EMPTY
+     */
+    public int getCharacter(int index) {
+        return (this.rows[index / this.size][index % this.size] & CHARACTER_MASK) - 1;
+    }
+
+    /**
+     * @param index Field index (xPos * size + yPos)
+     * @return Bit mask of the penciled in characters
+     */
+    public int getPencil(int index) {
+        return this.rows[index / this.size][index % this.size] >>> PENCIL_SHIFT;
+    }
+
+    /**
+     * @param index Field index (xPos * size + yPos)
+     * @return true, if the field is locked
+     */
+    public boolean isLocked(int index) {
+        return (this.rows[index / this.size][index % this.size] & LOCKED) != 0;
+    }
+
+    /**
+     * @return Matched words in the order of the word list (read-only)
+     */
+    List<WordOccurrenceIndex.Occurrence> getOccurrences() {
+        return this.occurrences;
+    }
+}
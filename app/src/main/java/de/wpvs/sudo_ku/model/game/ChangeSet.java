@@ -0,0 +1,141 @@
+package de.wpvs.sudo_ku.model.game;
+
+/**
+ * Set of fields, that have been changed by one move or a batch of moves (see GameLogic.beginBatch()).
+ * For each field it is remembered, what exactly has been changed, so that clients can decide
+ * which fields need to be redrawn. The fields are identified by their index xPos * size + yPos
+ * (see PeerTable.getIndex()) and are listed in the order in which they have been changed first.
+ *
+ * Clients receive change sets from the game logic but cannot modify them. They can however merge
+ * several change sets into their own change set, e.g. to refresh the views only once for many
+ * moves (see GameActivity).
+ */
+public final class ChangeSet {
+    public static final int CHANGED_CHARACTER = 1;
+    public static final int CHANGED_PENCIL = 2;
+    public static final int CHANGED_LOCKED = 4;
+    public static final int CHANGED_WORDS = 8;
+
+    private final int size;
+    private final int[] changes;
+    private int[] indexes = new int[8];
+    private int count = 0;
+    private int allChanges = 0;
+
+    /**
+     * Constructor for an empty change set.
+     *
+     * @param size Size of the game board
+     */
+    public ChangeSet(int size) {
+        this.size = size;
+        this.changes = new int[size * size];
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return true, if no field has been changed
+     */
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    /**
+     * @return Amount of changed fields
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * @param i Number of the changed field, from 0 to count() - 1
+     * @return Index of the changed field (xPos * size + yPos)
+     */
+    public int getIndex(int i) {
+        return this.indexes[i];
+    }
+
+    /**
+     * @param index Field index (xPos * size + yPos)
+     * @return What has been changed on the field (see constants) or 0
+     */
+    public int getChanges(int index) {
+        return this.changes[index];
+    }
+
+    /**
+     * @param change What has been changed (see constants, may be combined)
+     * @return true, if any field has been changed in the given way
+     */
+    public boolean hasChanges(int change) {
+        return (this.allChanges & change) != 0;
+    }
+
+    /**
+     * @param xPos Row
+     * @param yPos Column
+     * @return true, if the given field has been changed in any way
+     */
+    public boolean contains(int xPos, int yPos) {
+        return this.changes[xPos * this.size + yPos] != 0;
+    }
+
+    /**
+     * Remember a change on the given field.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param change What has been changed (see constants)
+     */
+    void add(int xPos, int yPos, int change) {
+        int index = xPos * this.size + yPos;
+
+        if (change == 0) {
+            return;
+        }
+
+        if (this.changes[index] == 0) {
+            if (this.count == this.indexes.length) {
+                int[] indexes = new int[Math.min(this.indexes.length * 2, this.changes.length)];
+                System.arraycopy(this.indexes, 0, indexes, 0, this.count);
+                this.indexes = indexes;
+            }
+
+            this.indexes[this.count] = index;
+            this.count += 1;
+        }
+
+        this.changes[index] |= change;
+        this.allChanges |= change;
+    }
+
+    /**
+     * Remember all changes of another change set of the same board.
+     *
+     * @param changeSet Other change set
+     */
+    public void addAll(ChangeSet changeSet) {
+        for (int i = 0; i < changeSet.count(); i++) {
+            int index = changeSet.getIndex(i);
+            this.add(index / this.size, index % this.size, changeSet.getChanges(index));
+        }
+    }
+
+    /**
+     * Forget all changes, so that the change set can be reused.
+     */
+    public void clear() {
+        for (int i = 0; i < this.count; i++) {
+            this.changes[this.indexes[i]] = 0;
+        }
+
+        this.count = 0;
+        this.allChanges = 0;
+    }
+}
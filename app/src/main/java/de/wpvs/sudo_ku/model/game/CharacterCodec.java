@@ -0,0 +1,121 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the characters of a game to small integer codes and back. The game logic internally
+ * only works with these codes, so that no strings need to be compared during the game. Strings
+ * are only used at the edges, that is the user interface and the database.
+ *
+ * The codes are assigned in the sorted order of the character set (see GameUtils.sortCharacterSet()),
+ * so that they don't depend on the order in which the characters happen to be stored. Code i also
+ * stands for bit i in all character bit masks, which is why a game can have at most 32 characters.
+ */
+public final class CharacterCodec {
+    /**
+     * Code of an empty field.
+     */
+    public static final int EMPTY = -1;
+
+    private final String[] characters;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final int allCharactersMask;
+
+    /**
+     * Constructor.
+     *
+     * @param characterSet Characters of the game (will be copied, not modified)
+     * @param gameType Game type, to determine the sort order
+     */
+    public CharacterCodec(List<String> characterSet, GameEntity.GameType gameType) {
+        List<String> sortedCharacterSet = new ArrayList<>(characterSet);
+        GameUtils.sortCharacterSet(sortedCharacterSet, gameType);
+
+        this.characters = sortedCharacterSet.toArray(new String[0]);
+        this.allCharactersMask = this.characters.length >= 32 ? -1 : (1 << this.characters.length) - 1;
+
+        for (int i = 0; i < this.characters.length; i++) {
+            this.codes.put(this.characters[i], i);
+        }
+    }
+
+    /**
+     * @return Amount of characters
+     */
+    public int size() {
+        return this.characters.length;
+    }
+
+    /**
+     * @return Bit mask with the bits of all characters set
+     */
+    public int getAllCharactersMask() {
+        return this.allCharactersMask;
+    }
+
+    /**
+     * Get the code of the given character.
+     *
+     * @param character Character of the game or an empty string
+     * @return Code of the character or EMPTY for empty or unknown characters
+     */
+    public int encode(String character) {
+        Integer code = this.codes.get(character);
+        return code != null ? code : EMPTY;
+    }
+
+    /**
+     * Get the character of the given code.
+     *
+     * @param code Character code or EMPTY
+     * @return Character or an empty string for EMPTY
+     */
+    public String decode(int code) {
+        if (code < 0 || code >= this.characters.length) {
+            return "";
+        }
+
+        return this.characters[code];
+    }
+
+    /**
+     * Convert a list of characters (e.g. penciled in characters) into a bit mask.
+     *
+     * @param characters List of characters
+     * @return Bit mask of the known characters in the list
+     */
+    public int encodeMask(List<String> characters) {
+        int mask = 0;
+
+        for (String character : characters) {
+            int code = this.encode(character);
+
+            if (code != EMPTY) {
+                mask |= 1 << code;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Convert a bit mask back into a list of characters, ordered by their codes.
+     *
+     * @param mask Bit mask of characters
+     * @return New list of characters
+     */
+    public List<String> decodeMask(int mask) {
+        List<String> characters = new ArrayList<>(Integer.bitCount(mask));
+
+        for (int code = 0; code < this.characters.length; code++) {
+            if ((mask & (1 << code)) != 0) {
+                characters.add(this.characters[code]);
+            }
+        }
+
+        return characters;
+    }
+}
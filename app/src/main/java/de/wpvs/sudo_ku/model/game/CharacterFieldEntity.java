@@ -1,28 +1,12 @@
 package de.wpvs.sudo_ku.model.game;
 
-import android.transition.ChangeTransform;
-
 import java.util.ArrayList;
 import java.util.List;
 
-import androidx.room.Entity;
-import androidx.room.ForeignKey;
-
 /**
- * Data transfer object for a field on the game board.
+ * Data transfer object for a field on the game board. The fields are not stored in a table of
+ * their own, but encoded into the board column of the game (see BoardCodec).
  */
-@Entity(
-        tableName   = "CharacterField",
-        primaryKeys = {"gameUid", "xPos", "yPos"},
-        foreignKeys = {
-                @ForeignKey(
-                        entity        = GameEntity.class,
-                        parentColumns = "uid",
-                        childColumns  = "gameUid",
-                        onDelete      = ForeignKey.CASCADE,
-                        onUpdate      = ForeignKey.CASCADE
-                )
-        })
 public class CharacterFieldEntity {
     public long gameUid = -1;
     public int xPos = -1;
@@ -0,0 +1,45 @@
+package de.wpvs.sudo_ku.model.game;
+
+/**
+ * The state of a running game at a checkpoint, as created by GameState.createCheckpoint(). The
+ * game header is always contained, since the elapsed time changes every second anyway. But a
+ * snapshot of the board (see BoardSnapshot) is only contained, if the character fields or words
+ * have been changed since the last checkpoint. It is encoded by encodeBoard().
+ *
+ * Saving the checkpoint folds all moves up to the journal sequence of the game header into the
+ * board, so that they can be removed from the move journal.
+ *
+ * The checkpoint is completely detached from the game state, so that it can be written to the
+ * database by a background thread (see GameDao.saveCheckpoint()) while the game goes on.
+ */
+public class GameCheckpoint {
+    public GameEntity game;
+    public int foldedMoves;
+
+    BoardSnapshot snapshot;
+
+    /**
+     * @return true, if the board has been changed and must be saved, too
+     */
+    public boolean isBoardChanged() {
+        return this.snapshot != null || this.game.board != null;
+    }
+
+    /**
+     * Encode the snapshot of the board into the game header, unless this has already been done.
+     * This is called by the database thread (see GameDao.saveCheckpoint()), so that the UI thread
+     * only needs to take the snapshot.
+     */
+    public void encodeBoard() {
+        if (this.snapshot != null && this.game.board == null) {
+            this.game.board = BoardCodec.encode(this.game, this.snapshot);
+        }
+    }
+
+    /**
+     * @return Number of bytes of the encoded board or zero, if not encoded (yet)
+     */
+    public int getBoardSize() {
+        return this.game.board != null ? this.game.board.length : 0;
+    }
+}
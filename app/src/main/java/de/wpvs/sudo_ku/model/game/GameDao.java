@@ -1,63 +1,136 @@
 package de.wpvs.sudo_ku.model.game;
 
+import java.util.Date;
 import java.util.List;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Transaction;
+import androidx.room.Update;
 
 /**
- * Data access object that defines all database queries for saved games.
+ * Data access object that defines all database queries for saved games. Each game is a single
+ * row of the Game table, with its character fields and words encoded into the board column (see
+ * BoardCodec). The moves after the last save of the board are kept in the Move table, until they
+ * are folded into the board by the next checkpoint.
  */
 @Dao
 public abstract class GameDao {
+    /**
+     * Insert new games. The character fields and words are encoded into the board column of the
+     * game, so that each game is only one row.
+     *
+     * @param gameStates New games
+     */
     @Transaction
     public void insert(GameState... gameStates) {
         for (GameState gameState : gameStates) {
+            gameState.game.board = BoardCodec.encode(gameState.game, gameState.characterFields, gameState.words);
             gameState.game.uid = this.insertGameEntity(gameState.game);
+            gameState.game.board = null;
 
             for (CharacterFieldEntity characterFieldEntity : gameState.characterFields) {
                 characterFieldEntity.gameUid = gameState.game.uid;
-                this.insertCharacterField(characterFieldEntity);
             }
 
             for (WordEntity wordEntity : gameState.words) {
                 wordEntity.gameUid = gameState.game.uid;
-                this.insertWord(wordEntity);
             }
         }
     }
 
+    /**
+     * Save a running game at a checkpoint. The board is only written, if it has been changed
+     * since the last checkpoint. Otherwise only the header columns are updated. Either way all
+     * moves up to the journal sequence of the checkpoint are removed from the journal, since they
+     * are contained in the board now. The snapshot of the board is encoded here, since this runs
+     * on the database thread.
+     *
+     * @param checkpoint Game header with or without board (see GameState.createCheckpoint())
+     */
     @Transaction
-    public void update(GameState... gameStates) {
-        for (GameState gameState : gameStates) {
-            this.delete(gameState.game.uid);
-            this.insert(gameState);
+    public void saveCheckpoint(GameCheckpoint checkpoint) {
+        GameEntity game = checkpoint.game;
+        checkpoint.encodeBoard();
+
+        if (checkpoint.isBoardChanged()) {
+            this.updateGameEntity(game);
+        } else {
+            this.updateHeader(game.uid, game.saveDate, game.progress, game.seconds, game.journalSequence);
         }
+
+        this.deleteMovesUpTo(game.uid, game.journalSequence);
     }
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    protected abstract long insertGameEntity(GameEntity gameEntity);
+    /**
+     * Load a game with its move journal and decode its board. The moves must be replayed with
+     * GameState.replayMoves() before the game goes on.
+     *
+     * @param uid Game id
+     * @return Observable game state
+     */
+    public LiveData<GameState> selectSingleGameState(long uid) {
+        return Transformations.map(this.selectSingleGameWithMoves(uid), GameDao::decodeGameState);
+    }
+
+    /**
+     * Load a game with its move journal and decode its board. See above.
+     *
+     * @param uid Game id
+     * @return The game state or null
+     */
+    public GameState selectSingleGameStateSynchronously(long uid) {
+        return decodeGameState(this.selectSingleGameWithMovesSynchronously(uid));
+    }
 
+    /**
+     * @param gameWithMoves Loaded game or null
+     * @return Game state with the decoded board and the moves to replay or null
+     */
+    private static GameState decodeGameState(GameWithMoves gameWithMoves) {
+        if (gameWithMoves == null || gameWithMoves.game == null) {
+            return null;
+        }
+
+        GameState gameState = BoardCodec.decode(gameWithMoves.game);
+        gameState.setPendingMoves(gameWithMoves.moves);
+        return gameState;
+    }
+
+    /**
+     * Append moves to the move journal of their games.
+     *
+     * @param moves New moves
+     */
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    protected abstract void insertCharacterField(CharacterFieldEntity characterFieldEntity);
+    public abstract void insertMoves(List<MoveEntity> moves);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    protected abstract void insertWord(WordEntity wordEntity);
+    protected abstract long insertGameEntity(GameEntity gameEntity);
+
+    @Update
+    protected abstract void updateGameEntity(GameEntity gameEntity);
+
+    @Query("UPDATE Game SET saveDate = :saveDate, progress = :progress, seconds = :seconds, journalSequence = :journalSequence WHERE uid = :uid")
+    protected abstract void updateHeader(long uid, Date saveDate, int progress, long seconds, long journalSequence);
+
+    @Query("DELETE FROM Move WHERE gameUid = :gameUid AND sequence <= :journalSequence")
+    protected abstract void deleteMovesUpTo(long gameUid, long journalSequence);
 
     @Query("DELETE FROM Game WHERE uid = :uid")
     public abstract void delete(long uid);
 
     @Transaction
     @Query("SELECT * FROM Game WHERE uid = :uid")
-    public abstract LiveData<GameState> selectSingleGameState(long uid);
+    protected abstract LiveData<GameWithMoves> selectSingleGameWithMoves(long uid);
 
     @Transaction
     @Query("SELECT * FROM Game WHERE uid = :uid")
-    public abstract GameState selectSingleGameStateSynchronously(long uid);
+    protected abstract GameWithMoves selectSingleGameWithMovesSynchronously(long uid);
 
     @Query("SELECT * FROM Game ORDER BY saveDate DESC")
     public abstract LiveData<List<GameEntity>> selectAllGameEntities();
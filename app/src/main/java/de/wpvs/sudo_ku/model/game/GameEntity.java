@@ -4,11 +4,15 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
 /**
- * Data transfer object for head data of a saved game.
+ * Data transfer object for head data of a saved game. The character fields and words of the game
+ * are stored in the binary board column (see BoardCodec), so that a game can be read and written
+ * as a single row. The journal sequence is the number of the last move contained in the board.
+ * Later moves are kept in the move journal (see MoveEntity).
  */
 @Entity(tableName = "Game")
 public class GameEntity {
@@ -24,6 +28,10 @@ public class GameEntity {
     public boolean lockPrefilled = true;
     public int progress = 0;
     public long seconds = 0;
+    public byte[] board = null;
+
+    @ColumnInfo(defaultValue = "0")
+    public long journalSequence = 0;
 
     /**
      * Game types, analogous R.array.game_type_keys
@@ -54,6 +62,9 @@ public class GameEntity {
         this.lockPrefilled = that.lockPrefilled;
         this.progress      = that.progress;
         this.seconds       = that.seconds;
+        this.board         = that.board != null ? that.board.clone() : null;
+
+        this.journalSequence = that.journalSequence;
 
         this.characterSet.addAll(that.characterSet);
     }
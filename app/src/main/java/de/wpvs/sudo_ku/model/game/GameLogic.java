@@ -1,24 +1,76 @@
 package de.wpvs.sudo_ku.model.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Central entry point for the game logic. An instance of this class can be retrieved by calling
  * getGameLogic() on the game state object. Internally multiple instances of the abstract Rule
  * class are used to perform the various rule checks. But this completely invisible to the client.
+ *
+ * Internally the game logic works on a packed copy of the game board, where each character is
+ * represented by a small integer code (see CharacterCodec and PackedBoard). The character field
+ * entities are only kept up to date for the user interface and the database. Therefore all
+ * methods are available in two variants: One taking the character as a string for the user
+ * interface and one taking the character code for clients that already work with the codes.
  */
 public class GameLogic {
     private final GameState gameState;
     private final CharacterFieldEntity[][] characterFields;
     private final List<Rule> rules = new ArrayList<>();
+    private final CharacterCodec codec;
+    private final PackedBoard board;
+    private final List<ChangeListener> changeListeners = new ArrayList<>();
+    private WordOccurrenceIndex wordIndex = null;
+
+    private ChangeSet changeSet = null;
+    private int batchDepth = 0;
+
+    /**
+     * Available implementations for the check, that a character must be unique within the same
+     * column, row and section. Both produce exactly the same results. PEER_SCAN compares the
+     * character with all related fields on each check, while BITMASK keeps incrementally updated
+     * bit masks of the used characters.
+     */
+    public enum CandidateEngine {
+        PEER_SCAN,
+        BITMASK,
+    }
+
+    /**
+     * Callback interface to be informed about all changes to the game board. The listeners are
+     * called once per move or batch of moves, after all rules have been executed.
+     */
+    public interface ChangeListener {
+        /**
+         * Receive the fields changed by the last move or batch of moves.
+         *
+         * @param changeSet Changed fields
+         */
+        void onChangesCommitted(ChangeSet changeSet);
+    }
 
     /**
-     * Tuple with coordinates in the game board.
+     * Immutable tuple with coordinates in the game board.
      */
     public static class Coordinate {
-        public int xPos = 0;
-        public int yPos = 0;
+        public final int xPos;
+        public final int yPos;
+
+        /**
+         * Constructor.
+         *
+         * @param xPos Row
+         * @param yPos Column
+         */
+        public Coordinate(int xPos, int yPos) {
+            this.xPos = xPos;
+            this.yPos = yPos;
+        }
 
         @Override
         public boolean equals(Object o) {
@@ -30,29 +82,199 @@ public class GameLogic {
             if (xPos != that.xPos) return false;
             return yPos == that.yPos;
         }
+
+        @Override
+        public int hashCode() {
+            return 31 * xPos + yPos;
+        }
     }
 
     /**
      * Constructor. Depending on the given game type a different set of rules will be activated.
+     * The no duplicates rule uses the BITMASK implementation.
      *
      * @param gameState The game for which the logic shall apply.
      */
     GameLogic(GameState gameState) {
-        // Decompose the character field list into a two-dimensional array
+        this(gameState, CandidateEngine.BITMASK);
+    }
+
+    /**
+     * Constructor. Depending on the given game type a different set of rules will be activated.
+     *
+     * @param gameState The game for which the logic shall apply.
+     * @param candidateEngine Implementation of the no duplicates rule
+     */
+    GameLogic(GameState gameState, CandidateEngine candidateEngine) {
+        // Decompose the character field list into a two-dimensional array and pack the
+        // characters into their integer codes
         this.gameState = gameState;
+        this.codec = new CharacterCodec(gameState.game.characterSet, gameState.game.gameType);
+        this.board = new PackedBoard(gameState.game.size, this.codec);
         this.characterFields = new CharacterFieldEntity[gameState.game.size][gameState.game.size];
 
         for (CharacterFieldEntity characterField : gameState.characterFields) {
-            this.characterFields[characterField.xPos][characterField.yPos] = characterField;
+            int xPos = characterField.xPos;
+            int yPos = characterField.yPos;
+
+            this.characterFields[xPos][yPos] = characterField;
+            this.board.setCharacter(xPos, yPos, this.codec.encode(characterField.character));
+            this.board.setPencil(xPos, yPos, this.codec.encodeMask(characterField.pencil));
+            this.board.setLocked(xPos, yPos, characterField.locked);
         }
 
         // Activate rules
-        this.rules.add(new RuleNoDuplicates(gameState, this.characterFields));
-        this.rules.add(new RuleUpdateProgress(gameState, this.characterFields));
+        switch (candidateEngine) {
+            case PEER_SCAN:
+                this.rules.add(new RuleNoDuplicates(gameState, this.board, this.characterFields));
+                break;
+            case BITMASK:
+                this.rules.add(new RuleNoDuplicatesBitmask(gameState, this.board, this.characterFields));
+                break;
+        }
+
+        this.rules.add(new RuleUpdateProgress(gameState, this.board, this.characterFields));
 
         if (gameState.game.gameType == GameEntity.GameType.LETTER_GAME) {
-            this.rules.add(new RuleKnownWords(gameState, this.characterFields));
+            RuleKnownWords ruleKnownWords = new RuleKnownWords(gameState, this.board, this.characterFields);
+            this.wordIndex = ruleKnownWords.getWordIndex();
+            this.rules.add(ruleKnownWords);
+        }
+    }
+
+    /**
+     * @return Mapping between the characters of the game and their codes
+     */
+    public CharacterCodec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * @return Read-only packed view on the game board
+     */
+    public PackedBoard getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Register a listener to be informed about all changes to the game board.
+     *
+     * @param changeListener Listener to add
+     */
+    public void addChangeListener(ChangeListener changeListener) {
+        this.changeListeners.add(changeListener);
+    }
+
+    /**
+     * Unregister a previously registered change listener.
+     *
+     * @param changeListener Listener to remove
+     */
+    public void removeChangeListener(ChangeListener changeListener) {
+        this.changeListeners.remove(changeListener);
+    }
+
+    /**
+     * Start a batch of moves. Until commitBatch() is called, all changes are only applied to the
+     * game board, but the additional rule logic (like updating the progress or searching for known
+     * words) is deferred. Once the batch is committed, the rules run once for all changed fields
+     * and the change listeners receive one change set. This should be used whenever many characters
+     * are placed at once, e.g. when a new game is prefilled.
+     *
+     * Batches may be nested. Only the outermost batch is actually committed.
+     */
+    public void beginBatch() {
+        if (this.batchDepth == 0) {
+            this.changeSet = new ChangeSet(this.board.getSize());
+        }
+
+        this.batchDepth += 1;
+    }
+
+    /**
+     * Finish a batch of moves started with beginBatch(). See there.
+     *
+     * @return Fields changed by the batch (still incomplete for nested batches)
+     */
+    public ChangeSet commitBatch() {
+        if (this.batchDepth == 0) {
+            return new ChangeSet(this.board.getSize());
+        }
+
+        this.batchDepth -= 1;
+
+        if (this.batchDepth > 0) {
+            return this.changeSet;
+        }
+
+        ChangeSet changeSet = this.changeSet;
+        this.changeSet = null;
+
+        for (Rule rule : this.rules) {
+            rule.collectBackgroundChanges(changeSet);
+        }
+
+        if (!changeSet.isEmpty()) {
+            for (Rule rule : this.rules) {
+                rule.onChangesCommitted(changeSet);
+            }
+
+            this.gameState.markBoardChanged();
+
+            for (ChangeListener changeListener : new ArrayList<>(this.changeListeners)) {
+                changeListener.onChangesCommitted(changeSet);
+            }
+        }
+
+        return changeSet;
+    }
+
+    /**
+     * Take an immutable snapshot of the game board and the matched words, that can be encoded by
+     * another thread. This takes constant time, since the snapshot shares the packed rows and the
+     * word list, which are only copied on the next change.
+     *
+     * @return Snapshot of the current board
+     */
+    BoardSnapshot createSnapshot() {
+        List<WordOccurrenceIndex.Occurrence> occurrences = Collections.emptyList();
+
+        if (this.wordIndex != null) {
+            occurrences = this.wordIndex.snapshotOccurrences();
         }
+
+        return new BoardSnapshot(this.board.getSize(), this.board.snapshotRows(), occurrences);
+    }
+
+    /**
+     * Commit the changes, that the rules have done in the background (like marking the known words
+     * found by a database search), as if they were a batch of moves. This should be called on the
+     * UI thread after the background thread has released the thread mutex, so that the change
+     * listeners can update the views. Otherwise the changes are committed with the next move.
+     *
+     * @return Fields changed in the background
+     */
+    public ChangeSet commitBackgroundChanges() {
+        this.beginBatch();
+        return this.commitBatch();
+    }
+
+    /**
+     * @return true, if a batch of moves has been started and not yet been committed
+     */
+    public boolean isBatchActive() {
+        return this.batchDepth > 0;
+    }
+
+    /**
+     * Check, whether the game has been solved, meaning that all fields are filled and all rows,
+     * columns and sections are free of duplicates. This is a constant-time check, so it can be
+     * called after every change.
+     *
+     * @return true, if the game has been solved
+     */
+    public boolean isSolved() {
+        return this.board.isSolved();
     }
 
     /**
@@ -75,21 +297,37 @@ public class GameLogic {
 
     /**
      * For a given position on the game board get the coordinates of all fields, that may not
-     * contain duplicate characters.
+     * contain duplicate characters. The returned list is usually one of the shared, read-only
+     * lists of the PeerTable class and must not be modified.
      *
      * @param xPos Row
      * @param yPos Column
-     * @return List of coordinates where no duplicate characters are allowed
+     * @return Read-only list of coordinates where no duplicate characters are allowed
      */
     public List<GameLogic.Coordinate> getFieldsWithoutDuplicates(int xPos, int yPos) {
-        List<GameLogic.Coordinate> coordinates = new ArrayList<>();
+        List<GameLogic.Coordinate> coordinates = Collections.emptyList();
+        Set<GameLogic.Coordinate> mergedCoordinates = null;
 
         for (Rule rule : this.rules) {
-            for (Coordinate coordinate : rule.getFieldsWithoutDuplicates(xPos, yPos)) {
-                if (!coordinates.contains(coordinate)) {
-                    coordinates.add(coordinate);
-                }
+            List<GameLogic.Coordinate> ruleCoordinates = rule.getFieldsWithoutDuplicates(xPos, yPos);
+
+            if (ruleCoordinates.isEmpty()) {
+                continue;
+            } else if (coordinates.isEmpty()) {
+                coordinates = ruleCoordinates;
+                continue;
             }
+
+            // Only merge (and thus allocate), if more than one rule returns coordinates
+            if (mergedCoordinates == null) {
+                mergedCoordinates = new LinkedHashSet<>(coordinates);
+            }
+
+            mergedCoordinates.addAll(ruleCoordinates);
+        }
+
+        if (mergedCoordinates != null) {
+            return Collections.unmodifiableList(new ArrayList<>(mergedCoordinates));
         }
 
         return coordinates;
@@ -97,9 +335,9 @@ public class GameLogic {
 
     /**
      * Get a list of all characters that are allowed on the given field. The list is assembled
-     * by repeatedly calling isCharacterAllowed() for each possible character in the game. Thus,
-     * the client can rely on the validity of the character without calling isCharacterAllowed()
-     * a second time.
+     * from the allowed character masks of all rules, which yields the same result as calling
+     * isCharacterAllowed() for each possible character in the game. Thus, the client can rely
+     * on the validity of the character without calling isCharacterAllowed() a second time.
      *
      * @param xPos Row
      * @param yPos Column
@@ -107,15 +345,55 @@ public class GameLogic {
      * @return List of allowed characters.
      */
     public List<String> getAllowedCharacters(int xPos, int yPos, int flags) {
-        List<String> allowedCharacters = new ArrayList<>(this.gameState.game.size);
+        return this.codec.decodeMask(this.getAllowedCharacterMask(xPos, yPos, flags));
+    }
+
+    /**
+     * Get all characters that are allowed on the given field as a bit mask, where bit i stands
+     * for the character with code i (see CharacterCodec). Other than getAllowedCharacters() this
+     * doesn't allocate anything, so it is the preferred way for clients that query the allowed
+     * characters very often, like the game controls.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @return Bit mask of the allowed characters or 0 for fields outside the board
+     */
+    public int getAllowedCharacterMask(int xPos, int yPos, int flags) {
+        if (this.getCharacterField(xPos, yPos) == null) {
+            return 0;
+        }
+
+        int mask = this.codec.getAllCharactersMask();
+
+        for (Rule rule : this.rules) {
+            mask &= rule.getAllowedCharacterMask(xPos, yPos, flags, true);
 
-        for (String character : this.gameState.game.characterSet) {
-            if (this.isCharacterAllowed(xPos, yPos, flags, character, true)) {
-                allowedCharacters.add(character);
+            if (mask == 0) {
+                break;
             }
         }
 
-        return allowedCharacters;
+        return mask;
+    }
+
+    /**
+     * Get the allowed characters of all fields at once, e.g. to display the candidates of the
+     * whole board. The returned array is indexed by xPos * size + yPos (see PeerTable.getIndex())
+     * and contains the same bit masks as getAllowedCharacterMask().
+     *
+     * @param flags Special flags on how to treat the character (see constants)
+     * @return New array with the bit masks of the allowed characters of each field
+     */
+    public int[] getAllowedCharacterMasks(int flags) {
+        int[] masks = new int[this.board.getSize() * this.board.getSize()];
+        Arrays.fill(masks, this.codec.getAllCharactersMask());
+
+        for (Rule rule : this.rules) {
+            rule.getAllowedCharacterMasks(flags, masks);
+        }
+
+        return masks;
     }
 
     /**
@@ -129,8 +407,22 @@ public class GameLogic {
      * @return true, when the character is allowed
      */
     public boolean isCharacterAllowed(int xPos, int yPos, int flags, String character, boolean set) {
+        return this.isCharacterAllowed(xPos, yPos, flags, this.codec.encode(character), set);
+    }
+
+    /**
+     * Check whether a given character code is allowed at the given position.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param code The character code to set
+     * @param set True to set and false to erase the character
+     * @return true, when the character is allowed
+     */
+    public boolean isCharacterAllowed(int xPos, int yPos, int flags, int code, boolean set) {
         for (Rule rule : this.rules) {
-            if (!rule.isCharacterAllowed(xPos, yPos, flags, character, set)) {
+            if (!rule.isCharacterAllowed(xPos, yPos, flags, code, set)) {
                 return false;
             }
         }
@@ -141,7 +433,8 @@ public class GameLogic {
     /**
      * Modify game state to place a previously validated character on the board. This will place
      * the character on the board as well as execute any further logic on the game like scanning
-     * for known words in the letter game.
+     * for known words in the letter game. Unless a batch has been started with beginBatch(),
+     * in which case the further logic is deferred until the batch is committed.
      *
      * It is assumed, that this method will be called only for valid characters. Therefore, no
      * checking is done here to avoid double work.
@@ -153,6 +446,20 @@ public class GameLogic {
      * @param set True to set and false to erase the character
      */
     public void changeCharacter(int xPos, int yPos, int flags, String character, boolean set) {
+        this.changeCharacter(xPos, yPos, flags, this.codec.encode(character), set);
+    }
+
+    /**
+     * Modify game state to place a previously validated character code on the board. See the
+     * string variant of this method for details.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param code The character code to set
+     * @param set True to set and false to erase the character
+     */
+    public void changeCharacter(int xPos, int yPos, int flags, int code, boolean set) {
         // Put character on the board
         CharacterFieldEntity characterField;
 
@@ -162,30 +469,38 @@ public class GameLogic {
             return;
         }
 
+        // A single move is treated like a batch with only one move
+        this.beginBatch();
+
         if ((flags & GameState.FLAG_PENCIL) != 0) {
-            if (set) {
-                if (!characterField.pencil.contains(character)) {
-                    characterField.pencil.add(character);
-                }
-            } else {
-                characterField.pencil.remove(character);
+            int pencil = this.board.getPencil(xPos, yPos);
+            boolean penciled = code != CharacterCodec.EMPTY && (pencil & (1 << code)) != 0;
+
+            if (set && !penciled && code != CharacterCodec.EMPTY) {
+                this.board.setPencil(xPos, yPos, pencil | (1 << code));
+                characterField.pencil.add(this.codec.decode(code));
+                this.changeSet.add(xPos, yPos, ChangeSet.CHANGED_PENCIL);
+            } else if (!set && penciled) {
+                this.board.setPencil(xPos, yPos, pencil & ~(1 << code));
+                characterField.pencil.remove(this.codec.decode(code));
+                this.changeSet.add(xPos, yPos, ChangeSet.CHANGED_PENCIL);
             }
-        } else if (!characterField.locked || (flags & GameState.FLAG_LOCKED) != 0) {
-            if (set) {
-                characterField.character = character;
-            } else {
-                characterField.character = "";
+        } else if (!this.board.isLocked(xPos, yPos) || (flags & GameState.FLAG_LOCKED) != 0) {
+            int newCode = set ? code : CharacterCodec.EMPTY;
+
+            if (this.board.setCharacter(xPos, yPos, newCode) != newCode) {
+                characterField.character = this.codec.decode(newCode);
+                this.changeSet.add(xPos, yPos, ChangeSet.CHANGED_CHARACTER);
             }
         }
 
-        if ((flags & GameState.FLAG_LOCKED) != 0) {
+        if ((flags & GameState.FLAG_LOCKED) != 0 && !this.board.isLocked(xPos, yPos)) {
+            this.board.setLocked(xPos, yPos, true);
             characterField.locked = true;
+            this.changeSet.add(xPos, yPos, ChangeSet.CHANGED_LOCKED);
         }
 
-        // Execute additional rule logic
-        for (Rule rule : this.rules) {
-            rule.onCharacterChanged(xPos, yPos, flags, character, set);
-        }
+        // Execute additional rule logic, unless deferred by an outer batch
+        this.commitBatch();
     }
 }
-
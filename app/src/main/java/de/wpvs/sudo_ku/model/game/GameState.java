@@ -2,16 +2,16 @@ package de.wpvs.sudo_ku.model.game;
 
 import android.content.Context;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import androidx.room.Embedded;
-import androidx.room.Ignore;
-import androidx.room.Relation;
 import de.wpvs.sudo_ku.MyApplication;
 import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.metrics.Metrics;
 import de.wpvs.sudo_ku.thread.ThreadMutex;
 
 /**
@@ -19,12 +19,20 @@ import de.wpvs.sudo_ku.thread.ThreadMutex;
  * used to persist games in the database, so that they can be resumed even days or weeks after
  * they have been started. This is also the data structure used internally by the game logic to
  * represent the game state (hence the class name).
+ *
+ * In the database the character fields and words are encoded into the board column of the game
+ * entity (see BoardCodec and GameDao). Besides that, it is tracked whether the board has been
+ * changed since the last call of createCheckpoint(), so that a running game can be saved without
+ * rewriting the unchanged board.
+ *
+ * Each move accepted by setCharacter() is numbered (see GameEntity.journalSequence) and passed to
+ * the move listener, which appends it to the move journal in the database. When a game is loaded,
+ * the moves after the last checkpoint are replayed with replayMoves().
  */
 public class GameState {
     /**
      * Head data.
      */
-    @Embedded
     public GameEntity game = new GameEntity();
 
     /**
@@ -34,13 +42,11 @@ public class GameState {
      * method setCharacter() below, to make sure that the game logic is applied and only
      * valid characters are accepted.
      */
-    @Relation(parentColumn = "uid", entityColumn = "gameUid")
     public List<CharacterFieldEntity> characterFields = new LinkedList<>();
 
     /**
      * Detected words and their associated word number in the game fields.
      */
-    @Relation(parentColumn = "uid", entityColumn = "gameUid")
     public List<WordEntity> words = new LinkedList<>();
 
     /**
@@ -54,40 +60,38 @@ public class GameState {
     public static final int FLAG_PENCIL = 1;
     public static final int FLAG_LOCKED = 2;
 
+    /**
+     * Callback interface to receive each accepted move, e.g. to append it to the move journal.
+     */
+    public interface MoveListener {
+        /**
+         * Receive an accepted move. The move will not be changed afterwards, so that it can be
+         * handed over to another thread.
+         *
+         * @param move The accepted move
+         */
+        void onMoveAccepted(MoveEntity move);
+    }
+
     /**
      * Game logic. Will be instantiated on the first access via getGameLogic(). This is done like
      * this, because we need all entities to be fully loaded before accessing the game logic.
      */
-    @Ignore
     private GameLogic _gameLogic = null;
 
-    @Ignore
     private ThreadMutex threadMutex = null;
 
+    private boolean boardChanged = false;
+    private long checkpointSequence = 0;
+    private MoveListener moveListener = null;
+    private List<MoveEntity> pendingMoves = new ArrayList<>();
+
     /**
      * Default constructor.
      */
     public GameState() {
     }
 
-    /**
-     * Copy constructor. Creates a deep clone of the given game state, including copies of all
-     * contained entities, excluding all other objects like the game logic and thread mutex.
-     *
-     * @param that Entity to copy
-     */
-    public GameState(GameState that) {
-        this.game = new GameEntity(that.game);
-
-        for (CharacterFieldEntity characterField : that.characterFields) {
-            this.characterFields.add(new CharacterFieldEntity(characterField));
-        }
-
-        for (WordEntity word : that.words) {
-            this.words.add(new WordEntity(word));
-        }
-    }
-
     /**
      * Factory method for a new game with random configuration. The returned object will be
      * consistent in all regards and can directly be saved.
@@ -160,6 +164,59 @@ public class GameState {
         return this.threadMutex;
     }
 
+    /**
+     * Set the callback object, that receives each move accepted by setCharacter().
+     *
+     * @param moveListener Callback object or null
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    /**
+     * Remember the journal of moves, that have been saved after the board. They will be replayed
+     * with replayMoves(). This is called when the game is loaded from the database.
+     *
+     * @param moves Moves of the journal in any order
+     */
+    void setPendingMoves(List<MoveEntity> moves) {
+        this.pendingMoves = new ArrayList<>(moves);
+        Collections.sort(this.pendingMoves, (move1, move2) -> Long.compare(move1.sequence, move2.sequence));
+        this.checkpointSequence = this.game.journalSequence;
+    }
+
+    /**
+     * Replay all moves of the journal, that are not contained in the board yet, as one batch. This
+     * must be called once after the game has been loaded and before the game goes on. The moves
+     * are not passed to the move listener again, as they are already in the journal.
+     *
+     * @return Number of replayed moves
+     */
+    public int replayMoves() {
+        GameLogic gameLogic = this.getGameLogic();
+        long start = System.nanoTime();
+        int replayedMoves = 0;
+
+        gameLogic.beginBatch();
+
+        for (MoveEntity move : this.pendingMoves) {
+            if (move.sequence <= this.game.journalSequence) {
+                continue;
+            }
+
+            gameLogic.changeCharacter(move.xPos, move.yPos, move.flags, move.code, move.set);
+            this.game.journalSequence = move.sequence;
+            replayedMoves += 1;
+        }
+
+        gameLogic.commitBatch();
+        this.pendingMoves.clear();
+
+        Metrics.get("gameJournal.replayedMoves").record(replayedMoves);
+        Metrics.get("gameJournal.replayMicros").recordMicrosSince(start);
+        return replayedMoves;
+    }
+
     /**
      * Check that all parameters are consistent and the game is safe to be saved. Note, that this
      * currently only checks that the amount of available characters matches the game board size.
@@ -190,6 +247,38 @@ public class GameState {
         return errors;
     }
 
+    /**
+     * Remember that the character fields or words have been changed, so that the board will be
+     * part of the next checkpoint. This is called by the game logic.
+     */
+    void markBoardChanged() {
+        this.boardChanged = true;
+    }
+
+    /**
+     * Create a detached copy of the game header and start tracking the changes anew. Only if the
+     * character fields or words have been changed since the last checkpoint, a snapshot of the
+     * board is added, which takes constant time (see BoardSnapshot). The checkpoint must be saved with GameDao.saveCheckpoint()
+     * afterwards, as the contained changes are forgotten here. Saving the checkpoint folds all
+     * moves up to the current journal sequence into the board and removes them from the journal.
+     *
+     * @return Copy of the game header, with or without a snapshot of the board
+     */
+    public GameCheckpoint createCheckpoint() {
+        GameCheckpoint checkpoint = new GameCheckpoint();
+        checkpoint.game = new GameEntity(this.game);
+        checkpoint.game.board = null;
+        checkpoint.foldedMoves = (int) (this.game.journalSequence - this.checkpointSequence);
+        this.checkpointSequence = this.game.journalSequence;
+
+        if (this.boardChanged) {
+            checkpoint.snapshot = this.getGameLogic().createSnapshot();
+            this.boardChanged = false;
+        }
+
+        return checkpoint;
+    }
+
     /**
      * Access the game logic implementation that is used to check all the game rules. Always use
      * this method to access the game logic to make sure, it is actually instantiated.
@@ -221,9 +310,61 @@ public class GameState {
 
         if (gameLogic.isCharacterAllowed(xPos, yPos, flags, character, set)) {
             gameLogic.changeCharacter(xPos, yPos, flags, character, set);
+            this.recordMove(xPos, yPos, flags, gameLogic.getCodec().encode(character), set);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Variant of setCharacter() taking the character code (see CharacterCodec) instead of the
+     * character string.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param code The character code to set
+     * @param set True to set and false to erase the character
+     * @return true, when the character has been accepted
+     */
+    public boolean setCharacter(int xPos, int yPos, int flags, int code, boolean set) {
+        GameLogic gameLogic = this.getGameLogic();
+
+        if (gameLogic.isCharacterAllowed(xPos, yPos, flags, code, set)) {
+            gameLogic.changeCharacter(xPos, yPos, flags, code, set);
+            this.recordMove(xPos, yPos, flags, code, set);
             return true;
         }
 
         return false;
     }
+
+    /**
+     * Number an accepted move and pass it to the move listener.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param code The character code
+     * @param set True to set and false to erase the character
+     */
+    private void recordMove(int xPos, int yPos, int flags, int code, boolean set) {
+        this.game.journalSequence += 1;
+
+        if (this.moveListener == null) {
+            return;
+        }
+
+        MoveEntity move = new MoveEntity();
+        move.gameUid  = this.game.uid;
+        move.sequence = this.game.journalSequence;
+        move.xPos     = xPos;
+        move.yPos     = yPos;
+        move.flags    = flags;
+        move.code     = code;
+        move.set      = set;
+
+        this.moveListener.onMoveAccepted(move);
+    }
 }
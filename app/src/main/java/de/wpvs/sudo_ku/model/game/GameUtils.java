@@ -7,9 +7,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import de.wpvs.sudo_ku.MyApplication;
 import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.model.solver.ExactCoverSolver;
+import de.wpvs.sudo_ku.model.solver.ParallelSolver;
+import de.wpvs.sudo_ku.model.solver.PuzzleGenerator;
+import de.wpvs.sudo_ku.model.solver.Solver;
+import de.wpvs.sudo_ku.thread.puzzle.PuzzlePoolThread;
 
 /**
  * Static utility method to simplify or outsource some often needed functions.
@@ -170,56 +176,48 @@ public class GameUtils {
     }
 
     /**
-     * When a new game is started, prepopulate hte character fields with characters, according
-     * to the chosen difficulty. The difficulty here simply is the percentage of fields that are
-     * not tried to be filled.
+     * When a new game is started, prepopulate the character fields with a generated puzzle, that
+     * has exactly one solution (see PuzzleGenerator). The difficulty here is the percentage of
+     * fields that shall at least be prefilled. Usually more fields are needed to keep the solution
+     * unique, especially for the small percentages. A difficulty of zero leaves the board empty.
      *
-     * NOTE: the algorithm here is not very clever. It is more of a brute-force attack, simply
-     * picking random fields and then assigning random characters that are valid for those fields.
-     * This should hopefully work in most cases. But to be very sure, the algorithm is time boxed.
-     * It might thus be, that some fields remain unfilled or a game cannot be won.
+     * Usually the puzzle is taken from the puzzle pool, which is filled in the background.
      */
     public static void prepopulateCharacterFields(GameState gameState) {
-        // Prepare list of so far unset fields, to simplify picking a new random field
-        List<CharacterFieldEntity> remainingCharacterFields = new ArrayList<>(gameState.characterFields.size());
+        // The puzzle can only be placed, when there are enough characters. Otherwise the game
+        // will be rejected by checkGameConsistency(), anyway.
+        GameLogic gameLogic = gameState.getGameLogic();
 
-        for (CharacterFieldEntity characterField : gameState.characterFields) {
-            remainingCharacterFields.add(characterField);
+        if (gameLogic.getCodec().size() < gameState.game.size) {
+            return;
         }
 
-        // Spend the given amount of tries to fill some random fields
-        GameLogic gameLogic = gameState.getGameLogic();
+        // Prefer a pre-generated puzzle, generate a new one only if none is available
+        PuzzleGenerator.Puzzle puzzle = PuzzlePoolThread.takePuzzle(gameState.game.size, gameState.game.prefill);
+
+        // The player is waiting for the puzzle, so large boards are checked on all cores
+        if (puzzle == null) {
+            int size = gameState.game.size;
+            Solver solver = size >= 16 ? new ParallelSolver(size) : new ExactCoverSolver(size);
+            PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, new Random(), solver);
+            puzzle = puzzleGenerator.generate(gameState.game.prefill);
+        }
+
+        // Place all characters in one batch, so that the rules run only once at the end
         int flags = GameState.FLAG_NONE;
 
         if (gameState.game.lockPrefilled) {
             flags |= GameState.FLAG_LOCKED;
         }
 
-        int amountOfCharactersToSet = (int) (gameState.characterFields.size() * (gameState.game.prefill) / 100);
-        int maxTries = amountOfCharactersToSet * 3;
-        int successfulTries = 0;
-        int totalTries = 0;
-
-        while (successfulTries < amountOfCharactersToSet && totalTries <= maxTries) {
-            totalTries += 1;
-
-            if (remainingCharacterFields.isEmpty()) {
-                break;
-            }
-
-            int index1 = (int) Math.floor(Math.random() * remainingCharacterFields.size());
-            CharacterFieldEntity characterField = remainingCharacterFields.remove(index1);
-
-            List<String> allowedCharacters = gameLogic.getAllowedCharacters(characterField.xPos, characterField.yPos, flags);
+        gameLogic.beginBatch();
 
-            if (!allowedCharacters.isEmpty()) {
-                successfulTries += 1;
-
-                int index2 = (int) Math.floor(Math.random() * allowedCharacters.size());
-                String character = allowedCharacters.get(index2);
-
-                gameLogic.changeCharacter(characterField.xPos, characterField.yPos, flags, character, true);
+        for (int index = 0; index < puzzle.board.length; index++) {
+            if (puzzle.board[index] != CharacterCodec.EMPTY) {
+                gameLogic.changeCharacter(index / puzzle.size, index % puzzle.size, flags, puzzle.board[index], true);
             }
         }
+
+        gameLogic.commitBatch();
     }
 }
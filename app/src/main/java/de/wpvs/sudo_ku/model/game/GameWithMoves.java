@@ -0,0 +1,19 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+/**
+ * Result of the query to load a game together with its journal of moves, that have not been
+ * folded into the board yet (see GameDao).
+ */
+public class GameWithMoves {
+    @Embedded
+    public GameEntity game;
+
+    @Relation(parentColumn = "uid", entityColumn = "gameUid")
+    public List<MoveEntity> moves = new ArrayList<>();
+}
@@ -0,0 +1,171 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alphabetically sorted list of the matched words of a game, as displayed to the player. Other
+ * than the word list of the game state, each word is contained only once, no matter how often it
+ * has been found on the board.
+ *
+ * The list is updated incrementally from the word list of the game state: Only the words, whose
+ * first occurrence has been found or whose last occurrence has been erased, are inserted into or
+ * removed from the sorted list. A listener is informed about each of these changes, so that a
+ * list view can update only the changed entries.
+ */
+public final class MatchedWordList {
+    /**
+     * Callback for the changes made by update().
+     */
+    public interface Listener {
+        /**
+         * A word has been inserted into the list.
+         *
+         * @param position Position of the new word
+         */
+        void onWordInserted(int position);
+
+        /**
+         * A word has been removed from the list.
+         *
+         * @param position Previous position of the removed word
+         */
+        void onWordRemoved(int position);
+    }
+
+    private final List<String> words = new ArrayList<>();
+    private final Map<Integer, String> wordsByNumber = new HashMap<>();
+    private final Map<String, Integer> occurrenceCounts = new HashMap<>();
+
+    /**
+     * @return Amount of distinct words
+     */
+    public int size() {
+        return this.words.size();
+    }
+
+    /**
+     * @param position Position in the sorted list
+     * @return The word at the given position
+     */
+    public String get(int position) {
+        return this.words.get(position);
+    }
+
+    /**
+     * @param word Searched word
+     * @return Position of the word or a negative value, if it is not contained
+     */
+    public int indexOf(String word) {
+        return Collections.binarySearch(this.words, word);
+    }
+
+    /**
+     * @param wordNumber Word number of an occurrence (see WordEntity)
+     * @return The word of the occurrence or null, if it is unknown
+     */
+    public String getWord(int wordNumber) {
+        return this.wordsByNumber.get(wordNumber);
+    }
+
+    /**
+     * Bring the list up to date with the word list of the game. Each word entity is only looked
+     * up by its word number, so that the list is not sorted again.
+     *
+     * @param wordEntities Word list of the game state (see GameState.words)
+     * @param listener Callback for the inserted and removed words or null
+     */
+    public void update(List<WordEntity> wordEntities, Listener listener) {
+        int knownCount = this.wordsByNumber.size();
+        int stillKnown = 0;
+
+        for (WordEntity wordEntity : wordEntities) {
+            if (this.wordsByNumber.containsKey(wordEntity.wordNumber)) {
+                stillKnown += 1;
+            } else {
+                this.wordsByNumber.put(wordEntity.wordNumber, wordEntity.word);
+                this.addOccurrence(wordEntity.word, listener);
+            }
+        }
+
+        if (stillKnown == knownCount) {
+            return;
+        }
+
+        // Some occurrences have been erased, which must be searched now
+        Set<Integer> wordNumbers = new HashSet<>(wordEntities.size() * 2);
+
+        for (WordEntity wordEntity : wordEntities) {
+            wordNumbers.add(wordEntity.wordNumber);
+        }
+
+        Iterator<Map.Entry<Integer, String>> iterator = this.wordsByNumber.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, String> entry = iterator.next();
+
+            if (!wordNumbers.contains(entry.getKey())) {
+                iterator.remove();
+                this.removeOccurrence(entry.getValue(), listener);
+            }
+        }
+    }
+
+    /**
+     * Count a new occurrence of a word. The word is inserted at its sorted position, if this is
+     * its first occurrence.
+     *
+     * @param word Found word
+     * @param listener Callback or null
+     */
+    private void addOccurrence(String word, Listener listener) {
+        Integer count = this.occurrenceCounts.get(word);
+        this.occurrenceCounts.put(word, count == null ? 1 : count + 1);
+
+        if (count != null) {
+            return;
+        }
+
+        int position = -(this.indexOf(word) + 1);
+        this.words.add(position, word);
+
+        if (listener != null) {
+            listener.onWordInserted(position);
+        }
+    }
+
+    /**
+     * Forget an erased occurrence of a word. The word is removed from the list, if this has been
+     * its last occurrence.
+     *
+     * @param word Erased word
+     * @param listener Callback or null
+     */
+    private void removeOccurrence(String word, Listener listener) {
+        Integer count = this.occurrenceCounts.get(word);
+
+        if (count == null) {
+            return;
+        } else if (count > 1) {
+            this.occurrenceCounts.put(word, count - 1);
+            return;
+        }
+
+        this.occurrenceCounts.remove(word);
+        int position = this.indexOf(word);
+
+        if (position >= 0) {
+            this.words.remove(position);
+
+            if (listener != null) {
+                listener.onWordRemoved(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.wpvs.sudo_ku.model.game;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * Data transfer object for a single accepted move of a running game. The moves form an
+ * append-only journal, that is written shortly after each move, while the much larger board is
+ * only written at the regular checkpoints. When a game is loaded, all moves after the last
+ * checkpoint (see GameEntity.journalSequence) are replayed on the saved board.
+ */
+@Entity(
+        tableName   = "Move",
+        primaryKeys = {"gameUid", "sequence"},
+        foreignKeys = {
+                @ForeignKey(
+                        entity        = GameEntity.class,
+                        parentColumns = "uid",
+                        childColumns  = "gameUid",
+                        onDelete      = ForeignKey.CASCADE,
+                        onUpdate      = ForeignKey.CASCADE
+                )
+        })
+public class MoveEntity {
+    public long gameUid = -1;
+    public long sequence = 0;
+    public int xPos = -1;
+    public int yPos = -1;
+    public int flags = GameState.FLAG_NONE;
+    public int code = CharacterCodec.EMPTY;
+    public boolean set = true;
+
+    /**
+     * Default constructor.
+     */
+    public MoveEntity() {
+    }
+}
@@ -0,0 +1,329 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.Arrays;
+
+/**
+ * Compact representation of the game board used internally by the game logic. Each field holds
+ * the code of its character (see CharacterCodec), a bit mask of the penciled in characters and the
+ * lock flag, all stored in primitive arrays indexed by xPos * size + yPos.
+ *
+ * Additionally the board counts how often each character is used in each row, column and section
+ * and keeps bit masks of the used characters per row, column and section. These are updated
+ * incrementally, whenever a character is changed, which allows to check for duplicates with simple
+ * bit operations. The same way the amount of filled fields and duplicate characters is tracked,
+ * so that the progress and whether the game has been solved can be read without scanning the
+ * whole board.
+ *
+ * For saving the game, the characters, pencil marks and lock flags are additionally kept packed
+ * into one integer per field (see BoardSnapshot), organized in one array per row. These arrays
+ * are shared with the last snapshot taken by snapshotRows() and copied on write: The first change
+ * of a row after a snapshot copies only that row, so that taking a snapshot costs nothing.
+ *
+ * Clients can read the board via GameLogic.getBoard(), but only the game logic may change it.
+ */
+public final class PackedBoard {
+    private final int size;
+    private final CharacterCodec codec;
+    private final PeerTable peerTable;
+
+    private final int[] characters;
+    private final int[] pencils;
+    private final boolean[] locked;
+
+    private final int[] xCounts;
+    private final int[] yCounts;
+    private final int[] sectionCounts;
+    private final int[] xMasks;
+    private final int[] yMasks;
+    private final int[] sectionMasks;
+
+    private int filledCount = 0;
+    private int conflictCount = 0;
+
+    private int[][] rows;
+    private final int[] rowGenerations;
+    private int rowsGeneration = 0;
+    private int generation = 0;
+
+    /**
+     * Constructor for an empty board.
+     *
+     * @param size Size of the game board
+     * @param codec Character codes of the game
+     */
+    PackedBoard(int size, CharacterCodec codec) {
+        this.size = size;
+        this.codec = codec;
+        this.peerTable = PeerTable.forSize(size);
+
+        this.characters = new int[size * size];
+        this.pencils = new int[size * size];
+        this.locked = new boolean[size * size];
+
+        this.xCounts = new int[size * codec.size()];
+        this.yCounts = new int[size * codec.size()];
+        this.sectionCounts = new int[size * codec.size()];
+        this.xMasks = new int[size];
+        this.yMasks = new int[size];
+        this.sectionMasks = new int[size];
+
+        Arrays.fill(this.characters, CharacterCodec.EMPTY);
+
+        this.rows = new int[size][size];
+        this.rowGenerations = new int[size];
+
+        for (int[] row : this.rows) {
+            Arrays.fill(row, BoardSnapshot.pack(CharacterCodec.EMPTY, 0, false));
+        }
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return Character codes of the game
+     */
+    public CharacterCodec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * @return Shared peer table for the board size
+     */
+    public PeerTable getPeerTable() {
+        return this.peerTable;
+    }
+
+    /**
+     * @param xPos Row
+     * @param yPos Column
+     * @return Character code of the given field or CharacterCodec.EMPTY
+     */
+    public int getCharacter(int xPos, int yPos) {
+        return this.characters[xPos * this.size + yPos];
+    }
+
+    /**
+     * @param index Field index (xPos * size + yPos)
+     * @return Character code of the given field or CharacterCodec.EMPTY
+     */
+    public int getCharacter(int index) {
+        return this.characters[index];
+    }
+
+    /**
+     * @param xPos Row
+     * @param yPos Column
+     * @return Bit mask of the penciled in characters
+     */
+    public int getPencil(int xPos, int yPos) {
+        return this.pencils[xPos * this.size + yPos];
+    }
+
+    /**
+     * @param xPos Row
+     * @param yPos Column
+     * @return true, if the field is locked
+     */
+    public boolean isLocked(int xPos, int yPos) {
+        return this.locked[xPos * this.size + yPos];
+    }
+
+    /**
+     * @return Amount of fields containing a character
+     */
+    public int getFilledCount() {
+        return this.filledCount;
+    }
+
+    /**
+     * Get the amount of duplicate characters on the board. Each character, that is used more
+     * than once in the same row, column or section, counts once for each additional use in
+     * each of these.
+     *
+     * @return Amount of duplicate characters (0 for a valid board)
+     */
+    public int getConflictCount() {
+        return this.conflictCount;
+    }
+
+    /**
+     * Check, whether the board is completely filled without any duplicate characters. This is
+     * a constant-time check based on the counters, that are updated with each change.
+     *
+     * @return true, if the board is solved
+     */
+    public boolean isSolved() {
+        return this.filledCount == this.characters.length && this.conflictCount == 0;
+    }
+
+    /**
+     * Check, whether the given character is used by any other field in the same row, column or
+     * section of the given field. The field itself is not counted.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param code Character code
+     * @return true, if the character is used by at least one peer
+     */
+    public boolean isUsedByPeers(int xPos, int yPos, int code) {
+        int self = this.characters[xPos * this.size + yPos] == code ? 1 : 0;
+        int stride = this.codec.size();
+
+        return this.xCounts[xPos * stride + code] != self
+            || this.yCounts[yPos * stride + code] != self
+            || this.sectionCounts[this.peerTable.getSection(xPos, yPos) * stride + code] != self;
+    }
+
+    /**
+     * Get a bit mask of all characters used by other fields in the same row, column or section
+     * of the given field. The field itself is not counted.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return Bit mask of the characters used by the peers
+     */
+    public int getPeerMask(int xPos, int yPos) {
+        int section = this.peerTable.getSection(xPos, yPos);
+        int mask = this.xMasks[xPos] | this.yMasks[yPos] | this.sectionMasks[section];
+        int code = this.characters[xPos * this.size + yPos];
+        int stride = this.codec.size();
+
+        if (code >= 0
+                && this.xCounts[xPos * stride + code] == 1
+                && this.yCounts[yPos * stride + code] == 1
+                && this.sectionCounts[section * stride + code] == 1) {
+
+            mask &= ~(1 << code);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Place a character on the board and update the counters and masks accordingly.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param code Character code or CharacterCodec.EMPTY
+     * @return Previous character code
+     */
+    int setCharacter(int xPos, int yPos, int code) {
+        int index = xPos * this.size + yPos;
+        int oldCode = this.characters[index];
+
+        if (code == oldCode) {
+            return oldCode;
+        }
+
+        int section = this.peerTable.getSection(xPos, yPos);
+
+        if (oldCode >= 0) {
+            this.filledCount -= 1;
+            this.xMasks[xPos] = this.count(this.xCounts, this.xMasks[xPos], xPos, oldCode, -1);
+            this.yMasks[yPos] = this.count(this.yCounts, this.yMasks[yPos], yPos, oldCode, -1);
+            this.sectionMasks[section] = this.count(this.sectionCounts, this.sectionMasks[section], section, oldCode, -1);
+        }
+
+        if (code >= 0) {
+            this.filledCount += 1;
+            this.xMasks[xPos] = this.count(this.xCounts, this.xMasks[xPos], xPos, code, 1);
+            this.yMasks[yPos] = this.count(this.yCounts, this.yMasks[yPos], yPos, code, 1);
+            this.sectionMasks[section] = this.count(this.sectionCounts, this.sectionMasks[section], section, code, 1);
+        }
+
+        this.characters[index] = code;
+        this.updateRow(index);
+        return oldCode;
+    }
+
+    /**
+     * Replace the penciled in characters of a field.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param mask Bit mask of the penciled in characters
+     */
+    void setPencil(int xPos, int yPos, int mask) {
+        this.pencils[xPos * this.size + yPos] = mask;
+        this.updateRow(xPos * this.size + yPos);
+    }
+
+    /**
+     * Lock or unlock a field.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param locked New lock flag
+     */
+    void setLocked(int xPos, int yPos, boolean locked) {
+        this.locked[xPos * this.size + yPos] = locked;
+        this.updateRow(xPos * this.size + yPos);
+    }
+
+    /**
+     * Share the packed rows with a new snapshot. The returned arrays will never be changed
+     * afterwards, since each row is copied before its next change.
+     *
+     * @return Packed fields organized [xPos][yPos] (see BoardSnapshot)
+     */
+    int[][] snapshotRows() {
+        this.generation += 1;
+        return this.rows;
+    }
+
+    /**
+     * Update the packed field in its row, copying the row first, if it is still shared with the
+     * last snapshot.
+     *
+     * @param index Field index (xPos * size + yPos)
+     */
+    private void updateRow(int index) {
+        int xPos = index / this.size;
+
+        if (this.rowsGeneration != this.generation) {
+            this.rows = this.rows.clone();
+            this.rowsGeneration = this.generation;
+        }
+
+        if (this.rowGenerations[xPos] != this.generation) {
+            this.rows[xPos] = this.rows[xPos].clone();
+            this.rowGenerations[xPos] = this.generation;
+        }
+
+        this.rows[xPos][index % this.size] = BoardSnapshot.pack(this.characters[index], this.pencils[index], this.locked[index]);
+    }
+
+    /**
+     * Change the counter of a character in a row, column or section and return the updated
+     * bit mask of that unit. Also keeps track of the duplicate characters on the board.
+     *
+     * @param counts Counters of all units of one kind
+     * @param mask Current mask of the unit
+     * @param unit Index of the unit
+     * @param code Character code
+     * @param delta +1 or -1
+     * @return Updated mask
+     */
+    private int count(int[] counts, int mask, int unit, int code, int delta) {
+        int index = unit * this.codec.size() + code;
+
+        if (delta > 0 && counts[index] > 0) {
+            this.conflictCount += 1;
+        } else if (delta < 0 && counts[index] > 1) {
+            this.conflictCount -= 1;
+        }
+
+        counts[index] += delta;
+
+        if (counts[index] > 0) {
+            return mask | (1 << code);
+        } else {
+            return mask & ~(1 << code);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable lookup table with the related fields ("peers") of each field on the game board, that
+ * is all other fields in the same row, column or section. Since the peers only depend on the board
+ * size, the tables are built only once per board size and then shared by all games. Instances can
+ * thus only be retrieved with the static forSize() method.
+ *
+ * Fields are identified by their index xPos * size + yPos. All returned arrays and lists are
+ * shared and must never be modified by the caller!
+ */
+public final class PeerTable {
+    private static final Map<Integer, PeerTable> instances = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int sectionSize;
+    private final int[] sections;
+    private final int[][] peers;
+    private final List<List<GameLogic.Coordinate>> coordinates;
+
+    /**
+     * Get the shared peer table for the given board size. Creates the table, if it is requested
+     * for the first time.
+     *
+     * @param size Size of the game board (4, 9, 16, ...)
+     * @return Shared peer table
+     */
+    public static PeerTable forSize(int size) {
+        PeerTable peerTable = instances.get(size);
+
+        if (peerTable == null) {
+            peerTable = new PeerTable(size);
+            PeerTable existing = instances.putIfAbsent(size, peerTable);
+
+            if (existing != null) {
+                peerTable = existing;
+            }
+        }
+
+        return peerTable;
+    }
+
+    /**
+     * Don't allow direct instantiation. Use forSize() instead.
+     *
+     * @param size Size of the game board
+     */
+    private PeerTable(int size) {
+        this.size = size;
+        this.sectionSize = (int) Math.sqrt(size);
+        this.sections = new int[size * size];
+        this.peers = new int[size * size][];
+        this.coordinates = new ArrayList<>(size * size);
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                int index = this.getIndex(xPos, yPos);
+                this.sections[index] = (xPos / this.sectionSize) * this.sectionSize + (yPos / this.sectionSize);
+            }
+        }
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                List<GameLogic.Coordinate> fieldCoordinates = this.calculateCoordinates(xPos, yPos);
+                int[] fieldPeers = new int[fieldCoordinates.size() - 1];
+                int i = 0;
+
+                for (GameLogic.Coordinate coordinate : fieldCoordinates) {
+                    if (coordinate.xPos != xPos || coordinate.yPos != yPos) {
+                        fieldPeers[i++] = this.getIndex(coordinate.xPos, coordinate.yPos);
+                    }
+                }
+
+                Arrays.sort(fieldPeers);
+
+                this.peers[this.getIndex(xPos, yPos)] = fieldPeers;
+                this.coordinates.add(Collections.unmodifiableList(fieldCoordinates));
+            }
+        }
+    }
+
+    /**
+     * Collect the coordinates of all fields in the same row, column and section, including the
+     * field itself.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return New list of coordinates
+     */
+    private List<GameLogic.Coordinate> calculateCoordinates(int xPos, int yPos) {
+        List<GameLogic.Coordinate> coordinates = new ArrayList<>(3 * this.size);
+
+        // Horizontal axis
+        for (int x = 0; x < this.size; x++) {
+            coordinates.add(new GameLogic.Coordinate(x, yPos));
+        }
+
+        // Vertical axis
+        for (int y = 0; y < this.size; y++) {
+            if (y != yPos) {
+                coordinates.add(new GameLogic.Coordinate(xPos, y));
+            }
+        }
+
+        // Section
+        int xMin = (xPos / this.sectionSize) * this.sectionSize;
+        int yMin = (yPos / this.sectionSize) * this.sectionSize;
+
+        for (int x = xMin; x < xMin + this.sectionSize; x++) {
+            for (int y = yMin; y < yMin + this.sectionSize; y++) {
+                if (x != xPos && y != yPos) {
+                    coordinates.add(new GameLogic.Coordinate(x, y));
+                }
+            }
+        }
+
+        return coordinates;
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return Amount of fields in one row or column of a section
+     */
+    public int getSectionSize() {
+        return this.sectionSize;
+    }
+
+    /**
+     * Get the index of the given field, as used by the peer arrays.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return Field index
+     */
+    public int getIndex(int xPos, int yPos) {
+        return xPos * this.size + yPos;
+    }
+
+    /**
+     * Get the number of the section containing the given field.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return Section number
+     */
+    public int getSection(int xPos, int yPos) {
+        return this.sections[this.getIndex(xPos, yPos)];
+    }
+
+    /**
+     * Get the indices of all fields in the same row, column or section, excluding the field
+     * itself. The returned array is shared and must not be modified!
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return Sorted field indices of all peers
+     */
+    public int[] getPeers(int xPos, int yPos) {
+        return this.peers[this.getIndex(xPos, yPos)];
+    }
+
+    /**
+     * Get the coordinates of all fields in the same row, column or section, including the field
+     * itself. This is the read-only list returned by GameLogic.getFieldsWithoutDuplicates().
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @return Unmodifiable list of coordinates
+     */
+    public List<GameLogic.Coordinate> getCoordinates(int xPos, int yPos) {
+        return this.coordinates.get(this.getIndex(xPos, yPos));
+    }
+}
@@ -1,26 +1,32 @@
 package de.wpvs.sudo_ku.model.game;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Abstract base class for game rules as used by the GameLogic class. Subclasses of this are
  * queried by the GameLogic class during the game to execute the actual game logic.
  *
+ * All rules work on the character codes of the packed board (see CharacterCodec), so that no
+ * strings need to be compared during the game.
+ *
  * This class is not public, since it is only used internally by the GameLogic class.
  */
 abstract class Rule {
     protected GameState gameState;
+    protected PackedBoard board;
     protected CharacterFieldEntity[][] characterFields;
 
     /**
      * Constructor.
      *
      * @param gameState The game for which the rules shall be checked
+     * @param board Packed view on the game board
      * @param characterFields Two-dimensional view on the game board. Organized [xPos][yPos].
      */
-    Rule(GameState gameState, CharacterFieldEntity[][] characterFields) {
+    Rule(GameState gameState, PackedBoard board, CharacterFieldEntity[][] characterFields) {
         this.gameState = gameState;
+        this.board = board;
         this.characterFields = characterFields;
     }
 
@@ -33,7 +39,7 @@ abstract class Rule {
      * @return List of coordinates where no duplicate characters are allowed
      */
     public List<GameLogic.Coordinate> getFieldsWithoutDuplicates(int xPos, int yPos) {
-        return new ArrayList<>(0);
+        return Collections.emptyList();
     }
 
     /**
@@ -44,14 +50,60 @@ abstract class Rule {
      * @param xPos Row
      * @param yPos Column
      * @param flags Special flags on how to treat the character (see constants)
-     * @param character The character to set (must be one of the characters of the game)
+     * @param code The character code to set
      * @param set True to set and false to erase the character
      * @return true, when the character is allowed
      */
-    public boolean isCharacterAllowed(int xPos, int yPos, int flags, String character, boolean set) {
+    public boolean isCharacterAllowed(int xPos, int yPos, int flags, int code, boolean set) {
         return true;
     }
 
+    /**
+     * Bulk variant of isCharacterAllowed(), checking all characters of the game at once. Bit i of
+     * the returned mask stands for the character with code i. The default implementation simply
+     * calls isCharacterAllowed() for each character, so that subclasses only need to override
+     * this, if they can do better.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param set True to set and false to erase the character
+     * @return Bit mask of all allowed characters
+     */
+    public int getAllowedCharacterMask(int xPos, int yPos, int flags, boolean set) {
+        int mask = 0;
+
+        for (int code = 0; code < this.board.getCodec().size(); code++) {
+            if (this.isCharacterAllowed(xPos, yPos, flags, code, set)) {
+                mask |= 1 << code;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Whole board variant of getAllowedCharacterMask(), which is used to query the allowed
+     * characters of all fields at once. The masks of this rule must be combined with the given
+     * masks via bitwise AND, so that all rules can work on the same array.
+     *
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param masks Allowed characters of each field, indexed by xPos * size + yPos
+     */
+    public void getAllowedCharacterMasks(int flags, int[] masks) {
+        int size = this.board.getSize();
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                int index = xPos * size + yPos;
+
+                if (masks[index] != 0) {
+                    masks[index] &= this.getAllowedCharacterMask(xPos, yPos, flags, true);
+                }
+            }
+        }
+    }
+
     /**
      * This method is called, after a valid character has been placed on the game board, so that
      * further modifications to the game can be done. Most notably this is used in the letter
@@ -60,9 +112,45 @@ abstract class Rule {
      * @param xPos Row
      * @param yPos Column
      * @param flags Special flags on how to treat the character (see constants)
-     * @param character The character to set (must be one of the characters of the game)
+     * @param code The character code to set
      * @param set True to set and false to erase the character
      */
-    public void onCharacterChanged(int xPos, int yPos, int flags, String character, boolean set) {
+    public void onCharacterChanged(int xPos, int yPos, int flags, int code, boolean set) {
+    }
+
+    /**
+     * Add the changes, that the rule has done in the background since the last call (e.g. when a
+     * database search has finished), to the given change set. This is called at the start of each
+     * commit, so that the change listeners learn about these changes, too.
+     *
+     * @param changeSet Change set of the committed batch
+     */
+    public void collectBackgroundChanges(ChangeSet changeSet) {
+    }
+
+    /**
+     * This method is called once after a single move or a whole batch of moves has been applied
+     * to the game board (see GameLogic.beginBatch()), so that expensive side effects only need
+     * to be executed once. Further changes done by the rule should be added to the change set.
+     *
+     * The default implementation calls onCharacterChanged() with the final character of each
+     * field, whose character has been changed. Rules that can handle many fields at once better
+     * should override this.
+     *
+     * @param changeSet Changed fields
+     */
+    public void onChangesCommitted(ChangeSet changeSet) {
+        int size = this.board.getSize();
+
+        for (int i = 0; i < changeSet.count(); i++) {
+            int index = changeSet.getIndex(i);
+
+            if ((changeSet.getChanges(index) & ChangeSet.CHANGED_CHARACTER) == 0) {
+                continue;
+            }
+
+            int code = this.board.getCharacter(index);
+            this.onCharacterChanged(index / size, index % size, GameState.FLAG_NONE, code, code != CharacterCodec.EMPTY);
+        }
     }
 }
@@ -2,12 +2,14 @@ package de.wpvs.sudo_ku.model.game;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import de.wpvs.sudo_ku.metrics.Metrics;
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
 import de.wpvs.sudo_ku.thread.ThreadMutex;
-import de.wpvs.sudo_ku.thread.database.DatabaseThread;
 import de.wpvs.sudo_ku.thread.database.MatchKnownWords;
 
 /**
@@ -15,198 +17,335 @@ import de.wpvs.sudo_ku.thread.database.MatchKnownWords;
  * game board. For this it is checked, whether the last put character is part of at least one known
  * word horizontally or vertically.
  *
+ * Once the in-memory trie of the known words has been loaded, the words are matched synchronously:
+ * Starting from each position before the changed field, the characters are walked along the trie
+ * until the prefix cannot lead to any known word anymore. Only when a known word is found, a string
+ * is created. Before the trie is available, all words through the changed field are collected and
+ * searched in the database in the background.
+ *
+ * Each found occurrence of a word is kept in a WordOccurrenceIndex, so that the words of a changed
+ * field can be erased without scanning its row, column or the word list.
+ *
+ * Since the background search may lag behind fast moves, each row and column of the board has a
+ * version, that is incremented whenever one of its characters changes. Fields, whose search has
+ * not finished yet, stay pending: A new search replaces the still running one and covers all
+ * pending fields, so that outdated searches are dropped instead of piling up. Results are only
+ * applied, if the search is still the latest one, and only for the rows and columns, whose
+ * version still matches the version at the start of the search. The fields marked by a background
+ * search are collected in a separate change set, that is committed by the game logic later on
+ * (see GameLogic.commitBackgroundChanges()).
+ *
  * This class is not public, since it is only used internally by the GameLogic class.
  */
 class RuleKnownWords extends Rule {
+    private final WordOccurrenceIndex wordIndex;
+    private final int[] lineVersions;
+    private final Set<Integer> pendingIndices = new LinkedHashSet<>();
+    private MatchKnownWords<List<int[]>> pendingTask;
+    private ChangeSet backgroundChangeSet;
+
     /**
      * Constructor.
      *
      * @param gameState The game for which the rules shall be checked
+     * @param board Packed view on the game board
      * @param characterFields Two-dimensional view on the game board. Organized [xPos][yPos].
      */
-    RuleKnownWords(GameState gameState, CharacterFieldEntity[][] characterFields) {
-        super(gameState, characterFields);
+    RuleKnownWords(GameState gameState, PackedBoard board, CharacterFieldEntity[][] characterFields) {
+        super(gameState, board, characterFields);
+
+        this.wordIndex = new WordOccurrenceIndex(gameState, board, characterFields);
+
+        // Rows (indexed by xPos) followed by the columns (indexed by size + yPos)
+        this.lineVersions = new int[board.getSize() * 2];
+    }
+
+    /**
+     * @return Index of all matched words
+     */
+    WordOccurrenceIndex getWordIndex() {
+        return this.wordIndex;
+    }
+
+    /**
+     * Hand over the fields marked by finished database searches.
+     *
+     * @param changeSet Change set of the committed batch
+     */
+    @Override
+    public void collectBackgroundChanges(ChangeSet changeSet) {
+        if (this.backgroundChangeSet != null) {
+            changeSet.addAll(this.backgroundChangeSet);
+            this.backgroundChangeSet = null;
+        }
     }
 
     /**
-     * Check the given character and either erase all matched words that have been existing at
-     * the changed field (when character is empty) or search for machtes (otherwise).
+     * Known words are only searched after a character has been placed, they never forbid one.
      *
      * @param xPos Row
      * @param yPos Column
      * @param flags Special flags on how to treat the character (see constants)
-     * @param character The character to set (must be one of the characters of the game)
      * @param set True to set and false to erase the character
+     * @return Bit mask of all characters
      */
     @Override
-    public void onCharacterChanged(int xPos, int yPos, int flags, String character, boolean set) {
-        if ((flags & GameState.FLAG_PENCIL) != 0) {
-            return;
-        }
-
-        this.eraseMatchedWords(xPos, yPos);
-
-        if (set) {
-            this.matchKnownWords(xPos, yPos);
-        }
+    public int getAllowedCharacterMask(int xPos, int yPos, int flags, boolean set) {
+        return this.board.getCodec().getAllCharactersMask();
     }
 
     /**
-     * Erase all matched words which contained the given field because the character has been
-     * erased.
+     * Nothing to do, see above.
      *
-     * @param xPos Row
-     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param masks Allowed characters of each field, indexed by xPos * size + yPos
      */
-    private void eraseMatchedWords(int xPos, int yPos) {
-        CharacterFieldEntity erasedCharacterField = this.characterFields[xPos][yPos];
+    @Override
+    public void getAllowedCharacterMasks(int flags, int[] masks) {
+    }
 
-        for (int wordNumber : erasedCharacterField.words.toArray(new Integer[0])) {
-            // Horizontal axis
-            for (int x = 0; x < this.gameState.game.size; x++) {
-                this.characterFields[x][yPos].words.remove(Integer.valueOf(wordNumber));
+    /**
+     * Erase all matched words that have been existing at the changed fields and search for new
+     * matches around the fields, that still contain a character. Without the trie, the words of
+     * all pending fields are collected first, so that only one database task is needed for the
+     * whole batch. A still running database task is replaced by the new one.
+     *
+     * @param changeSet Changed fields
+     */
+    @Override
+    public void onChangesCommitted(ChangeSet changeSet) {
+        int size = this.board.getSize();
+        KnownWordTrie knownWordTrie = KnownWordTrie.getInstance();
+
+        for (int i = 0; i < changeSet.count(); i++) {
+            int index = changeSet.getIndex(i);
+
+            if ((changeSet.getChanges(index) & ChangeSet.CHANGED_CHARACTER) != 0) {
+                this.lineVersions[index / size] += 1;
+                this.lineVersions[size + index % size] += 1;
+                this.pendingIndices.add(index);
+                this.wordIndex.eraseAt(index / size, index % size, changeSet);
             }
+        }
 
-            // Vertical axis
-            for (int y = 0; y < this.gameState.game.size; y++) {
-                this.characterFields[xPos][y].words.remove(Integer.valueOf(wordNumber));
-            }
+        if (this.pendingIndices.isEmpty()) {
+            return;
+        }
+
+        if (this.pendingTask != null) {
+            this.pendingTask.cancel();
+            this.pendingTask = null;
+        }
 
-            // Word list
-            Iterator<WordEntity> iterator = this.gameState.words.iterator();
+        if (knownWordTrie != null) {
+            long start = System.nanoTime();
 
-            while (iterator.hasNext()) {
-                WordEntity word = iterator.next();
-                
-                if (word.wordNumber == wordNumber) {
-                    iterator.remove();
+            for (int index : this.pendingIndices) {
+                if (this.board.getCharacter(index) != CharacterCodec.EMPTY) {
+                    this.findKnownWords(knownWordTrie, index / size, index % size, 0, 1, changeSet);
+                    this.findKnownWords(knownWordTrie, index / size, index % size, 1, 0, changeSet);
                 }
             }
+
+            this.pendingIndices.clear();
+
+            Metrics.get("knownWords.trieMatchMicros").recordMicrosSince(start);
+            return;
+        }
+
+        Map<String, List<int[]>> searchedWords = new HashMap<>();
+
+        for (int index : this.pendingIndices) {
+            if (this.board.getCharacter(index) != CharacterCodec.EMPTY) {
+                this.collectSearchedWords(index / size, index % size, searchedWords);
+            }
+        }
+
+        if (!searchedWords.isEmpty()) {
+            this.matchKnownWords(searchedWords);
+        } else {
+            this.pendingIndices.clear();
         }
     }
 
     /**
-     * Check whether the given field is part of at least one known word. If so mark all fields of
-     * the found words with the found words.
+     * Find all known words along one axis, that contain the given field, and add them to the
+     * word index. For each start position (walking outward from the field) the following
+     * characters are looked up in the trie, until a field is empty or no known word starts with
+     * the prefix. The start positions themselves stop at the first empty field.
      *
+     * @param knownWordTrie Trie of all known words
      * @param xPos Row
      * @param yPos Column
+     * @param xStep 1 to walk the horizontal axis, else 0
+     * @param yStep 1 to walk the vertical axis, else 0
+     * @param changeSet Change set to which the marked fields are added
      */
-    private void matchKnownWords(int xPos, int yPos) {
-        // Collect words to search along vertical axis
-        Map<String, List<CharacterFieldEntity>> searchedWords = new HashMap<>();
+    private void findKnownWords(KnownWordTrie knownWordTrie, int xPos, int yPos, int xStep, int yStep, ChangeSet changeSet) {
+        CharacterCodec codec = this.board.getCodec();
+        int size = this.board.getSize();
+        int position = xPos * xStep + yPos * yStep;
+        int line = xStep == 0 ? xPos : size + yPos;
+
+        for (int start = position; start >= 0; start--) {
+            if (this.board.getCharacter(this.wordIndex.getIndex(line, start)) == CharacterCodec.EMPTY) {
+                break;
+            }
 
-        for (int yStart = 0; yStart <= yPos; yStart++) {
-            for (int yStop = this.gameState.game.size - 1; yStop >= yPos; yStop--) {
-                StringBuilder word = new StringBuilder();
-                List<CharacterFieldEntity> characterFields = new ArrayList<>(yStop - yStart + 1);
-                boolean skip = false;
+            int node = knownWordTrie.getRoot();
 
-                for (int y = yStart; y <= yStop; y++) {
-                    CharacterFieldEntity characterField = this.characterFields[xPos][y];
+            for (int stop = start; stop < size; stop++) {
+                int code = this.board.getCharacter(this.wordIndex.getIndex(line, stop));
 
-                    if (characterField.character.isEmpty()) {
-                        skip = true;
-                        break;
-                    }
+                if (code == CharacterCodec.EMPTY) {
+                    break;
+                }
+
+                node = knownWordTrie.getChild(node, codec.decode(code));
 
-                    characterFields.add(characterField);
-                    word.append(characterField.character);
+                if (node == KnownWordTrie.NO_NODE) {
+                    break;
                 }
 
-                if (skip) {
-                    continue;
+                if (stop >= position && knownWordTrie.isWord(node)) {
+                    this.wordIndex.add(this.spellWord(line, start, stop), line, start, stop, changeSet);
                 }
 
-                if (searchedWords.containsKey(word.toString())) {
-                    searchedWords.get(word.toString()).addAll(characterFields);
-                } else {
-                    searchedWords.put(word.toString(), characterFields);
+                if (!knownWordTrie.hasChildren(node)) {
+                    break;
                 }
             }
         }
+    }
+
+    /**
+     * @param line Row or column (see lineVersions)
+     * @param start Position of the first character on the line
+     * @param stop Position of the last character on the line
+     * @return The characters between both positions
+     */
+    private String spellWord(int line, int start, int stop) {
+        CharacterCodec codec = this.board.getCodec();
+        StringBuilder word = new StringBuilder();
+
+        for (int position = start; position <= stop; position++) {
+            word.append(codec.decode(this.board.getCharacter(this.wordIndex.getIndex(line, position))));
+        }
 
-        // Collect words to search along horizontal axis
-        for (int xStart = 0; xStart <= xPos; xStart++) {
-            for (int xStop = this.gameState.game.size - 1; xStop >= xPos; xStop--) {
-                StringBuilder word = new StringBuilder();
-                List<CharacterFieldEntity> characterFields = new ArrayList<>(xStop - xStart + 1);
-                boolean skip = false;
+        return word.toString();
+    }
 
-                for (int x = xStart; x <= xStop; x++) {
-                    CharacterFieldEntity characterField = this.characterFields[x][yPos];
+    /**
+     * Collect all words, that contain the given field, so that they can be searched in the
+     * database. For each word the row or column and the first and last position on it are
+     * collected. The same word may appear multiple times on the board, so all of its positions
+     * are collected in one list.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param searchedWords Searched words with their positions as {line, start, stop}
+     */
+    private void collectSearchedWords(int xPos, int yPos, Map<String, List<int[]>> searchedWords) {
+        int size = this.board.getSize();
+
+        // Collect words to search along vertical axis (the row xPos) and horizontal axis (the
+        // column yPos). Only here the character codes need to be converted back into strings,
+        // since the database contains the known words as strings.
+        for (int line : new int[] {xPos, size + yPos}) {
+            int position = line < size ? yPos : xPos;
+
+            for (int start = position; start >= 0; start--) {
+                if (this.board.getCharacter(this.wordIndex.getIndex(line, start)) == CharacterCodec.EMPTY) {
+                    break;
+                }
 
-                    if (characterField.character.isEmpty()) {
-                        skip = true;
+                for (int stop = position; stop < size; stop++) {
+                    if (this.board.getCharacter(this.wordIndex.getIndex(line, stop)) == CharacterCodec.EMPTY) {
                         break;
                     }
 
-                    characterFields.add(characterField);
-                    word.append(characterField.character);
-                }
+                    String word = this.spellWord(line, start, stop);
+                    List<int[]> positions = searchedWords.get(word);
 
-                if (skip) {
-                    continue;
-                }
+                    if (positions == null) {
+                        positions = new ArrayList<>(1);
+                        searchedWords.put(word, positions);
+                    }
 
-                if (searchedWords.containsKey(word.toString())) {
-                    searchedWords.get(word.toString()).addAll(characterFields);
-                } else {
-                    searchedWords.put(word.toString(), characterFields);
+                    positions.add(new int[] {line, start, stop});
                 }
             }
         }
+    }
 
+    /**
+     * Search the collected words in the database. If any are found, add them to the word index,
+     * as long as the search is still up to date.
+     *
+     * @param searchedWords Searched words with their positions as {line, start, stop}
+     */
+    private void matchKnownWords(Map<String, List<int[]>> searchedWords) {
         // Run task on the database thread to search matches and update the game state accordingly
-        MatchKnownWords<List<CharacterFieldEntity>> task = new MatchKnownWords<>(searchedWords);
+        MatchKnownWords<List<int[]>> task = new MatchKnownWords<>(searchedWords);
         ThreadMutex threadMutex = this.gameState.getThreadMutex();
+        int[] versions = this.lineVersions.clone();
 
-        task.setCallback(new MatchKnownWords.Callback<List<CharacterFieldEntity>>() {
+        task.setCallback(new MatchKnownWords.Callback<List<int[]>>() {
             @Override
-            public void receiveResult(Map<String, List<CharacterFieldEntity>> matchedWords) {
+            public void receiveResult(Map<String, List<int[]>> matchedWords) {
                 if (threadMutex != null) {
                     threadMutex.lock();
                 }
 
-                for (String word : matchedWords.keySet()) {
-                    // Find already existing word number or insert new word
-                    int highestWordNumber = 0;
-                    int wordNumber = -1;
-                    boolean wordAlreadyExsits = false;
+                RuleKnownWords.this.receiveMatchedWords(task, versions, matchedWords);
 
-                    for (WordEntity wordEntity: RuleKnownWords.this.gameState.words) {
-                        highestWordNumber = Math.max(highestWordNumber, wordEntity.wordNumber);
+                if (threadMutex != null) {
+                    threadMutex.release();
+                }
+            }
+        });
 
-                        if (wordEntity.word.equals(word)) {
-                            wordAlreadyExsits = true;
-                            wordNumber = wordEntity.wordNumber;
-                            break;
-                        }
-                    }
+        this.pendingTask = task;
+        task.post();
+    }
 
-                    if (!wordAlreadyExsits) {
-                        wordNumber = highestWordNumber + 1;
+    /**
+     * Apply the result of a database search, unless a newer search has been started meanwhile.
+     * Words in rows or columns, that have been changed since the start of the search, are
+     * discarded, too.
+     *
+     * @param task Finished task
+     * @param versions Versions of all rows and columns at the start of the search
+     * @param matchedWords Matched words with their positions as {line, start, stop}
+     */
+    private void receiveMatchedWords(MatchKnownWords<?> task, int[] versions, Map<String, List<int[]>> matchedWords) {
+        if (task != this.pendingTask) {
+            Metrics.get("knownWords.staleResults").record(matchedWords.size());
+            return;
+        }
 
-                        WordEntity wordEntity = new WordEntity();
-                        wordEntity.gameUid = RuleKnownWords.this.gameState.game.uid;
-                        wordEntity.word = word;
-                        wordEntity.wordNumber = wordNumber;
+        int discardedWords = 0;
 
-                        RuleKnownWords.this.gameState.words.add(wordEntity);
-                    }
+        if (this.backgroundChangeSet == null) {
+            this.backgroundChangeSet = new ChangeSet(this.board.getSize());
+        }
 
-                    // Mark all fields that make up the word
-                    for (CharacterFieldEntity characterField : matchedWords.get(word)) {
-                        characterField.words.add(wordNumber);
-                    }
+        for (Map.Entry<String, List<int[]>> entry : matchedWords.entrySet()) {
+            for (int[] position : entry.getValue()) {
+                if (this.lineVersions[position[0]] != versions[position[0]]) {
+                    discardedWords += 1;
+                    continue;
                 }
 
-                if (threadMutex != null) {
-                    threadMutex.release();
-                }
+                this.wordIndex.add(entry.getKey(), position[0], position[1], position[2], this.backgroundChangeSet);
             }
-        });
+        }
+
+        if (discardedWords > 0) {
+            Metrics.get("knownWords.staleResults").record(discardedWords);
+        }
 
-        DatabaseThread.getInstance().post(task);
+        this.pendingIndices.clear();
+        this.pendingTask = null;
     }
 }
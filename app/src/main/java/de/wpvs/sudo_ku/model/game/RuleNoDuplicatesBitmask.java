@@ -0,0 +1,72 @@
+package de.wpvs.sudo_ku.model.game;
+
+/**
+ * Alternative implementation of the Sudoku rule that a character must be unique within the same
+ * column, row and section. Other than its parent class, this doesn't scan the related fields
+ * each time a character is checked. Instead it uses the bit masks of the used characters per
+ * column, row and section, which are kept up to date by the packed board. The checks thus are
+ * simple bit operations without any allocations.
+ *
+ * This class is not public, since it is only used internally by the GameLogic class.
+ */
+class RuleNoDuplicatesBitmask extends RuleNoDuplicates {
+    /**
+     * Constructor.
+     *
+     * @param gameState The game for which the rules shall be checked
+     * @param board Packed view on the game board
+     * @param characterFields Two-dimensional view on the game board. Organized [xPos][yPos].
+     */
+    RuleNoDuplicatesBitmask(GameState gameState, PackedBoard board, CharacterFieldEntity[][] characterFields) {
+        super(gameState, board, characterFields);
+    }
+
+    /**
+     * Check, whether the given character is already present in the same row, column or section
+     * of the given field, not counting the field itself. Unless the pencil flag is set, in which
+     * case there is no restriction.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param code The character code to set
+     * @param set True to set and false to erase the character
+     * @return true, if the character is allowed
+     */
+    @Override
+    public boolean isCharacterAllowed(int xPos, int yPos, int flags, int code, boolean set) {
+        // Penciled in characters are always allowed
+        if ((flags & GameState.FLAG_PENCIL) != 0) {
+            return true;
+        }
+
+        if (!set || code == CharacterCodec.EMPTY) {
+            return true;
+        }
+
+        // The character must not be used by any other field in the same row, column or section
+        return !this.board.isUsedByPeers(xPos, yPos, code);
+    }
+
+    /**
+     * Calculate the allowed characters of the given field by combining the masks of its row,
+     * column and section. The field's own character remains allowed, if no other related field
+     * contains it.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param set True to set and false to erase the character
+     * @return Bit mask of all allowed characters
+     */
+    @Override
+    public int getAllowedCharacterMask(int xPos, int yPos, int flags, boolean set) {
+        int allCharactersMask = this.board.getCodec().getAllCharactersMask();
+
+        if ((flags & GameState.FLAG_PENCIL) != 0 || !set) {
+            return allCharactersMask;
+        }
+
+        return allCharactersMask & ~this.board.getPeerMask(xPos, yPos);
+    }
+}
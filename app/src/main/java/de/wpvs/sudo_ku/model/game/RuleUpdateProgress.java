@@ -1,42 +1,56 @@
 package de.wpvs.sudo_ku.model.game;
 
 /**
- * This class updates the progress field in the game after each change to the game field.
+ * This class updates the progress field in the game after each change to the game field. The
+ * amount of filled fields is tracked incrementally by the packed board, so that the progress
+ * can be calculated in constant time.
  */
 class RuleUpdateProgress extends Rule {
     /**
      * Constructor.
      *
      * @param gameState The game for which the rules shall be checked
+     * @param board Packed view on the game board
      * @param characterFields Two-dimensional view on the game board. Organized [xPos][yPos].
      */
-    public RuleUpdateProgress(GameState gameState, CharacterFieldEntity[][] characterFields) {
-        super(gameState, characterFields);
+    public RuleUpdateProgress(GameState gameState, PackedBoard board, CharacterFieldEntity[][] characterFields) {
+        super(gameState, board, characterFields);
     }
 
     /**
-     * Update progress after a character has been placed.
+     * This rule doesn't restrict the allowed characters. Overridden, so that the characters
+     * don't need to be checked one by one.
      *
      * @param xPos Row
      * @param yPos Column
      * @param flags Special flags on how to treat the character (see constants)
-     * @param character The character to set (must be one of the characters of the game)
      * @param set True to set and false to erase the character
+     * @return Bit mask of all characters
      */
     @Override
-    public void onCharacterChanged(int xPos, int yPos, int flags, String character, boolean set) {
-        if ((flags & GameState.FLAG_PENCIL) != 0) {
-            return;
-        }
+    public int getAllowedCharacterMask(int xPos, int yPos, int flags, boolean set) {
+        return this.board.getCodec().getAllCharactersMask();
+    }
 
-        int amountAllFields = this.gameState.characterFields.size();
-        int amountFilledFields = 0;
+    /**
+     * This rule doesn't restrict the allowed characters, so the masks stay untouched.
+     *
+     * @param flags Special flags on how to treat the character (see constants)
+     * @param masks Allowed characters of each field, indexed by xPos * size + yPos
+     */
+    @Override
+    public void getAllowedCharacterMasks(int flags, int[] masks) {
+    }
 
-        for (CharacterFieldEntity characterField : this.gameState.characterFields) {
-            if (!characterField.character.isEmpty()) {
-                amountFilledFields += 1;
-            }
-        }
+    /**
+     * Update progress after one or more characters have been placed.
+     *
+     * @param changeSet Changed fields
+     */
+    @Override
+    public void onChangesCommitted(ChangeSet changeSet) {
+        int amountAllFields = this.board.getSize() * this.board.getSize();
+        int amountFilledFields = this.board.getFilledCount();
 
         this.gameState.game.progress = Math.round((float) amountFilledFields / (float) amountAllFields * 100);
     }
@@ -1,8 +1,5 @@
 package de.wpvs.sudo_ku.model.game;
 
-import androidx.room.Entity;
-import androidx.room.ForeignKey;
-
 /**
  * Data transfer object for a word on the game board. This is part of the data model used to
  * persist and represent the game state. In this case, when a letter game is played, this entity
@@ -16,19 +13,10 @@ import androidx.room.ForeignKey;
  * Note, that if the same word has been found more than once, each occurrence will get its own
  * unique word number and will the stored separately in the list. This way a word can simply be
  * removed from the list without further checks, when the user erases a letter.
+ *
+ * Like the character fields, the words are encoded into the board column of the game (see
+ * BoardCodec) instead of a table of their own.
  */
-@Entity(
-        tableName   = "Word",
-        primaryKeys = {"gameUid", "wordNumber"},
-        foreignKeys = {
-                @ForeignKey(
-                        entity       = GameEntity.class,
-                        parentColumns = "uid",
-                        childColumns  = "gameUid",
-                        onDelete      = ForeignKey.CASCADE,
-                        onUpdate      = ForeignKey.CASCADE
-                )
-        })
 public class WordEntity {
     public long gameUid = -1;
     public int wordNumber = -1;
@@ -0,0 +1,438 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of all known words found on the game board, used by RuleKnownWords. Each occurrence of a
+ * word is a contiguous run of fields in one row or column and gets its own word entity with a
+ * unique word number, as described in WordEntity. The index connects the three directions, that
+ * are needed during the game:
+ *
+ *   » Word to occurrences, to find all occurrences of a word
+ *   » Occurrence to fields, to mark or unmark the fields of an occurrence
+ *   » Field to occurrences, to erase all occurrences of a changed field
+ *
+ * The occurrences are identified by their row or column ("line") and their first and last
+ * position on the line, so that an array can be used to check whether an occurrence already
+ * exists. The lines are numbered like in RuleKnownWords: Rows (fixed xPos) come first, followed
+ * by the columns (fixed yPos). Adding, erasing and searching occurrences never scans the board
+ * or the word list.
+ *
+ * The list of all occurrences in the order of the word list can be shared with a snapshot of the
+ * board (see BoardSnapshot). It is copied on the next change afterwards.
+ *
+ * The index is not persisted itself. Instead the word entities and the word numbers of the
+ * character fields are kept up to date, from which the index is rebuilt, when a game is loaded.
+ * Word entities of older versions, which shared one word number between all occurrences of the
+ * same word, are split into one entity per occurrence.
+ *
+ * This class is not public, since it is only used internally by the GameLogic class.
+ */
+class WordOccurrenceIndex {
+    private final GameState gameState;
+    private final PackedBoard board;
+    private final CharacterFieldEntity[][] characterFields;
+    private final int size;
+
+    private final Occurrence[] occurrencesByKey;
+    private final List<List<Occurrence>> occurrencesByField;
+    private final Map<String, Set<Occurrence>> occurrencesByWord = new HashMap<>();
+    private final List<WordEntity> words;
+    private List<Occurrence> wordListOccurrences = new ArrayList<>();
+    private boolean wordListOccurrencesShared = false;
+    private int nextWordNumber = 1;
+
+    /**
+     * One occurrence of a known word on the game board.
+     */
+    static class Occurrence {
+        final WordEntity wordEntity;
+        final int line;
+        final int start;
+        final int stop;
+        int wordListIndex;
+
+        /**
+         * Constructor.
+         *
+         * @param wordEntity Word entity of the occurrence
+         * @param line Row or column
+         * @param start Position of the first character on the line
+         * @param stop Position of the last character on the line
+         */
+        Occurrence(WordEntity wordEntity, int line, int start, int stop) {
+            this.wordEntity = wordEntity;
+            this.line = line;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+
+    /**
+     * Constructor. Builds the index from the word entities and word numbers of the game state.
+     * The word list of the game state is replaced by an ArrayList, so that entities can be
+     * removed in constant time.
+     *
+     * @param gameState The game whose words shall be indexed
+     * @param board Packed view on the game board
+     * @param characterFields Two-dimensional view on the game board. Organized [xPos][yPos].
+     */
+    WordOccurrenceIndex(GameState gameState, PackedBoard board, CharacterFieldEntity[][] characterFields) {
+        this.gameState = gameState;
+        this.board = board;
+        this.characterFields = characterFields;
+        this.size = board.getSize();
+        this.occurrencesByKey = new Occurrence[2 * this.size * this.size * this.size];
+        this.occurrencesByField = new ArrayList<>(this.size * this.size);
+
+        for (int index = 0; index < this.size * this.size; index++) {
+            this.occurrencesByField.add(new ArrayList<>(2));
+        }
+
+        List<WordEntity> persistedWords = gameState.words;
+        this.words = new ArrayList<>(persistedWords.size());
+        gameState.words = this.words;
+
+        this.rebuild(persistedWords);
+    }
+
+    /**
+     * Add a new occurrence of a word, unless it is already known. A new word entity is appended
+     * to the word list of the game and its word number is added to all fields of the occurrence.
+     *
+     * @param word The found word
+     * @param line Row or column
+     * @param start Position of the first character on the line
+     * @param stop Position of the last character on the line
+     * @param changeSet Change set to which the marked fields are added or null
+     * @return true, if the occurrence has been added
+     */
+    boolean add(String word, int line, int start, int stop, ChangeSet changeSet) {
+        if (start == stop && line >= this.size) {
+            // Single characters are always indexed by their row, so that they are found only once
+            int index = this.getIndex(line, start);
+            line = index / this.size;
+            start = stop = index % this.size;
+        }
+
+        int key = this.getKey(line, start, stop);
+
+        if (this.occurrencesByKey[key] != null) {
+            return false;
+        }
+
+        WordEntity wordEntity = new WordEntity();
+        wordEntity.gameUid = this.gameState.game.uid;
+        wordEntity.word = word;
+        wordEntity.wordNumber = this.nextWordNumber++;
+
+        this.insert(wordEntity, line, start, stop);
+        this.gameState.markBoardChanged();
+
+        for (int position = start; position <= stop; position++) {
+            int index = this.getIndex(line, position);
+            this.getCharacterField(index).words.add(wordEntity.wordNumber);
+
+            if (changeSet != null) {
+                changeSet.add(index / this.size, index % this.size, ChangeSet.CHANGED_WORDS);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Erase all occurrences, that contain the given field. Their word entities are removed from
+     * the word list of the game and their word numbers from all of their fields.
+     *
+     * @param xPos Row
+     * @param yPos Column
+     * @param changeSet Change set to which the fields with erased words are added
+     */
+    void eraseAt(int xPos, int yPos, ChangeSet changeSet) {
+        List<Occurrence> occurrences = this.occurrencesByField.get(xPos * this.size + yPos);
+
+        while (!occurrences.isEmpty()) {
+            Occurrence occurrence = occurrences.get(occurrences.size() - 1);
+
+            for (int position = occurrence.start; position <= occurrence.stop; position++) {
+                int index = this.getIndex(occurrence.line, position);
+
+                this.occurrencesByField.get(index).remove(occurrence);
+                this.getCharacterField(index).words.remove(Integer.valueOf(occurrence.wordEntity.wordNumber));
+                changeSet.add(index / this.size, index % this.size, ChangeSet.CHANGED_WORDS);
+            }
+
+            this.remove(occurrence);
+            this.gameState.markBoardChanged();
+        }
+    }
+
+    /**
+     * @param word Searched word
+     * @return All occurrences of the word (read-only)
+     */
+    Set<Occurrence> getOccurrences(String word) {
+        Set<Occurrence> occurrences = this.occurrencesByWord.get(word);
+        return occurrences != null ? Collections.unmodifiableSet(occurrences) : Collections.emptySet();
+    }
+
+    /**
+     * @param xPos Row
+     * @param yPos Column
+     * @return All occurrences containing the given field (read-only)
+     */
+    List<Occurrence> getOccurrences(int xPos, int yPos) {
+        return Collections.unmodifiableList(this.occurrencesByField.get(xPos * this.size + yPos));
+    }
+
+    /**
+     * Share the list of all occurrences with a snapshot of the board. The list will never be
+     * changed afterwards, since it is copied before the next change.
+     *
+     * @return All occurrences in the order of the word list (read-only)
+     */
+    List<Occurrence> snapshotOccurrences() {
+        this.wordListOccurrencesShared = true;
+        return Collections.unmodifiableList(this.wordListOccurrences);
+    }
+
+    /**
+     * @param line Row or column
+     * @param position Position on the line
+     * @return Index of the field (xPos * size + yPos)
+     */
+    int getIndex(int line, int position) {
+        return getIndex(this.size, line, position);
+    }
+
+    /**
+     * @param size Size of the game board
+     * @param line Row or column
+     * @param position Position on the line
+     * @return Index of the field (xPos * size + yPos)
+     */
+    static int getIndex(int size, int line, int position) {
+        if (line < size) {
+            return line * size + position;
+        } else {
+            return position * size + line - size;
+        }
+    }
+
+    /**
+     * Add an occurrence with an existing word entity to all lookup structures.
+     *
+     * @param wordEntity Word entity of the occurrence
+     * @param line Row or column
+     * @param start Position of the first character on the line
+     * @param stop Position of the last character on the line
+     * @return The new occurrence
+     */
+    private Occurrence insert(WordEntity wordEntity, int line, int start, int stop) {
+        Occurrence occurrence = new Occurrence(wordEntity, line, start, stop);
+        occurrence.wordListIndex = this.words.size();
+        this.copySharedOccurrences();
+
+        this.words.add(wordEntity);
+        this.wordListOccurrences.add(occurrence);
+        this.occurrencesByKey[this.getKey(line, start, stop)] = occurrence;
+
+        Set<Occurrence> occurrences = this.occurrencesByWord.get(wordEntity.word);
+
+        if (occurrences == null) {
+            occurrences = new LinkedHashSet<>();
+            this.occurrencesByWord.put(wordEntity.word, occurrences);
+        }
+
+        occurrences.add(occurrence);
+
+        for (int position = start; position <= stop; position++) {
+            this.occurrencesByField.get(this.getIndex(line, position)).add(occurrence);
+        }
+
+        return occurrence;
+    }
+
+    /**
+     * Remove an occurrence from the word list and the lookup structures, except the lists of
+     * the fields. The last word entity of the word list takes the place of the removed one.
+     *
+     * @param occurrence Removed occurrence
+     */
+    private void remove(Occurrence occurrence) {
+        this.copySharedOccurrences();
+
+        int lastIndex = this.words.size() - 1;
+        WordEntity lastWordEntity = this.words.remove(lastIndex);
+        Occurrence lastOccurrence = this.wordListOccurrences.remove(lastIndex);
+
+        if (occurrence.wordListIndex != lastIndex) {
+            this.words.set(occurrence.wordListIndex, lastWordEntity);
+            this.wordListOccurrences.set(occurrence.wordListIndex, lastOccurrence);
+            lastOccurrence.wordListIndex = occurrence.wordListIndex;
+        }
+
+        this.occurrencesByKey[this.getKey(occurrence.line, occurrence.start, occurrence.stop)] = null;
+
+        Set<Occurrence> occurrences = this.occurrencesByWord.get(occurrence.wordEntity.word);
+        occurrences.remove(occurrence);
+
+        if (occurrences.isEmpty()) {
+            this.occurrencesByWord.remove(occurrence.wordEntity.word);
+        }
+    }
+
+    /**
+     * Build the index from persisted word entities. The fields of each entity are found by its
+     * word number. Each run of those fields, that spells the word, becomes an occurrence. The
+     * first occurrence keeps the entity, further occurrences get new entities. Entities without
+     * any occurrence are dropped. If anything had to be repaired like this, the board is marked
+     * as changed, so that the repaired words are saved with the next checkpoint.
+     *
+     * @param persistedWords Word entities of the game state
+     */
+    private void rebuild(List<WordEntity> persistedWords) {
+        Map<Integer, Set<Integer>> fieldsByWordNumber = new HashMap<>();
+        int persistedMarks = 0;
+        int rebuiltMarks = 0;
+
+        for (WordEntity wordEntity : persistedWords) {
+            this.nextWordNumber = Math.max(this.nextWordNumber, wordEntity.wordNumber + 1);
+        }
+
+        for (int index = 0; index < this.size * this.size; index++) {
+            CharacterFieldEntity characterField = this.getCharacterField(index);
+
+            if (characterField == null) {
+                continue;
+            }
+
+            persistedMarks += characterField.words.size();
+
+            for (int wordNumber : characterField.words) {
+                Set<Integer> fields = fieldsByWordNumber.get(wordNumber);
+
+                if (fields == null) {
+                    fields = new LinkedHashSet<>();
+                    fieldsByWordNumber.put(wordNumber, fields);
+                }
+
+                fields.add(index);
+            }
+
+            characterField.words.clear();
+        }
+
+        for (WordEntity wordEntity : persistedWords) {
+            Set<Integer> fields = fieldsByWordNumber.remove(wordEntity.wordNumber);
+
+            if (fields == null) {
+                continue;
+            }
+
+            boolean first = true;
+
+            for (int index : fields) {
+                for (int line : new int[] {index / this.size, this.size + index % this.size}) {
+                    int start = line < this.size ? index % this.size : index / this.size;
+                    int stop = this.findStop(wordEntity.word, fields, line, start);
+
+                    if (stop < 0 || (start == stop && line >= this.size) || this.occurrencesByKey[this.getKey(line, start, stop)] != null) {
+                        continue;
+                    }
+
+                    if (first) {
+                        this.insert(wordEntity, line, start, stop);
+                        first = false;
+                    } else {
+                        WordEntity copy = new WordEntity(wordEntity);
+                        copy.wordNumber = this.nextWordNumber++;
+                        this.insert(copy, line, start, stop);
+                    }
+                }
+            }
+        }
+
+        for (Occurrence occurrence : this.occurrencesByKey) {
+            if (occurrence == null) {
+                continue;
+            }
+
+            for (int position = occurrence.start; position <= occurrence.stop; position++) {
+                this.getCharacterField(this.getIndex(occurrence.line, position)).words.add(occurrence.wordEntity.wordNumber);
+                rebuiltMarks += 1;
+            }
+        }
+
+        if (rebuiltMarks != persistedMarks || this.words.size() != persistedWords.size()) {
+            this.gameState.markBoardChanged();
+        }
+    }
+
+    /**
+     * Check, whether the word is spelled by a run of the given fields starting at the given
+     * position.
+     *
+     * @param word Word to spell
+     * @param fields Indices of the fields with the word number of the word
+     * @param line Row or column
+     * @param start Position of the first character on the line
+     * @return Position of the last character on the line or -1
+     */
+    private int findStop(String word, Set<Integer> fields, int line, int start) {
+        CharacterCodec codec = this.board.getCodec();
+        StringBuilder spelled = new StringBuilder();
+
+        for (int position = start; position < this.size; position++) {
+            int index = this.getIndex(line, position);
+            int code = this.board.getCharacter(index);
+
+            if (!fields.contains(index) || code == CharacterCodec.EMPTY) {
+                return -1;
+            }
+
+            spelled.append(codec.decode(code));
+
+            if (spelled.length() >= word.length()) {
+                return spelled.toString().equals(word) ? position : -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Copy the list of all occurrences before changing it, if it is shared with a snapshot.
+     */
+    private void copySharedOccurrences() {
+        if (this.wordListOccurrencesShared) {
+            this.wordListOccurrences = new ArrayList<>(this.wordListOccurrences);
+            this.wordListOccurrencesShared = false;
+        }
+    }
+
+    /**
+     * @param line Row or column
+     * @param start Position of the first character on the line
+     * @param stop Position of the last character on the line
+     * @return Index of the occurrence in occurrencesByKey
+     */
+    private int getKey(int line, int start, int stop) {
+        return (line * this.size + start) * this.size + stop;
+    }
+
+    /**
+     * @param index Index of the field (xPos * size + yPos)
+     * @return The character field
+     */
+    private CharacterFieldEntity getCharacterField(int index) {
+        return this.characterFields[index / this.size][index % this.size];
+    }
+}
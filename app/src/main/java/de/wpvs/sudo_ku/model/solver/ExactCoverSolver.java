@@ -0,0 +1,434 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+import de.wpvs.sudo_ku.model.game.PeerTable;
+
+/**
+ * Solver for the Sudoku rules based on Knuth's Dancing Links algorithm. The rules are modelled as
+ * an exact cover problem: Each possible placement of a character on a field is a row of a sparse
+ * matrix, that covers four constraints (columns):
+ *
+ *   1. The field contains a character.
+ *   2. The row of the field contains the character.
+ *   3. The column of the field contains the character.
+ *   4. The section of the field contains the character.
+ *
+ * A solution is a selection of rows, that covers each column exactly once. The matrix is stored
+ * as a circular doubly linked list inside of a few int arrays, which are built once in the
+ * constructor. Before each search the links are simply restored from a copy of the initial
+ * arrays, so that a search doesn't allocate any memory.
+ *
+ * An instance can be reused for many searches on boards of the same size, but it is not thread-safe.
+ */
+public final class ExactCoverSolver implements Solver {
+    private static final int ROOT = 0;
+    private static final int CONSTRAINTS = 4;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final int size;
+    private final int columnCount;
+    private final int firstRowNode;
+
+    private final int[] initialLeft;
+    private final int[] initialRight;
+    private final int[] initialUp;
+    private final int[] initialDown;
+    private final int[] initialCounts;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] columns;
+    private final int[] counts;
+    private final boolean[] covered;
+    private final int[] cells;
+
+    private int limit;
+    private int solutions;
+    private int[] solution;
+    private long deadline;
+    private int nodes;
+    private boolean timeout;
+    private volatile boolean cancelled;
+    private AtomicBoolean cancellation;
+
+    /**
+     * Constructor. Builds the complete matrix for an empty board.
+     *
+     * @param size Size of the game board
+     */
+    public ExactCoverSolver(int size) {
+        PeerTable peerTable = PeerTable.forSize(size);
+        int fieldCount = size * size;
+
+        this.size = size;
+        this.columnCount = CONSTRAINTS * fieldCount;
+        this.firstRowNode = this.columnCount + 1;
+
+        int nodeCount = this.firstRowNode + fieldCount * size * CONSTRAINTS;
+
+        this.left = new int[nodeCount];
+        this.right = new int[nodeCount];
+        this.up = new int[nodeCount];
+        this.down = new int[nodeCount];
+        this.columns = new int[nodeCount];
+        this.counts = new int[this.columnCount + 1];
+        this.covered = new boolean[this.columnCount + 1];
+        this.cells = new int[fieldCount];
+
+        // Root and column headers
+        for (int column = 0; column <= this.columnCount; column++) {
+            this.left[column] = column == 0 ? this.columnCount : column - 1;
+            this.right[column] = column == this.columnCount ? ROOT : column + 1;
+            this.up[column] = column;
+            this.down[column] = column;
+            this.columns[column] = column;
+        }
+
+        // One row for each character on each field
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                int index = peerTable.getIndex(xPos, yPos);
+                int section = peerTable.getSection(xPos, yPos);
+
+                for (int code = 0; code < size; code++) {
+                    int node = this.getFirstNode(index, code);
+
+                    this.appendNode(node, 1 + index);
+                    this.appendNode(node + 1, 1 + fieldCount + xPos * size + code);
+                    this.appendNode(node + 2, 1 + 2 * fieldCount + yPos * size + code);
+                    this.appendNode(node + 3, 1 + 3 * fieldCount + section * size + code);
+
+                    for (int i = 0; i < CONSTRAINTS; i++) {
+                        this.left[node + i] = node + (i + CONSTRAINTS - 1) % CONSTRAINTS;
+                        this.right[node + i] = node + (i + 1) % CONSTRAINTS;
+                    }
+                }
+            }
+        }
+
+        this.initialLeft = this.left.clone();
+        this.initialRight = this.right.clone();
+        this.initialUp = this.up.clone();
+        this.initialDown = this.down.clone();
+        this.initialCounts = this.counts.clone();
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Count the solutions of the given board, but stop as soon as the given limit is reached.
+     * Use a limit of 2 to check, whether a board has a unique solution.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutions(int[] board, int limit, long deadline) {
+        try {
+            if (!this.init(board, limit, deadline, null)) {
+                return 0;
+            }
+
+            this.search();
+            return this.timeout ? TIMEOUT : this.solutions;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Count the solutions of the given board, in which the given field doesn't contain the given
+     * character. This is used to check, whether a character can be removed from a board with a
+     * unique solution: If no other solution exists with a different character on that field, the
+     * solution is still unique. This is usually much faster than counting all solutions, since
+     * the known solution doesn't need to be searched again.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code, that must not be used on the field
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutionsWithout(int[] board, int index, int code, int limit, long deadline) {
+        try {
+            if (!this.init(board, limit, deadline, null)) {
+                return 0;
+            }
+
+            this.removeRow(index, code);
+            this.search();
+            return this.timeout ? TIMEOUT : this.solutions;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Search one solution of the given board.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param solution Array, that receives the solution
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return true, if a solution has been found in time
+     */
+    @Override
+    public boolean solve(int[] board, int[] solution, long deadline) {
+        try {
+            if (!this.init(board, 1, deadline, solution)) {
+                return false;
+            }
+
+            this.search();
+            return !this.timeout && this.solutions > 0;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Cancel the currently running search from another thread. If no search is running, the
+     * next search is cancelled instead.
+     */
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Additionally cancel all following searches, once the given flag becomes true. This is used
+     * by the ParallelSolver to stop all of its branches at once. Unlike cancel() the flag is not
+     * reset, when a search ends.
+     *
+     * @param cancellation Shared cancellation flag or null
+     */
+    void setCancellation(AtomicBoolean cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Remove the row of the given character on the given field from the matrix. It will be
+     * restored by the next init(). If any of its columns is covered, the row has already been
+     * removed by the given characters.
+     *
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code
+     */
+    private void removeRow(int index, int code) {
+        int row = this.getFirstNode(index, code);
+        boolean linked = true;
+
+        for (int i = 0; i < CONSTRAINTS; i++) {
+            linked &= !this.covered[this.columns[row + i]];
+        }
+
+        if (linked) {
+            for (int i = 0; i < CONSTRAINTS; i++) {
+                int node = row + i;
+
+                this.down[this.up[node]] = this.down[node];
+                this.up[this.down[node]] = this.up[node];
+                this.counts[this.columns[node]] -= 1;
+            }
+        }
+    }
+
+    /**
+     * Restore the matrix of the empty board and select the rows of all given characters.
+     *
+     * @param board Character codes of the board
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @param solution Array to receive the first solution or null
+     * @return false, if the given board already contains duplicates
+     */
+    private boolean init(int[] board, int limit, long deadline, int[] solution) {
+        this.limit = limit;
+        this.solutions = 0;
+        this.solution = solution;
+        this.deadline = deadline;
+        this.nodes = 0;
+        this.timeout = false;
+
+        System.arraycopy(this.initialLeft, 0, this.left, 0, this.left.length);
+        System.arraycopy(this.initialRight, 0, this.right, 0, this.right.length);
+        System.arraycopy(this.initialUp, 0, this.up, 0, this.up.length);
+        System.arraycopy(this.initialDown, 0, this.down, 0, this.down.length);
+        System.arraycopy(this.initialCounts, 0, this.counts, 0, this.counts.length);
+
+        for (int column = 0; column < this.covered.length; column++) {
+            this.covered[column] = false;
+        }
+
+        for (int index = 0; index < this.cells.length; index++) {
+            int code = board[index];
+            this.cells[index] = code;
+
+            if (code == CharacterCodec.EMPTY) {
+                continue;
+            }
+
+            // Two given characters sharing a constraint contradict each other
+            int node = this.getFirstNode(index, code);
+
+            for (int i = 0; i < CONSTRAINTS; i++) {
+                if (this.covered[this.columns[node + i]]) {
+                    return false;
+                }
+            }
+
+            for (int i = 0; i < CONSTRAINTS; i++) {
+                this.cover(this.columns[node + i]);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Recursive search. Always continues with the constraint that can be satisfied by the least
+     * remaining rows, so that most fields are determined without any guessing.
+     */
+    private void search() {
+        if (this.right[ROOT] == ROOT) {
+            this.solutions += 1;
+
+            if (this.solution != null && this.solutions == 1) {
+                System.arraycopy(this.cells, 0, this.solution, 0, this.cells.length);
+            }
+
+            return;
+        }
+
+        if (++this.nodes % DEADLINE_CHECK_INTERVAL == 0 && this.isCancelled()) {
+            this.timeout = true;
+            return;
+        }
+
+        // Find the column with the least rows
+        int bestColumn = this.right[ROOT];
+
+        for (int column = this.right[bestColumn]; column != ROOT; column = this.right[column]) {
+            if (this.counts[column] < this.counts[bestColumn]) {
+                bestColumn = column;
+
+                if (this.counts[column] <= 1) {
+                    break;
+                }
+            }
+        }
+
+        if (this.counts[bestColumn] == 0) {
+            return;
+        }
+
+        // Try all rows of the column
+        this.cover(bestColumn);
+
+        for (int row = this.down[bestColumn]; row != bestColumn && this.solutions < this.limit && !this.timeout; row = this.down[row]) {
+            int rowNumber = (row - this.firstRowNode) / CONSTRAINTS;
+            int index = rowNumber / this.size;
+
+            this.cells[index] = rowNumber % this.size;
+
+            for (int node = this.right[row]; node != row; node = this.right[node]) {
+                this.cover(this.columns[node]);
+            }
+
+            this.search();
+
+            for (int node = this.left[row]; node != row; node = this.left[node]) {
+                this.uncover(this.columns[node]);
+            }
+
+            this.cells[index] = CharacterCodec.EMPTY;
+        }
+
+        this.uncover(bestColumn);
+    }
+
+    /**
+     * @return true, if the search has been cancelled or the deadline has been reached
+     */
+    private boolean isCancelled() {
+        return this.cancelled
+                || (this.cancellation != null && this.cancellation.get())
+                || System.nanoTime() - this.deadline > 0;
+    }
+
+    /**
+     * Remove a column from the header list and all rows, that intersect the column, from the
+     * other columns.
+     *
+     * @param column Column header
+     */
+    private void cover(int column) {
+        this.covered[column] = true;
+        this.right[this.left[column]] = this.right[column];
+        this.left[this.right[column]] = this.left[column];
+
+        for (int row = this.down[column]; row != column; row = this.down[row]) {
+            for (int node = this.right[row]; node != row; node = this.right[node]) {
+                this.down[this.up[node]] = this.down[node];
+                this.up[this.down[node]] = this.up[node];
+                this.counts[this.columns[node]] -= 1;
+            }
+        }
+    }
+
+    /**
+     * Exactly revert cover() for the given column.
+     *
+     * @param column Column header
+     */
+    private void uncover(int column) {
+        for (int row = this.up[column]; row != column; row = this.up[row]) {
+            for (int node = this.left[row]; node != row; node = this.left[node]) {
+                this.counts[this.columns[node]] += 1;
+                this.down[this.up[node]] = node;
+                this.up[this.down[node]] = node;
+            }
+        }
+
+        this.right[this.left[column]] = column;
+        this.left[this.right[column]] = column;
+        this.covered[column] = false;
+    }
+
+    /**
+     * Append a node to the bottom of the given column while building the matrix.
+     *
+     * @param node Node
+     * @param column Column header
+     */
+    private void appendNode(int node, int column) {
+        this.columns[node] = column;
+        this.up[node] = this.up[column];
+        this.down[node] = column;
+        this.down[this.up[column]] = node;
+        this.up[column] = node;
+        this.counts[column] += 1;
+    }
+
+    /**
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code
+     * @return First of the four nodes of the row, that places the character on the field
+     */
+    private int getFirstNode(int index, int code) {
+        return this.firstRowNode + (index * this.size + code) * CONSTRAINTS;
+    }
+}
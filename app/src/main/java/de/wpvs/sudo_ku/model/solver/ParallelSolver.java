@@ -0,0 +1,416 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+import de.wpvs.sudo_ku.model.game.PeerTable;
+
+/**
+ * Solver for large boards, that explores the search tree on multiple cores. Before a branch is
+ * split, all fields with only one candidate are filled, since they don't need to be guessed. The
+ * tree is then split at the empty field with the least candidates: For each candidate a copy of
+ * the board is created with the candidate placed on the field. This is repeated, until there are
+ * enough branches to keep all threads of the ForkJoinPool busy. Each branch is then searched by
+ * an ExactCoverSolver of the executing thread.
+ *
+ * All branches share the found solutions, so that the whole search stops as soon as the limit
+ * has been reached, e.g. after the second solution of a uniqueness check or the first solution
+ * when solving a board. The search also stops at the deadline or when cancelled by the owner of
+ * the solver with cancel().
+ *
+ * For small boards the sequential solvers are usually faster, since the branches are too cheap
+ * to outweigh the overhead of the parallel execution.
+ */
+public final class ParallelSolver implements Solver {
+    private static final int TASKS_PER_THREAD = 4;
+
+    private static ForkJoinPool sharedPool;
+
+    private final int size;
+    private final ForkJoinPool pool;
+    private final PeerTable peerTable;
+    private final ThreadLocal<ExactCoverSolver> solvers;
+    private volatile Search search;
+    private volatile boolean cancelled;
+    private volatile int lastTaskCount;
+
+    /**
+     * State of one search shared by all of its branches.
+     */
+    private static class Search {
+        final int limit;
+        final long deadline;
+        final int[] solution;
+        final AtomicInteger solutions = new AtomicInteger();
+        final AtomicBoolean solutionCopied = new AtomicBoolean();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicInteger tasks = new AtomicInteger();
+        final int excludedIndex;
+        final int excludedCode;
+        volatile boolean timeout;
+
+        /**
+         * Constructor.
+         *
+         * @param limit Maximum number of solutions to search
+         * @param deadline Value of System.nanoTime() after which the search is cancelled
+         * @param solution Array to receive the first solution or null
+         */
+        Search(int limit, long deadline, int[] solution) {
+            this(limit, deadline, solution, -1, CharacterCodec.EMPTY);
+        }
+
+        /**
+         * Constructor for a search, in which one field must not contain a given character.
+         *
+         * @param limit Maximum number of solutions to search
+         * @param deadline Value of System.nanoTime() after which the search is cancelled
+         * @param solution Array to receive the first solution or null
+         * @param excludedIndex Index of the field or -1
+         * @param excludedCode Character code, that must not be used on the field
+         */
+        Search(int limit, long deadline, int[] solution, int excludedIndex, int excludedCode) {
+            this.limit = limit;
+            this.deadline = deadline;
+            this.solution = solution;
+            this.excludedIndex = excludedIndex;
+            this.excludedCode = excludedCode;
+        }
+
+        /**
+         * Stop all branches because of a timeout or cancellation.
+         */
+        void cancel() {
+            this.timeout = true;
+            this.stopped.set(true);
+        }
+    }
+
+    /**
+     * Constructor for a solver, that uses a shared pool with one thread per core.
+     *
+     * @param size Size of the game board
+     */
+    public ParallelSolver(int size) {
+        this(size, getSharedPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the game board
+     * @param pool Thread pool for the branches
+     */
+    public ParallelSolver(int size, ForkJoinPool pool) {
+        this.size = size;
+        this.pool = pool;
+        this.peerTable = PeerTable.forSize(size);
+        this.solvers = ThreadLocal.withInitial(() -> new ExactCoverSolver(size));
+    }
+
+    /**
+     * @return Pool with one thread per core, that is shared by all parallel solvers
+     */
+    public static synchronized ForkJoinPool getSharedPool() {
+        if (sharedPool == null) {
+            sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        return sharedPool;
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return Number of branches searched sequentially by the last search
+     */
+    int getLastTaskCount() {
+        return this.lastTaskCount;
+    }
+
+    /**
+     * Count the solutions of the given board, but stop as soon as the given limit is reached.
+     * Use a limit of 2 to check, whether a board has a unique solution.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutions(int[] board, int limit, long deadline) {
+        return this.getSolutionCount(this.run(board, new Search(limit, deadline, null)));
+    }
+
+    /**
+     * Count the solutions of the given board, in which the given field doesn't contain the given
+     * character. This is used to check, whether a character can be removed from a board with a
+     * unique solution.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code, that must not be used on the field
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutionsWithout(int[] board, int index, int code, int limit, long deadline) {
+        return this.getSolutionCount(this.run(board, new Search(limit, deadline, null, index, code)));
+    }
+
+    /**
+     * @param search Finished search
+     * @return Number of found solutions (at most the limit) or TIMEOUT
+     */
+    private int getSolutionCount(Search search) {
+        int solutions = Math.min(search.solutions.get(), search.limit);
+        return solutions < search.limit && search.timeout ? TIMEOUT : solutions;
+    }
+
+    /**
+     * Search one solution of the given board.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param solution Array, that receives the solution
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return true, if a solution has been found in time
+     */
+    @Override
+    public boolean solve(int[] board, int[] solution, long deadline) {
+        Search search = this.run(board, new Search(1, deadline, solution));
+        return search.solutionCopied.get();
+    }
+
+    /**
+     * Cancel the currently running search from another thread. If no search is running, the
+     * next search is cancelled instead.
+     */
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+        Search search = this.search;
+
+        if (search != null) {
+            search.cancel();
+        }
+    }
+
+    /**
+     * Execute a search on the thread pool and wait for its end.
+     *
+     * @param board Character codes of the board
+     * @param search New search
+     * @return The finished search
+     */
+    private Search run(int[] board, Search search) {
+        int targetTasks = this.pool.getParallelism() * TASKS_PER_THREAD;
+
+        this.search = search;
+
+        try {
+            if (this.cancelled) {
+                search.cancel();
+            }
+
+            this.pool.invoke(new Branch(search, board.clone(), targetTasks));
+        } finally {
+            this.search = null;
+            this.cancelled = false;
+            this.lastTaskCount = search.tasks.get();
+        }
+
+        return search;
+    }
+
+    /**
+     * One branch of the search tree. The branch is either split further or searched by the
+     * ExactCoverSolver of the executing thread.
+     */
+    private class Branch extends RecursiveAction {
+        private final Search search;
+        private final int[] board;
+        private final int targetTasks;
+
+        /**
+         * Constructor.
+         *
+         * @param search Shared search state
+         * @param board Character codes of the branch (owned by the branch)
+         * @param targetTasks Amount of tasks, that this branch should be split into
+         */
+        Branch(Search search, int[] board, int targetTasks) {
+            this.search = search;
+            this.board = board;
+            this.targetTasks = targetTasks;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.search.stopped.get()) {
+                return;
+            }
+
+            if (System.nanoTime() - this.search.deadline > 0) {
+                this.search.cancel();
+                return;
+            }
+
+            if (this.targetTasks <= 1 || !this.split()) {
+                this.searchSequentially();
+            }
+        }
+
+        /**
+         * Fill all fields with only one candidate, then split the branch at the empty field with
+         * the least candidates and run the new branches in parallel. The filled fields are
+         * forced, so they don't change the solutions of the branch.
+         *
+         * @return false, if the branch cannot be split and must be searched sequentially
+         */
+        private boolean split() {
+            while (true) {
+                int bestIndex = -1;
+                int bestCandidates = 0;
+                int bestCount = Integer.MAX_VALUE;
+                boolean filled = false;
+
+                for (int index = 0; index < this.board.length; index++) {
+                    if (this.board[index] != CharacterCodec.EMPTY) {
+                        continue;
+                    }
+
+                    int candidates = this.getCandidates(index);
+                    int count = Integer.bitCount(candidates);
+
+                    if (count == 0) {
+                        // Contradictions are left to the sequential solver
+                        return false;
+                    } else if (count == 1) {
+                        this.board[index] = Integer.numberOfTrailingZeros(candidates);
+                        filled = true;
+                    } else if (count < bestCount) {
+                        bestIndex = index;
+                        bestCandidates = candidates;
+                        bestCount = count;
+                    }
+                }
+
+                if (filled) {
+                    // The filled fields may have removed candidates of the best field
+                    continue;
+                } else if (bestIndex < 0) {
+                    // Completely filled boards are left to the sequential solver
+                    return false;
+                }
+
+                this.fork(bestIndex, bestCandidates, bestCount);
+                return true;
+            }
+        }
+
+        /**
+         * Create one branch for each candidate of the given field and run them in parallel.
+         *
+         * @param index Index of the field
+         * @param candidates Bit mask of the candidates
+         * @param count Number of candidates
+         */
+        private void fork(int index, int candidates, int count) {
+            List<Branch> branches = new ArrayList<>(count);
+            int branchTargetTasks = (this.targetTasks + count - 1) / count;
+
+            while (candidates != 0) {
+                int bit = candidates & -candidates;
+                candidates &= ~bit;
+
+                int[] branchBoard = this.board.clone();
+                branchBoard[index] = Integer.numberOfTrailingZeros(bit);
+                branches.add(new Branch(this.search, branchBoard, branchTargetTasks));
+            }
+
+            invokeAll(branches);
+        }
+
+        /**
+         * @param index Index of an empty field
+         * @return Bit mask of the characters, that are not used by any peer of the field and
+         *         are not excluded by the search
+         */
+        private int getCandidates(int index) {
+            int used = 0;
+
+            for (int peer : ParallelSolver.this.peerTable.getPeers(index / ParallelSolver.this.size, index % ParallelSolver.this.size)) {
+                int code = this.board[peer];
+
+                if (code != CharacterCodec.EMPTY) {
+                    used |= 1 << code;
+                }
+            }
+
+            if (index == this.search.excludedIndex) {
+                used |= 1 << this.search.excludedCode;
+            }
+
+            return ~used & ((1 << ParallelSolver.this.size) - 1);
+        }
+
+        /**
+         * Search the branch with the solver of the current thread and publish the results.
+         */
+        private void searchSequentially() {
+            ExactCoverSolver solver = ParallelSolver.this.solvers.get();
+            int remaining = this.search.limit - this.search.solutions.get();
+
+            if (remaining <= 0) {
+                return;
+            }
+
+            this.search.tasks.incrementAndGet();
+            solver.setCancellation(this.search.stopped);
+
+            if (this.search.solution != null) {
+                int[] solution = new int[this.board.length];
+
+                if (solver.solve(this.board, solution, this.search.deadline)
+                        && this.search.solutionCopied.compareAndSet(false, true)) {
+
+                    System.arraycopy(solution, 0, this.search.solution, 0, solution.length);
+                    this.search.solutions.incrementAndGet();
+                    this.search.stopped.set(true);
+                }
+
+                return;
+            }
+
+            int excludedIndex = this.search.excludedIndex;
+            int solutions;
+
+            if (excludedIndex >= 0 && this.board[excludedIndex] == CharacterCodec.EMPTY) {
+                solutions = solver.countSolutionsWithout(this.board, excludedIndex, this.search.excludedCode, remaining, this.search.deadline);
+            } else {
+                solutions = solver.countSolutions(this.board, remaining, this.search.deadline);
+            }
+
+            if (solutions == TIMEOUT) {
+                // Branches stopped because another branch reached the limit are no timeout
+                if (this.search.solutions.get() < this.search.limit) {
+                    this.search.cancel();
+                }
+            } else if (this.search.solutions.addAndGet(solutions) >= this.search.limit) {
+                this.search.stopped.set(true);
+            }
+        }
+    }
+}
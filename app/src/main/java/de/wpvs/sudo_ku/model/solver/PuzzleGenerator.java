@@ -0,0 +1,224 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+
+/**
+ * Generator for new puzzles with exactly one solution. First a complete and valid board is
+ * created by shuffling a simple pattern: Rows are swapped within their band of sections, the bands
+ * are swapped as a whole, the same happens to the columns and finally the characters are permuted.
+ * Then the characters are removed one by one in random order, as long as the solver confirms that
+ * no other solution exists with a different character on the emptied field.
+ *
+ * Since the uniqueness checks can become expensive for large boards with only few remaining
+ * characters, the whole generation is bound by a time budget. Once the time is up, the generator
+ * simply stops removing characters. Because each removal has been verified before, the puzzle
+ * always has a unique solution, it just might contain more characters than requested.
+ *
+ * The uniqueness checks are run by an ExactCoverSolver, unless the caller passes another solver.
+ * A caller waiting for a 16x16 puzzle can pass a ParallelSolver to use all cores, while background
+ * generation should stick to a single thread, so that it doesn't compete with the foreground.
+ */
+public final class PuzzleGenerator {
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 250;
+    private static final int CHECK_BUDGET_FRACTION = 20;
+
+    private final int size;
+    private final int sectionSize;
+    private final Random random;
+    private final Solver solver;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+
+    /**
+     * Result of the generator: The puzzle and its solution, both as character codes indexed by
+     * xPos * size + yPos (see CharacterCodec and PeerTable).
+     */
+    public static class Puzzle {
+        public final int size;
+        public final int[] board;
+        public final int[] solution;
+
+        /**
+         * Constructor.
+         *
+         * @param size Size of the game board
+         * @param board Character codes of the puzzle, CharacterCodec.EMPTY for empty fields
+         * @param solution Character codes of the solution
+         */
+        public Puzzle(int size, int[] board, int[] solution) {
+            this.size = size;
+            this.board = board;
+            this.solution = solution;
+        }
+
+        /**
+         * @return Amount of prefilled fields
+         */
+        public int getFilledCount() {
+            int count = 0;
+
+            for (int code : this.board) {
+                if (code != CharacterCodec.EMPTY) {
+                    count += 1;
+                }
+            }
+
+            return count;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the game board (must be a square number)
+     * @param random Source of randomness
+     */
+    public PuzzleGenerator(int size, Random random) {
+        this(size, random, new ExactCoverSolver(size));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the game board (must be a square number)
+     * @param random Source of randomness
+     * @param solver Solver for the uniqueness checks (must have the same size)
+     */
+    public PuzzleGenerator(int size, Random random, Solver solver) {
+        this.size = size;
+        this.sectionSize = (int) Math.sqrt(size);
+        this.random = random;
+        this.solver = solver;
+    }
+
+    /**
+     * Change the maximum time spent on removing characters.
+     *
+     * @param timeBudgetMillis Time budget in milliseconds
+     */
+    public void setTimeBudget(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Generate a new puzzle. The given percentage of prefilled fields is a lower bound. Fewer
+     * fields are usually not possible without losing the unique solution, anyway. A percentage
+     * of zero yields an empty board, to allow free play.
+     *
+     * @param prefill Minimum percentage of prefilled fields
+     * @return New puzzle
+     */
+    public Puzzle generate(int prefill) {
+        long budget = this.timeBudgetMillis * 1_000_000L;
+        long deadline = System.nanoTime() + budget;
+        int[] solution = this.createSolution();
+        int[] board = solution.clone();
+
+        if (prefill <= 0) {
+            Arrays.fill(board, CharacterCodec.EMPTY);
+            return new Puzzle(this.size, board, solution);
+        }
+
+        int minFilledCount = (int) Math.ceil(board.length * prefill / 100.0);
+        int filledCount = board.length;
+        int[] order = this.shuffledIndexes();
+
+        for (int index : order) {
+            long now = System.nanoTime();
+
+            if (filledCount <= minFilledCount || now - deadline > 0) {
+                break;
+            }
+
+            // The solution stays unique, if there is no other solution with another character.
+            // A single check may only use a fraction of the budget, so that one hard check
+            // doesn't prevent all further removals.
+            long checkDeadline = Math.min(deadline, now + budget / CHECK_BUDGET_FRACTION);
+            int code = board[index];
+            board[index] = CharacterCodec.EMPTY;
+
+            if (this.solver.countSolutionsWithout(board, index, code, 1, checkDeadline) == 0) {
+                filledCount -= 1;
+            } else {
+                board[index] = code;
+            }
+        }
+
+        return new Puzzle(this.size, board, solution);
+    }
+
+    /**
+     * Create a random, completely filled board, that follows all rules.
+     *
+     * @return Character codes of the board
+     */
+    private int[] createSolution() {
+        int[] rows = this.shuffledLines();
+        int[] columns = this.shuffledLines();
+        int[] characters = this.shuffledRange(this.size);
+        int[] solution = new int[this.size * this.size];
+
+        for (int xPos = 0; xPos < this.size; xPos++) {
+            for (int yPos = 0; yPos < this.size; yPos++) {
+                int row = rows[xPos];
+                int column = columns[yPos];
+                int pattern = (row % this.sectionSize * this.sectionSize + row / this.sectionSize + column) % this.size;
+
+                solution[xPos * this.size + yPos] = characters[pattern];
+            }
+        }
+
+        return solution;
+    }
+
+    /**
+     * Create a random order of the rows or columns, that keeps the rows or columns of each
+     * section together.
+     *
+     * @return Shuffled line numbers
+     */
+    private int[] shuffledLines() {
+        int[] bands = this.shuffledRange(this.sectionSize);
+        int[] lines = new int[this.size];
+
+        for (int band = 0; band < this.sectionSize; band++) {
+            int[] offsets = this.shuffledRange(this.sectionSize);
+
+            for (int offset = 0; offset < this.sectionSize; offset++) {
+                lines[band * this.sectionSize + offset] = bands[band] * this.sectionSize + offsets[offset];
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * @return All field indexes in random order
+     */
+    private int[] shuffledIndexes() {
+        return this.shuffledRange(this.size * this.size);
+    }
+
+    /**
+     * @param length Amount of numbers
+     * @return Numbers from 0 to length - 1 in random order
+     */
+    private int[] shuffledRange(int length) {
+        int[] numbers = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            numbers[i] = i;
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            int j = this.random.nextInt(i + 1);
+            int swap = numbers[i];
+            numbers[i] = numbers[j];
+            numbers[j] = swap;
+        }
+
+        return numbers;
+    }
+}
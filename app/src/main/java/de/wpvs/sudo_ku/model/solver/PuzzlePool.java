@@ -0,0 +1,274 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+
+/**
+ * Bounded pool of pre-generated puzzles, so that a new game can be started without waiting for
+ * the puzzle generator. The puzzles are kept by board size and percentage of prefilled fields.
+ * The game type doesn't matter, since the puzzles only contain character codes, which can be
+ * mapped to any character set.
+ *
+ * Only a few puzzles are kept for the most recently wanted combinations. Whenever a combination
+ * is wanted (see want()) or a puzzle is taken, the combination becomes the most recent one. If
+ * too many combinations are wanted, the least recently wanted one is dropped with its puzzles.
+ *
+ * This class only manages the puzzles. Generating them in the background and persisting them is
+ * done by the PuzzlePoolThread. All methods are synchronized, since the pool is filled by the
+ * background thread, while the puzzles are taken by the UI thread.
+ */
+public final class PuzzlePool {
+    public static final int MAX_PUZZLES_PER_KEY = 3;
+    public static final int MAX_KEYS = 6;
+
+    private static final int FILE_VERSION = 1;
+
+    private final LinkedHashMap<Key, Deque<PuzzleGenerator.Puzzle>> puzzles = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Combination of board size and prefilled percentage.
+     */
+    public static class Key {
+        public final int size;
+        public final int prefill;
+
+        /**
+         * Constructor.
+         *
+         * @param size Size of the game board
+         * @param prefill Minimum percentage of prefilled fields
+         */
+        public Key(int size, int prefill) {
+            this.size = size;
+            this.prefill = prefill;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key that = (Key) o;
+
+            if (size != that.size) return false;
+            return prefill == that.prefill;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * size + prefill;
+        }
+    }
+
+    /**
+     * Mark the given combination as wanted, so that it will be filled with puzzles. Empty boards
+     * (prefill of zero) are never pooled, since they don't need to be generated.
+     *
+     * @param size Size of the game board
+     * @param prefill Minimum percentage of prefilled fields
+     */
+    public synchronized void want(int size, int prefill) {
+        if (prefill <= 0) {
+            return;
+        }
+
+        Key key = new Key(size, prefill);
+
+        if (this.puzzles.get(key) == null) {
+            this.puzzles.put(key, new ArrayDeque<>());
+        }
+
+        this.evict();
+    }
+
+    /**
+     * Take a puzzle out of the pool. The combination will be wanted afterwards, so that the
+     * pool will be refilled.
+     *
+     * @param size Size of the game board
+     * @param prefill Minimum percentage of prefilled fields
+     * @return Pooled puzzle or null, if none is available
+     */
+    public synchronized PuzzleGenerator.Puzzle take(int size, int prefill) {
+        this.want(size, prefill);
+
+        Deque<PuzzleGenerator.Puzzle> queue = this.puzzles.get(new Key(size, prefill));
+        return queue != null ? queue.pollFirst() : null;
+    }
+
+    /**
+     * Add a newly generated puzzle to the pool, unless the combination is not wanted anymore
+     * or the pool is already full for it.
+     *
+     * @param key Combination, for which the puzzle has been generated
+     * @param puzzle Generated puzzle
+     * @return true, if the puzzle has been added
+     */
+    public synchronized boolean add(Key key, PuzzleGenerator.Puzzle puzzle) {
+        Deque<PuzzleGenerator.Puzzle> queue = this.findQueue(key);
+
+        if (queue == null || queue.size() >= MAX_PUZZLES_PER_KEY) {
+            return false;
+        }
+
+        queue.addLast(puzzle);
+        return true;
+    }
+
+    /**
+     * Find the most recently wanted combination, that still lacks puzzles.
+     *
+     * @return Combination to generate a puzzle for or null, if the pool is full
+     */
+    public synchronized Key findMissing() {
+        Key missing = null;
+
+        for (Map.Entry<Key, Deque<PuzzleGenerator.Puzzle>> entry : this.puzzles.entrySet()) {
+            if (entry.getValue().size() < MAX_PUZZLES_PER_KEY) {
+                missing = entry.getKey();
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * @param size Size of the game board
+     * @param prefill Minimum percentage of prefilled fields
+     * @return Amount of pooled puzzles for the given combination
+     */
+    public synchronized int count(int size, int prefill) {
+        Deque<PuzzleGenerator.Puzzle> queue = this.findQueue(new Key(size, prefill));
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Write all pooled puzzles into the given stream, starting with the least recently wanted
+     * combination, so that the order is restored when reading them back.
+     *
+     * @param out Output stream
+     * @throws IOException Error while writing
+     */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FILE_VERSION);
+        out.writeInt(this.puzzles.size());
+
+        for (Map.Entry<Key, Deque<PuzzleGenerator.Puzzle>> entry : this.puzzles.entrySet()) {
+            out.writeByte(entry.getKey().size);
+            out.writeByte(entry.getKey().prefill);
+            out.writeByte(entry.getValue().size());
+
+            for (PuzzleGenerator.Puzzle puzzle : entry.getValue()) {
+                for (int i = 0; i < puzzle.board.length; i++) {
+                    out.writeByte(puzzle.board[i]);
+                    out.writeByte(puzzle.solution[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read puzzles previously written with writeTo() and add them to the pool. Files written
+     * by other versions are silently ignored. The whole file is checked, before any puzzle is
+     * added, so that a corrupt file leaves the pool unchanged.
+     *
+     * @param in Input stream
+     * @throws IOException Error while reading or corrupt file
+     */
+    public synchronized void readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FILE_VERSION) {
+            return;
+        }
+
+        int keyCount = in.readInt();
+
+        if (keyCount < 0 || keyCount > MAX_KEYS) {
+            throw new IOException("Invalid number of combinations: " + keyCount);
+        }
+
+        LinkedHashMap<Key, List<PuzzleGenerator.Puzzle>> readPuzzles = new LinkedHashMap<>();
+
+        for (int i = 0; i < keyCount; i++) {
+            int size = in.readByte();
+            int prefill = in.readByte();
+            int puzzleCount = in.readByte();
+
+            if (size != 4 && size != 9 && size != 16) {
+                throw new IOException("Invalid board size: " + size);
+            }
+
+            if (prefill < 0 || prefill > 100) {
+                throw new IOException("Invalid prefill: " + prefill);
+            }
+
+            if (puzzleCount < 0 || puzzleCount > MAX_PUZZLES_PER_KEY) {
+                throw new IOException("Invalid number of puzzles: " + puzzleCount);
+            }
+
+            List<PuzzleGenerator.Puzzle> keyPuzzles = new ArrayList<>();
+            readPuzzles.put(new Key(size, prefill), keyPuzzles);
+
+            for (int j = 0; j < puzzleCount; j++) {
+                int[] board = new int[size * size];
+                int[] solution = new int[size * size];
+
+                for (int k = 0; k < board.length; k++) {
+                    board[k] = in.readByte();
+                    solution[k] = in.readByte();
+
+                    if (board[k] < CharacterCodec.EMPTY || board[k] >= size || solution[k] < 0 || solution[k] >= size) {
+                        throw new IOException("Invalid character code in puzzle of size " + size);
+                    }
+                }
+
+                keyPuzzles.add(new PuzzleGenerator.Puzzle(size, board, solution));
+            }
+        }
+
+        for (Map.Entry<Key, List<PuzzleGenerator.Puzzle>> entry : readPuzzles.entrySet()) {
+            this.want(entry.getKey().size, entry.getKey().prefill);
+
+            for (PuzzleGenerator.Puzzle puzzle : entry.getValue()) {
+                this.add(entry.getKey(), puzzle);
+            }
+        }
+    }
+
+    /**
+     * Look up the puzzles of a combination without changing the order of the combinations.
+     *
+     * @param key Combination
+     * @return Queue of puzzles or null
+     */
+    private Deque<PuzzleGenerator.Puzzle> findQueue(Key key) {
+        for (Map.Entry<Key, Deque<PuzzleGenerator.Puzzle>> entry : this.puzzles.entrySet()) {
+            if (entry.getKey().equals(key)) {
+                return entry.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Drop the least recently wanted combinations, if there are too many.
+     */
+    private void evict() {
+        Iterator<Key> iterator = this.puzzles.keySet().iterator();
+
+        while (this.puzzles.size() > MAX_KEYS && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
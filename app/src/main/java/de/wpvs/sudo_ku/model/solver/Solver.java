@@ -0,0 +1,66 @@
+package de.wpvs.sudo_ku.model.solver;
+
+/**
+ * Common interface of the solvers for the Sudoku rules. The board is given as an array of
+ * character codes (see CharacterCodec) indexed by xPos * size + yPos, with CharacterCodec.EMPTY
+ * for empty fields.
+ *
+ * Since a search can take very long for boards with only few characters, each search is bound to
+ * a deadline and can additionally be cancelled from another thread. Solvers are not thread-safe
+ * otherwise, but an instance can be reused for many searches on boards of the same size.
+ */
+public interface Solver {
+    /**
+     * Result of countSolutions(), when the deadline has been reached or the search has been
+     * cancelled.
+     */
+    int TIMEOUT = -1;
+
+    /**
+     * @return Size of the game board
+     */
+    int getSize();
+
+    /**
+     * Count the solutions of the given board, but stop as soon as the given limit is reached.
+     * Use a limit of 2 to check, whether a board has a unique solution.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    int countSolutions(int[] board, int limit, long deadline);
+
+    /**
+     * Count the solutions of the given board, in which the given field doesn't contain the given
+     * character. This is used to check, whether a character can be removed from a board with a
+     * unique solution, without searching the known solution again.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code, that must not be used on the field
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    int countSolutionsWithout(int[] board, int index, int code, int limit, long deadline);
+
+    /**
+     * Search one solution of the given board.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param solution Array, that receives the solution
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return true, if a solution has been found in time
+     */
+    boolean solve(int[] board, int[] solution, long deadline);
+
+    /**
+     * Cancel the currently running search from another thread. The search then ends as if its
+     * deadline has been reached. If no search is running, the next search is cancelled instead,
+     * so that a cancellation arriving just before a search starts is not lost. The searches
+     * after the cancelled one are not affected.
+     */
+    void cancel();
+}
@@ -22,6 +22,16 @@ public class BackgroundThread extends HandlerThread {
         super(name);
     }
 
+    /**
+     * Constructor for threads with a non-default priority.
+     *
+     * @param name Name of the thread
+     * @param priority Thread priority (see android.os.Process)
+     */
+    public BackgroundThread(String name, int priority) {
+        super(name, priority);
+    }
+
     /**
      * Returns the Handler instance that is actually controlling the thread's execution. Use this
      * object to post Runnables to run on the thread or to post Messages to be handled by the
@@ -1,13 +1,30 @@
 package de.wpvs.sudo_ku.thread.database;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import de.wpvs.sudo_ku.metrics.Metrics;
 import de.wpvs.sudo_ku.model.DatabaseHolder;
 import de.wpvs.sudo_ku.model.dictionary.KnownWordDao;
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
 
 /**
- * Background operation to query the known word database for matches during the game play.
+ * Background operation to query the known word database for matches during the game play. Once
+ * the in-memory trie of the known words has been loaded (see PreloadKnownWords), the words are
+ * matched against the trie instead of sending one query per word to the database.
+ *
+ * Until then all words are searched with as few queries as possible: Words, whose length doesn't
+ * match any known word, are skipped right away. The remaining words are searched with one
+ * "IN (...)" query per MAX_QUERY_PARAMETERS words, all inside one read transaction. The number of
+ * queries and the latency of each task are recorded as metrics.
+ *
+ * A task can be cancelled, when a newer search has made it obsolete. Cancelled tasks, that are
+ * still queued on the database thread, are dropped without searching anything. The number of
+ * queued tasks and of the dropped tasks are recorded as metrics, too.
+ *
  * This is running on the database background thread instead of using Room's built-in threading
  * because it is triggered deep inside the game logic, decoupled from the UI. But Room's automatic
  * threading only applies when receiving a LiveData object. This in turn cannot be used in the game
@@ -20,9 +37,20 @@ import de.wpvs.sudo_ku.model.dictionary.KnownWordDao;
  * @param <T> Custom data by the client for each word
  */
 public class MatchKnownWords<T> implements Runnable {
+    /**
+     * Maximum number of bound parameters of a single query. Older versions of SQLite don't allow
+     * more than 999.
+     */
+    public static final int MAX_QUERY_PARAMETERS = 999;
+
+    private static volatile boolean[] knownWordLengths;
+    private static final AtomicInteger queuedTasks = new AtomicInteger();
+
+    private DatabaseHolder database;
     private Map<String, T> searchedWords;
     private Callback callback;
     private KnownWordDao dao;
+    private volatile boolean cancelled;
 
     /**
      * Callback interface used to return the found matches.
@@ -43,7 +71,15 @@ public class MatchKnownWords<T> implements Runnable {
      */
     public MatchKnownWords(Map<String, T> searchedWords) {
         this.searchedWords = searchedWords;
-        this.dao = DatabaseHolder.getInstance().knownWordDao();
+        this.database = DatabaseHolder.getInstance();
+        this.dao = this.database.knownWordDao();
+    }
+
+    /**
+     * Forget the cached lengths of the known words, after the known words have been changed.
+     */
+    public static void invalidateKnownWordLengths() {
+        knownWordLengths = null;
     }
 
     /**
@@ -55,24 +91,122 @@ public class MatchKnownWords<T> implements Runnable {
         this.callback = callback;
     }
 
+    /**
+     * Schedule the task on the database thread.
+     */
+    public void post() {
+        Metrics.get("knownWords.queueDepth").record(queuedTasks.incrementAndGet());
+        DatabaseThread.getInstance().post(this);
+    }
+
+    /**
+     * Cancel the task, e.g. because a newer task has been posted. If the task is still queued, it
+     * will be dropped. Otherwise the client must discard the result itself.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
     /**
      * Execute task.
      */
     @Override
     public void run() {
+        queuedTasks.decrementAndGet();
+
+        if (this.cancelled) {
+            Metrics.get("knownWords.droppedTasks").record(1);
+            return;
+        }
+
         if (this.callback == null) {
             return;
         }
 
         Map<String, T> matchedWords = new HashMap<String, T>();
+        KnownWordTrie knownWordTrie = KnownWordTrie.getInstance();
+        long start = System.nanoTime();
+
+        if (knownWordTrie != null) {
+            for (String word : this.searchedWords.keySet()) {
+                if (knownWordTrie.contains(word)) {
+                    matchedWords.put(word, this.searchedWords.get(word));
+                }
+            }
+
+            Metrics.get("knownWords.trieMatchMicros").recordMicrosSince(start);
+        } else {
+            int queries = this.searchInDatabase(matchedWords);
+
+            Metrics.get("knownWords.queriesPerTask").record(queries);
+            Metrics.get("knownWords.queryMicros").recordMicrosSince(start);
+        }
+
+        this.callback.receiveResult(matchedWords);
+    }
+
+    /**
+     * Search all words with a length of any known word in the database.
+     *
+     * @param matchedWords Map, that receives the matched words
+     * @return Number of executed queries
+     */
+    private int searchInDatabase(Map<String, T> matchedWords) {
+        boolean[] lengths = this.getKnownWordLengths();
+        List<String> words = new ArrayList<>(this.searchedWords.size());
 
         for (String word : this.searchedWords.keySet()) {
-            if (this.dao.searchSynchronously(word) != 0) {
-                matchedWords.put(word, this.searchedWords.get(word));
+            if (word.length() < lengths.length && lengths[word.length()]) {
+                words.add(word);
             }
         }
 
+        if (words.isEmpty()) {
+            return 0;
+        }
 
-        this.callback.receiveResult(matchedWords);
+        return this.database.runInTransaction(() -> {
+            int queries = 0;
+
+            for (int start = 0; start < words.size(); start += MAX_QUERY_PARAMETERS) {
+                List<String> chunk = words.subList(start, Math.min(start + MAX_QUERY_PARAMETERS, words.size()));
+
+                for (String word : this.dao.searchAllSynchronously(chunk)) {
+                    matchedWords.put(word, this.searchedWords.get(word));
+                }
+
+                queries += 1;
+            }
+
+            return queries;
+        });
+    }
+
+    /**
+     * Get the lengths of all known words, querying them only once.
+     *
+     * @return Flags indexed by word length, whether any known word has that length
+     */
+    private boolean[] getKnownWordLengths() {
+        boolean[] lengths = knownWordLengths;
+
+        if (lengths == null) {
+            List<Integer> knownLengths = this.dao.selectWordLengthsSynchronously();
+            int maxLength = 0;
+
+            for (int length : knownLengths) {
+                maxLength = Math.max(maxLength, length);
+            }
+
+            lengths = new boolean[maxLength + 1];
+
+            for (int length : knownLengths) {
+                lengths[length] = true;
+            }
+
+            knownWordLengths = lengths;
+        }
+
+        return lengths;
     }
 }
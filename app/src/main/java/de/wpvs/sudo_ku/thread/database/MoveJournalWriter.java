@@ -0,0 +1,103 @@
+package de.wpvs.sudo_ku.thread.database;
+
+import android.database.SQLException;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.wpvs.sudo_ku.metrics.Metrics;
+import de.wpvs.sudo_ku.model.DatabaseHolder;
+import de.wpvs.sudo_ku.model.game.GameDao;
+import de.wpvs.sudo_ku.model.game.GameState;
+import de.wpvs.sudo_ku.model.game.MoveEntity;
+
+/**
+ * Background operation to append the accepted moves of a running game to the move journal. The
+ * moves are not written one by one. Instead the first move of a batch schedules a commit on the
+ * database thread after COMMIT_DELAY_MILLIS, which writes all moves received until then in a
+ * single insert (group commit). That way a crash loses at most the moves of the last fraction
+ * of a second, while fast sequences of moves are still cheap to save.
+ *
+ * Moves, that have not been committed yet, when a checkpoint is created, can be discarded,
+ * because the checkpoint contains them anyway (see discardPendingMoves()). The number of moves
+ * per commit and the latency of each commit are recorded as metrics.
+ */
+public class MoveJournalWriter implements GameState.MoveListener, Runnable {
+    /**
+     * Delay between the first move of a batch and the commit of the batch.
+     */
+    public static final int COMMIT_DELAY_MILLIS = 500;
+
+    private final List<MoveEntity> pendingMoves = new ArrayList<>();
+    private boolean commitScheduled = false;
+    private GameDao dao;
+
+    /**
+     * Constructor.
+     */
+    public MoveJournalWriter() {
+        this.dao = DatabaseHolder.getInstance().gameDao();
+    }
+
+    /**
+     * Receive an accepted move and schedule a commit, unless one is already scheduled.
+     *
+     * @param move The accepted move
+     */
+    @Override
+    public void onMoveAccepted(MoveEntity move) {
+        synchronized (this.pendingMoves) {
+            this.pendingMoves.add(move);
+
+            if (this.commitScheduled) {
+                return;
+            }
+
+            this.commitScheduled = true;
+        }
+
+        DatabaseThread.getInstance().getHandler().postDelayed(this, COMMIT_DELAY_MILLIS);
+    }
+
+    /**
+     * Forget all moves, that have not been committed yet. This must be called, when a checkpoint
+     * containing these moves is created, or when the game is deleted.
+     */
+    public void discardPendingMoves() {
+        synchronized (this.pendingMoves) {
+            this.pendingMoves.clear();
+        }
+    }
+
+    /**
+     * Commit all pending moves.
+     */
+    @Override
+    public void run() {
+        List<MoveEntity> moves;
+
+        synchronized (this.pendingMoves) {
+            moves = new ArrayList<>(this.pendingMoves);
+            this.pendingMoves.clear();
+            this.commitScheduled = false;
+        }
+
+        if (moves.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.dao.insertMoves(moves);
+        } catch (SQLException ex) {
+            // The game has been deleted meanwhile
+            Log.e("sudo-ku", "SQLException", ex);
+            return;
+        }
+
+        Metrics.get("gameJournal.movesPerCommit").record(moves.size());
+        Metrics.get("gameJournal.commitMicros").recordMicrosSince(start);
+    }
+}
@@ -1,38 +1,57 @@
 package de.wpvs.sudo_ku.thread.database;
 
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.util.Log;
 import android.widget.Toast;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import de.wpvs.sudo_ku.MyApplication;
 import de.wpvs.sudo_ku.R;
+import de.wpvs.sudo_ku.metrics.Metrics;
 import de.wpvs.sudo_ku.model.DatabaseHolder;
 import de.wpvs.sudo_ku.model.dictionary.KnownWordDao;
 import de.wpvs.sudo_ku.model.dictionary.KnownWordEntity;
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
 
 /**
  * Background operation to load the list of known words from the asset file raw/knownwords.txt
- * into the database, in case the database table is empty. This is done manually to prevent having
- * to ship a full-fledged preloaded sqlite database file just for the list of known words.
+ * into the database. This is done manually to prevent having to ship a full-fledged preloaded
+ * sqlite database file just for the list of known words.
  *
- * If the database contains at least one word, this task does nothing. Otherwise all words from
- * the asset file are saved into the table.
+ * To keep the start of a game fast, the asset file is only checked once per installed version
+ * of the app, which is recorded in the shared preferences together with a checksum of the file.
+ * If the checksum differs from the recorded one or the table is empty (e.g. after the database
+ * has been recreated), all words are replaced with one batched insert inside a single
+ * transaction. Afterwards the in-memory trie of the known words is built from the table, unless
+ * it already exists, so that the words on the game board can be matched without database queries.
  *
  * There is no callback here, as it is assumed that this only needs to be done before the very
  * first game is played and will long be finished, when the first word is searched.
  */
 public class PreloadKnownWords implements Runnable {
+    private static final String PREFERENCES_NAME = "known_words";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_CHECKSUM = "checksum";
+    private static final long UNKNOWN_VERSION = 0;
+
+    private DatabaseHolder database;
     private KnownWordDao dao;
 
     /**
      * Constructor.
      */
     public PreloadKnownWords() {
-        this.dao = DatabaseHolder.getInstance().knownWordDao();
+        this.database = DatabaseHolder.getInstance();
+        this.dao = this.database.knownWordDao();
     }
 
     /**
@@ -40,22 +59,84 @@ public class PreloadKnownWords implements Runnable {
      */
     @Override
     public void run() {
-        if (dao.getRowCountSynchronously() > 0) {
-            return;
+        long start = System.nanoTime();
+        Context context = MyApplication.getInstance();
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        long version = this.getAppVersion(context);
+
+        if (version == UNKNOWN_VERSION || preferences.getLong(KEY_VERSION, UNKNOWN_VERSION) != version) {
+            this.checkKnownWords(context, preferences, version);
+            Metrics.get("knownWords.preloadCheckedMicros").recordMicrosSince(start);
+        } else {
+            Metrics.get("knownWords.preloadSkippedMicros").recordMicrosSince(start);
         }
 
-        Context context = MyApplication.getInstance();
-        KnownWordEntity entity = new KnownWordEntity();
+        if (KnownWordTrie.getInstance() == null) {
+            start = System.nanoTime();
+            KnownWordTrie.loadInstance(this.dao);
+            Metrics.get("knownWords.trieLoadMicros").recordMicrosSince(start);
+        }
+    }
+
+    /**
+     * Read the asset file and replace all known words in the database, if the file has been
+     * changed or the table is empty. Then record the version and checksum.
+     *
+     * @param context Application context
+     * @param preferences Shared preferences with the recorded version and checksum
+     * @param version Version of the installed app
+     */
+    private void checkKnownWords(Context context, SharedPreferences preferences, long version) {
+        List<KnownWordEntity> entities = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+
+        try(BufferedReader fromFile = new BufferedReader(new InputStreamReader(new CheckedInputStream(context.getResources().openRawResource(R.raw.knownwords), checksum)))) {
+            String word;
 
-        try(BufferedReader fromFile = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.knownwords)))) {
-            while ((entity.word = fromFile.readLine()) != null) {
-                dao.insert(entity);
+            while ((word = fromFile.readLine()) != null) {
+                KnownWordEntity entity = new KnownWordEntity();
+                entity.word = word;
+                entities.add(entity);
             }
         } catch (IOException ex) {
             String message = context.getString(R.string.task_preloadKnownWords_error, ex.getLocalizedMessage());
             Toast.makeText(context, message, Toast.LENGTH_LONG);
 
             Log.e("sudo-ku", "IOException", ex);
+            return;
+        }
+
+        if (preferences.getLong(KEY_CHECKSUM, 0) != checksum.getValue() || this.dao.getRowCountSynchronously() == 0) {
+            long start = System.nanoTime();
+
+            this.database.runInTransaction(() -> {
+                this.dao.deleteAll();
+                this.dao.insertAll(entities);
+            });
+
+            Metrics.get("knownWords.insertMicros").recordMicrosSince(start);
+            MatchKnownWords.invalidateKnownWordLengths();
+            KnownWordTrie.setInstance(null);
+        }
+
+        preferences.edit()
+                .putLong(KEY_VERSION, version)
+                .putLong(KEY_CHECKSUM, checksum.getValue())
+                .apply();
+    }
+
+    /**
+     * Get the version of the installed app. The time of the last update is used instead of the
+     * version code, since it also changes for development builds.
+     *
+     * @param context Application context
+     * @return Version of the installed app or UNKNOWN_VERSION
+     */
+    private long getAppVersion(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException ex) {
+            return UNKNOWN_VERSION;
         }
     }
 }
@@ -0,0 +1,46 @@
+package de.wpvs.sudo_ku.thread.database;
+
+import de.wpvs.sudo_ku.metrics.Metrics;
+import de.wpvs.sudo_ku.model.DatabaseHolder;
+import de.wpvs.sudo_ku.model.game.GameCheckpoint;
+import de.wpvs.sudo_ku.model.game.GameDao;
+
+/**
+ * Background operation to regularly save a running game. Other than SaveOrDeleteGame this
+ * doesn't rewrite the whole game, but only the game header and, if it has been changed since the
+ * last checkpoint, the encoded board as returned by GameState.createCheckpoint(). The moves folded
+ * into the board are removed from the move journal. The size of the written board, the latency of
+ * each save and the board bytes written per folded move are recorded as metrics.
+ */
+public class SaveGameCheckpoint implements Runnable {
+    private GameCheckpoint checkpoint;
+    private GameDao dao;
+
+    /**
+     * Constructor.
+     *
+     * @param checkpoint Changes of the game since the last checkpoint
+     */
+    public SaveGameCheckpoint(GameCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        this.dao = DatabaseHolder.getInstance().gameDao();
+    }
+
+    /**
+     * Perform task.
+     */
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        this.dao.saveCheckpoint(this.checkpoint);
+
+        Metrics.get("gameSave.boardBytes").record(this.checkpoint.getBoardSize());
+        Metrics.get("gameSave.micros").recordMicrosSince(start);
+
+        if (this.checkpoint.foldedMoves > 0) {
+            // Write amplification of the board: Bytes written per move folded into the board
+            Metrics.get("gameJournal.foldedMoves").record(this.checkpoint.foldedMoves);
+            Metrics.get("gameJournal.boardBytesPerMove").record(this.checkpoint.getBoardSize() / this.checkpoint.foldedMoves);
+        }
+    }
+}
@@ -8,13 +8,11 @@ import de.wpvs.sudo_ku.model.game.GameState;
 
 /**
  * Background operation to perform a database operation on a GameEntity instance. This can either
- * be used to insert a new game into the database, update an existing game or delete a game.
- * The operation is meant to be executed in the database background thread as returned by the
- * DatabaseThread class. It does not run any code outside that thread (e.g. in the UI thread
- * for user notification) but relies completely on callback methods for that.
- *
- * When the database operation is INSERT or UPDATE, the same instance can be rerun multiple times,
- * to continuously keep the game in the database up to date.
+ * be used to insert a new game into the database or delete a game. Running games are saved with
+ * SaveGameCheckpoint instead. The operation is meant to be executed in the database background
+ * thread as returned by the DatabaseThread class. It does not run any code outside that thread
+ * (e.g. in the UI thread for user notification) but relies completely on callback methods for
+ * that.
  */
 public class SaveOrDeleteGame implements Runnable {
     private GameState gameState;
@@ -27,7 +25,7 @@ public class SaveOrDeleteGame implements Runnable {
      * The database operation to perform.
      */
     public enum Operation {
-        INSERT, UPDATE, DELETE;
+        INSERT, DELETE;
     };
 
     /**
@@ -76,7 +74,7 @@ public class SaveOrDeleteGame implements Runnable {
     @Override
     public void run() {
         // Check consistency, in case the game shall be saved
-        if (this.operation == Operation.INSERT || this.operation == Operation.UPDATE) {
+        if (this.operation == Operation.INSERT) {
             Map<GameState.Error, String> errors = this.gameState.checkGameConsistency();
 
             if (!errors.isEmpty()) {
@@ -92,10 +90,6 @@ public class SaveOrDeleteGame implements Runnable {
         switch (this.operation) {
             case INSERT:
                 this.dao.insert(this.gameState);
-                this.operation = Operation.UPDATE;
-                break;
-            case UPDATE:
-                this.dao.update(this.gameState);
                 break;
             case DELETE:
                 this.dao.delete(this.gameState.game.uid);
@@ -0,0 +1,184 @@
+package de.wpvs.sudo_ku.thread.puzzle;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.MyApplication;
+import de.wpvs.sudo_ku.model.solver.ExactCoverSolver;
+import de.wpvs.sudo_ku.model.solver.PuzzleGenerator;
+import de.wpvs.sudo_ku.model.solver.PuzzlePool;
+import de.wpvs.sudo_ku.thread.BackgroundThread;
+import de.wpvs.sudo_ku.thread.BackgroundThreadHolder;
+
+/**
+ * Low priority background thread, that keeps the puzzle pool filled, so that new games can be
+ * started without waiting for the puzzle generator. Clients don't need to post anything to this
+ * thread. They simply call the static methods warm() and takePuzzle(), which schedule the
+ * generation of new puzzles as needed.
+ *
+ * The puzzles are generated one at a time, so that other tasks of the thread (like loading the
+ * persisted pool) are not blocked for long. After each new puzzle the pool is written into the
+ * app's private files directory, so that it survives a restart of the app.
+ */
+public class PuzzlePoolThread extends BackgroundThread {
+    private static final String NAME = "puzzle-pool";
+    private static final String FILE_NAME = "puzzle_pool.bin";
+
+    private static final PuzzlePool puzzlePool = new PuzzlePool();
+
+    private final Random random = new Random();
+    private final Map<Integer, PuzzleGenerator> puzzleGenerators = new HashMap<>();
+    private boolean refillScheduled = false;
+
+    /**
+     * Don't allow direct instantiation of this class from clients. We rather want to use the
+     * global BackgroundTheadManager obejct to maintain a singleton instance.
+     */
+    private PuzzlePoolThread() {
+        super(NAME, Process.THREAD_PRIORITY_LOWEST);
+    }
+
+    /**
+     * Get the singleton instance of this thread. Creates and starts the thread if necessary.
+     * When the thread is started, the persisted puzzles are loaded first.
+     *
+     * @return background thread for puzzle generation
+     */
+    public static BackgroundThread getInstance() {
+        BackgroundThreadHolder backgroundThreadHolder = BackgroundThreadHolder.getInstance();
+        BackgroundThread instance = backgroundThreadHolder.getThread(NAME);
+
+        if (instance == null) {
+            PuzzlePoolThread puzzlePoolThread = new PuzzlePoolThread();
+            backgroundThreadHolder.addThread(puzzlePoolThread);
+            puzzlePoolThread.post(puzzlePoolThread::loadPuzzles);
+
+            instance = puzzlePoolThread;
+        }
+
+        return instance;
+    }
+
+    /**
+     * Speculatively generate puzzles for the given combination, e.g. while the player is
+     * configuring a new game.
+     *
+     * @param size Size of the game board
+     * @param prefill Minimum percentage of prefilled fields
+     */
+    public static void warm(int size, int prefill) {
+        puzzlePool.want(size, prefill);
+        scheduleRefill();
+    }
+
+    /**
+     * Take a pre-generated puzzle out of the pool and schedule the generation of a replacement.
+     *
+     * @param size Size of the game board
+     * @param prefill Minimum percentage of prefilled fields
+     * @return Pre-generated puzzle or null, if none is available
+     */
+    public static PuzzleGenerator.Puzzle takePuzzle(int size, int prefill) {
+        PuzzleGenerator.Puzzle puzzle = puzzlePool.take(size, prefill);
+        scheduleRefill();
+        return puzzle;
+    }
+
+    /**
+     * Make sure that the thread is generating puzzles, if any are missing.
+     */
+    private static void scheduleRefill() {
+        PuzzlePoolThread puzzlePoolThread = (PuzzlePoolThread) getInstance();
+
+        puzzlePoolThread.post(() -> {
+            if (!puzzlePoolThread.refillScheduled) {
+                puzzlePoolThread.refillScheduled = true;
+                puzzlePoolThread.post(puzzlePoolThread::refill);
+            }
+        });
+    }
+
+    /**
+     * Generate one missing puzzle and schedule the next one, until the pool is full.
+     */
+    private void refill() {
+        PuzzlePool.Key key = puzzlePool.findMissing();
+
+        if (key == null) {
+            this.refillScheduled = false;
+            return;
+        }
+
+        PuzzleGenerator puzzleGenerator = this.puzzleGenerators.get(key.size);
+
+        // A plain ExactCoverSolver keeps the checks on this low priority thread, instead of
+        // the shared pool of the ParallelSolver
+        if (puzzleGenerator == null) {
+            puzzleGenerator = new PuzzleGenerator(key.size, this.random, new ExactCoverSolver(key.size));
+            this.puzzleGenerators.put(key.size, puzzleGenerator);
+        }
+
+        if (puzzlePool.add(key, puzzleGenerator.generate(key.prefill))) {
+            this.savePuzzles();
+        }
+
+        this.post(this::refill);
+    }
+
+    /**
+     * Load the persisted puzzles, if any. A file that cannot be read is deleted, so that the
+     * pool starts empty and is written anew with the next generated puzzle.
+     */
+    private void loadPuzzles() {
+        File file = new File(MyApplication.getInstance().getFilesDir(), FILE_NAME);
+
+        if (!file.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            puzzlePool.readFrom(in);
+        } catch (IOException | RuntimeException ex) {
+            Log.e("sudo-ku", "Cannot read " + file.getPath(), ex);
+
+            if (!file.delete()) {
+                Log.e("sudo-ku", "Cannot delete " + file.getPath());
+            }
+        }
+
+        scheduleRefill();
+    }
+
+    /**
+     * Persist the pooled puzzles. The file is replaced atomically, so that a crash while
+     * writing doesn't leave a broken file behind.
+     */
+    private void savePuzzles() {
+        File directory = MyApplication.getInstance().getFilesDir();
+        File file = new File(directory, FILE_NAME);
+        File tempFile = new File(directory, FILE_NAME + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            puzzlePool.writeTo(out);
+        } catch (IOException ex) {
+            Log.e("sudo-ku", "IOException", ex);
+            return;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            Log.e("sudo-ku", "Cannot replace " + file.getPath());
+        }
+    }
+}
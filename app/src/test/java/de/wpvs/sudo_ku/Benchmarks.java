@@ -0,0 +1,45 @@
+package de.wpvs.sudo_ku;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Helper methods for the benchmarks of the local unit tests. The benchmarks only print their
+ * measurements, so they are skipped in the normal test run. They are enabled with the system
+ * property sudo_ku.benchmarks, which is set by running "gradlew test -Pbenchmarks".
+ */
+public final class Benchmarks {
+    public static final String PROPERTY = "sudo_ku.benchmarks";
+
+    /**
+     * Static helper class.
+     */
+    private Benchmarks() {
+    }
+
+    /**
+     * Skip the calling benchmark, unless the benchmarks have been enabled. Should be called in
+     * a method annotated with @Before.
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks are disabled, see " + PROPERTY, Boolean.getBoolean(PROPERTY));
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread so far. The benchmark is skipped,
+     * if the JVM can't measure this.
+     *
+     * @return Allocated bytes of the current thread
+     */
+    public static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Allocations can't be measured", threadMXBean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue("Allocations can't be measured", allocationMXBean.isThreadAllocatedMemorySupported());
+
+        return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,58 @@
+package de.wpvs.sudo_ku.model.dictionary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.Benchmarks;
+
+/**
+ * Lookup benchmark for the in-memory trie of known words. Only run, when the benchmarks are
+ * enabled (see Benchmarks).
+ */
+public class KnownWordTrieBenchmark {
+    /**
+     * Skip the benchmarks in the normal test run.
+     */
+    @Before
+    public void assumeEnabled() {
+        Benchmarks.assumeEnabled();
+    }
+
+    /**
+     * Measure the lookup time of all substrings of random 16x16 board rows. The comparison with
+     * the SQL lookup needs a device, see KnownWordLookupBenchmark in the instrumented tests.
+     */
+    @Test
+    public void benchmark_lookup() throws IOException {
+        List<String> knownWords = KnownWordTrieTest.readKnownWords();
+
+        long start = System.nanoTime();
+        KnownWordTrie trie = KnownWordTrie.build(knownWords);
+        long buildNanos = System.nanoTime() - start;
+
+        String[] candidates = KnownWordTrieTest.randomCandidates(new Random(6), 100_000);
+        int matches = 0;
+
+        for (int round = 0; round < 2; round++) {
+            matches = 0;
+            start = System.nanoTime();
+
+            for (String candidate : candidates) {
+                if (trie.contains(candidate)) {
+                    matches += 1;
+                }
+            }
+        }
+
+        long lookupNanos = System.nanoTime() - start;
+
+        System.out.printf("Trie with %d words and %d nodes built in %.1f ms%n",
+                trie.getWordCount(), trie.getNodeCount(), buildNanos / 1e6);
+        System.out.printf("%d lookups with %d matches: %.3f µs per lookup%n",
+                candidates.length, matches, lookupNanos / 1e3 / candidates.length);
+    }
+}
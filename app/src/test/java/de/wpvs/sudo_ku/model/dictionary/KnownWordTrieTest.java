@@ -0,0 +1,105 @@
+package de.wpvs.sudo_ku.model.dictionary;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the in-memory trie of known words.
+ */
+public class KnownWordTrieTest {
+    private static final String KNOWN_WORDS_FILE = "src/main/res/raw/knownwords.txt";
+
+    /**
+     * The trie must find exactly the known words and their prefixes.
+     */
+    @Test
+    public void contains_findsExactlyTheKnownWords() {
+        KnownWordTrie trie = KnownWordTrie.build(Arrays.asList("ab", "abc", "abd", "b", "", "ab"));
+
+        assertEquals(4, trie.getWordCount());
+        assertEquals(3, trie.getMaxWordLength());
+
+        assertTrue(trie.contains("ab"));
+        assertTrue(trie.contains("abc"));
+        assertTrue(trie.contains("b"));
+        assertFalse(trie.contains("a"));
+        assertFalse(trie.contains("abcd"));
+        assertFalse(trie.contains("c"));
+        assertFalse(trie.contains(""));
+
+        assertTrue(trie.containsPrefix("a"));
+        assertTrue(trie.containsPrefix("abd"));
+        assertFalse(trie.containsPrefix("ac"));
+
+        int node = trie.getChild(trie.getRoot(), 'a');
+        assertFalse(trie.isWord(node));
+        assertTrue(trie.hasChildren(node));
+
+        node = trie.getChild(node, "bd");
+        assertTrue(trie.isWord(node));
+        assertFalse(trie.hasChildren(node));
+        assertEquals(KnownWordTrie.NO_NODE, trie.getChild(node, 'x'));
+    }
+
+    /**
+     * The trie built from the shipped word list must agree with a plain hash set.
+     */
+    @Test
+    public void contains_matchesWordList() throws IOException {
+        List<String> knownWords = readKnownWords();
+        Set<String> knownWordSet = new HashSet<>(knownWords);
+        KnownWordTrie trie = KnownWordTrie.build(knownWords);
+
+        assertEquals(knownWordSet.size(), trie.getWordCount());
+
+        for (String word : knownWords) {
+            assertTrue(word, trie.contains(word));
+        }
+
+        for (String candidate : randomCandidates(new Random(5), 10_000)) {
+            assertEquals(candidate, knownWordSet.contains(candidate), trie.contains(candidate));
+        }
+    }
+
+    /**
+     * @return All words of the shipped word list
+     * @throws IOException Error while reading the file
+     */
+    static List<String> readKnownWords() throws IOException {
+        return Files.readAllLines(Paths.get(KNOWN_WORDS_FILE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create substrings like those found on a letter game board.
+     *
+     * @param random Source of randomness
+     * @param count Number of candidates
+     * @return Random candidates with 1 to 16 letters
+     */
+    static String[] randomCandidates(Random random, int count) {
+        String[] candidates = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            char[] characters = new char[1 + random.nextInt(16)];
+
+            for (int j = 0; j < characters.length; j++) {
+                characters[j] = (char) ('a' + random.nextInt(16));
+            }
+
+            candidates[i] = new String(characters);
+        }
+
+        return candidates;
+    }
+}
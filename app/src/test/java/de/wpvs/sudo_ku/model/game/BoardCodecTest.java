@@ -0,0 +1,75 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary format of the game board.
+ */
+public class BoardCodecTest {
+    /**
+     * All characters, pencil marks, locked flags and words must survive a round trip.
+     */
+    @Test
+    public void encodeDecode_roundTrip() {
+        GameState gameState = GameTestFixtures.createGameState(4);
+        gameState.game.uid = 42;
+
+        CharacterFieldEntity characterField = gameState.characterFields.get(5);
+        characterField.character = "3";
+        characterField.locked = true;
+
+        characterField = gameState.characterFields.get(10);
+        characterField.pencil.addAll(Arrays.asList("1", "4"));
+
+        WordEntity wordEntity = new WordEntity();
+        wordEntity.wordNumber = 7;
+        wordEntity.word = "34";
+        gameState.words.add(wordEntity);
+        gameState.characterFields.get(5).words.add(7);
+        gameState.characterFields.get(6).words.add(7);
+        gameState.characterFields.get(6).character = "4";
+
+        gameState.game.board = BoardCodec.encode(gameState.game, gameState.characterFields, gameState.words);
+        GameState decodedGameState = BoardCodec.decode(new GameEntity(gameState.game));
+
+        assertEquals(gameState.characterFields.size(), decodedGameState.characterFields.size());
+        assertNull(decodedGameState.game.board);
+
+        for (CharacterFieldEntity expected : gameState.characterFields) {
+            CharacterFieldEntity actual = decodedGameState.characterFields.get(expected.xPos * 4 + expected.yPos);
+
+            assertEquals(expected.xPos, actual.xPos);
+            assertEquals(expected.yPos, actual.yPos);
+            assertEquals(42, actual.gameUid);
+            assertEquals(expected.character, actual.character);
+            assertEquals(expected.pencil, actual.pencil);
+            assertEquals(expected.locked, actual.locked);
+            assertEquals(expected.words, actual.words);
+        }
+
+        assertEquals(1, decodedGameState.words.size());
+        assertEquals(7, decodedGameState.words.get(0).wordNumber);
+        assertEquals("34", decodedGameState.words.get(0).word);
+    }
+
+    /**
+     * A game without a board (e.g. a new game) must be decoded into an empty board.
+     */
+    @Test
+    public void decode_emptyBoardWithoutData() {
+        GameState gameState = GameTestFixtures.createGameState(4);
+        GameState decodedGameState = BoardCodec.decode(gameState.game);
+
+        assertEquals(16, decodedGameState.characterFields.size());
+        assertTrue(decodedGameState.words.isEmpty());
+
+        for (CharacterFieldEntity characterField : decodedGameState.characterFields) {
+            assertEquals("", characterField.character);
+            assertTrue(characterField.words.isEmpty());
+        }
+    }
+}
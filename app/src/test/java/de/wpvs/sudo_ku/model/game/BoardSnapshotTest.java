@@ -0,0 +1,62 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the snapshots of the game board, which are encoded after the move.
+ */
+public class BoardSnapshotTest {
+    /**
+     * A snapshot of the board must encode exactly like the character fields and words at the
+     * time of the snapshot, no matter how the game goes on before it is encoded.
+     */
+    @Test
+    public void encode_unaffectedByLaterMoves() {
+        KnownWordTrie.setInstance(KnownWordTrie.build(KNOWN_WORDS));
+
+        try {
+            GameState gameState = createLetterGameState();
+            GameLogic gameLogic = new GameLogic(gameState);
+            Random random = new Random(5);
+            List<BoardSnapshot> snapshots = new ArrayList<>();
+            List<byte[]> expected = new ArrayList<>();
+
+            for (int round = 0; round < 10; round++) {
+                playLetterGame(gameState, gameLogic, random, 20);
+
+                snapshots.add(gameLogic.createSnapshot());
+                expected.add(BoardCodec.encode(gameState.game, gameState.characterFields, new ArrayList<>(gameState.words)));
+            }
+
+            for (int i = 0; i < snapshots.size(); i++) {
+                GameState expectedGameState = BoardCodec.decode(copyWithBoard(gameState.game, expected.get(i)));
+                GameState snapshotGameState = BoardCodec.decode(copyWithBoard(gameState.game, BoardCodec.encode(gameState.game, snapshots.get(i))));
+
+                assertEquals(describeCharacters(expectedGameState), describeCharacters(snapshotGameState));
+                assertEquals(describeWords(expectedGameState), describeWords(snapshotGameState));
+            }
+        } finally {
+            KnownWordTrie.setInstance(null);
+        }
+    }
+
+    /**
+     * @param game Game header
+     * @param board Encoded board
+     * @return Copy of the game header with the given board
+     */
+    private static GameEntity copyWithBoard(GameEntity game, byte[] board) {
+        GameEntity copy = new GameEntity(game);
+        copy.board = board;
+        return copy;
+    }
+}
@@ -0,0 +1,43 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the change sets reported by the game logic.
+ */
+public class ChangeSetTest {
+    /**
+     * Change sets of several moves merged into one change set must contain each field once, with
+     * all changes of the field combined. After clearing, the change set must be reusable.
+     */
+    @Test
+    public void addAll_mergesAcrossMoves() {
+        GameState gameState = createGameState(4);
+        GameLogic gameLogic = new GameLogic(gameState);
+        ChangeSet merged = new ChangeSet(4);
+        gameLogic.addChangeListener(merged::addAll);
+
+        gameLogic.changeCharacter(0, 0, GameState.FLAG_NONE, 0, true);
+        gameLogic.changeCharacter(1, 2, GameState.FLAG_PENCIL, 1, true);
+        gameLogic.changeCharacter(0, 0, GameState.FLAG_LOCKED, 3, true);
+
+        assertEquals(2, merged.count());
+        assertEquals(0, merged.getIndex(0));
+        assertEquals(ChangeSet.CHANGED_CHARACTER | ChangeSet.CHANGED_LOCKED, merged.getChanges(0));
+        assertEquals(ChangeSet.CHANGED_PENCIL, merged.getChanges(1 * 4 + 2));
+        assertTrue(merged.hasChanges(ChangeSet.CHANGED_LOCKED | ChangeSet.CHANGED_WORDS));
+        assertFalse(merged.hasChanges(ChangeSet.CHANGED_WORDS));
+
+        merged.clear();
+        assertTrue(merged.isEmpty());
+        assertFalse(merged.contains(0, 0));
+        assertFalse(merged.hasChanges(ChangeSet.CHANGED_CHARACTER));
+
+        gameLogic.changeCharacter(3, 3, GameState.FLAG_NONE, 2, true);
+        assertEquals(1, merged.count());
+        assertEquals(3 * 4 + 3, merged.getIndex(0));
+    }
+}
@@ -0,0 +1,45 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the character codes of the game board.
+ */
+public class CharacterCodecTest {
+    /**
+     * The character codes must follow the sorted character set, regardless of the order in
+     * which the characters are stored, and the packed board must mirror the character fields.
+     */
+    @Test
+    public void encode_usesSortedCodes() {
+        GameState gameState = createGameState(16);
+        Collections.shuffle(gameState.game.characterSet, new Random(42));
+
+        GameLogic gameLogic = new GameLogic(gameState);
+        CharacterCodec codec = gameLogic.getCodec();
+
+        for (int code = 0; code < 16; code++) {
+            assertEquals(Integer.toString(code + 1), codec.decode(code));
+            assertEquals(code, codec.encode(Integer.toString(code + 1)));
+        }
+
+        assertEquals(CharacterCodec.EMPTY, codec.encode(""));
+        assertEquals("", codec.decode(CharacterCodec.EMPTY));
+
+        gameLogic.changeCharacter(3, 5, GameState.FLAG_NONE, "12", true);
+        gameLogic.changeCharacter(3, 6, GameState.FLAG_PENCIL, "16", true);
+        gameLogic.changeCharacter(3, 6, GameState.FLAG_PENCIL, "10", true);
+
+        assertEquals(11, gameLogic.getBoard().getCharacter(3, 5));
+        assertEquals("12", gameLogic.getCharacterField(3, 5).character);
+        assertEquals((1 << 15) | (1 << 9), gameLogic.getBoard().getPencil(3, 6));
+        assertEquals(Arrays.asList("16", "10"), gameLogic.getCharacterField(3, 6).pencil);
+    }
+}
@@ -0,0 +1,116 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import de.wpvs.sudo_ku.Benchmarks;
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
+
+import static org.junit.Assert.*;
+
+/**
+ * Allocation benchmarks for the game logic. Only run, when the benchmarks are enabled (see
+ * Benchmarks).
+ */
+public class GameLogicBenchmark {
+    /**
+     * Skip the benchmarks in the normal test run.
+     */
+    @Before
+    public void assumeEnabled() {
+        Benchmarks.assumeEnabled();
+    }
+
+    /**
+     * Benchmark for the time and allocations on the UI thread per save, comparing encoding the
+     * board right away with taking a snapshot of the board, which is encoded by the database
+     * thread (see GameCheckpoint).
+     */
+    @Test
+    public void benchmark_checkpointAllocations() {
+        int saves = 2000;
+
+        KnownWordTrie.setInstance(KnownWordTrie.build(GameTestFixtures.KNOWN_WORDS));
+
+        try {
+            GameState gameState = GameTestFixtures.createLetterGameState();
+            GameLogic gameLogic = new GameLogic(gameState);
+            GameTestFixtures.playLetterGame(gameState, gameLogic, new Random(9), 300);
+            long checksum = 0;
+
+            // Warm up
+            for (int i = 0; i < saves; i++) {
+                checksum += BoardCodec.encode(gameState.game, gameState.characterFields, gameState.words).length;
+                checksum += gameLogic.createSnapshot().getSize();
+            }
+
+            long before = Benchmarks.getAllocatedBytes();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < saves; i++) {
+                checksum += BoardCodec.encode(gameState.game, gameState.characterFields, gameState.words).length;
+            }
+
+            long encodedNanos = System.nanoTime() - start;
+            long encoded = Benchmarks.getAllocatedBytes() - before;
+            before = Benchmarks.getAllocatedBytes();
+            start = System.nanoTime();
+
+            for (int i = 0; i < saves; i++) {
+                checksum += gameLogic.createSnapshot().getSize();
+            }
+
+            long snapshotNanos = System.nanoTime() - start;
+            long snapshot = Benchmarks.getAllocatedBytes() - before;
+
+            System.out.printf("Checkpoint: %d bytes / %d ns when encoded, %d bytes / %d ns with snapshot (checksum %d)%n",
+                encoded / saves, encodedNanos / saves, snapshot / saves, snapshotNanos / saves, checksum);
+
+            assertTrue(snapshot < encoded);
+        } finally {
+            KnownWordTrie.setInstance(null);
+        }
+    }
+
+    /**
+     * Benchmark for the allocations caused by selecting a field on the game board, comparing the
+     * shared peer tables with calculating the coordinates on each selection.
+     */
+    @Test
+    public void benchmark_fieldSelectionAllocations() {
+        int selections = 10000;
+
+        for (int size : new int[] {9, 16}) {
+            GameLogic gameLogic = new GameLogic(GameTestFixtures.createGameState(size));
+            long checksum = 0;
+
+            // Warm up
+            for (int i = 0; i < selections; i++) {
+                checksum += GameTestFixtures.calculateCoordinates(size, i % size, (i / size) % size).size();
+                checksum += gameLogic.getFieldsWithoutDuplicates(i % size, (i / size) % size).size();
+            }
+
+            long before = Benchmarks.getAllocatedBytes();
+
+            for (int i = 0; i < selections; i++) {
+                checksum += GameTestFixtures.calculateCoordinates(size, i % size, (i / size) % size).size();
+            }
+
+            long calculated = Benchmarks.getAllocatedBytes() - before;
+            before = Benchmarks.getAllocatedBytes();
+
+            for (int i = 0; i < selections; i++) {
+                checksum += gameLogic.getFieldsWithoutDuplicates(i % size, (i / size) % size).size();
+            }
+
+            long shared = Benchmarks.getAllocatedBytes() - before;
+
+            System.out.printf("%dx%d field selection: %d bytes allocated before, %d bytes with peer tables (checksum %d)%n",
+                size, size, calculated / selections, shared / selections, checksum);
+
+            assertTrue(shared < calculated);
+        }
+    }
+}
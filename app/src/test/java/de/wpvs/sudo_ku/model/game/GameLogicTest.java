@@ -0,0 +1,253 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the game logic, which run without any Android dependencies on the development
+ * machine.
+ */
+public class GameLogicTest {
+    /**
+     * Both implementations of the no duplicates rule must give exactly the same answers for
+     * every field, character and flag combination, while the board is randomly filled and
+     * partially erased again.
+     */
+    @Test
+    public void candidateEngines_produceSameAnswers() {
+        Random random = new Random(4711);
+
+        for (int size : new int[] {4, 9, 16}) {
+            GameState gameState = createGameState(size);
+            GameLogic scan = new GameLogic(gameState, GameLogic.CandidateEngine.PEER_SCAN);
+            GameLogic bitmask = new GameLogic(gameState, GameLogic.CandidateEngine.BITMASK);
+
+            for (int move = 0; move < size * size; move++) {
+                int xPos = random.nextInt(size);
+                int yPos = random.nextInt(size);
+                String character = gameState.game.characterSet.get(random.nextInt(size));
+                boolean set = random.nextInt(4) != 0;
+
+                assertSameAnswers(gameState, scan, bitmask);
+
+                if (scan.isCharacterAllowed(xPos, yPos, GameState.FLAG_NONE, character, set)) {
+                    scan.changeCharacter(xPos, yPos, GameState.FLAG_NONE, character, set);
+                    bitmask.changeCharacter(xPos, yPos, GameState.FLAG_NONE, character, set);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare both game logic instances for all fields and characters.
+     */
+    private static void assertSameAnswers(GameState gameState, GameLogic scan, GameLogic bitmask) {
+        int size = gameState.game.size;
+        int[] allFlags = {GameState.FLAG_NONE, GameState.FLAG_PENCIL};
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                for (int flags : allFlags) {
+                    List<String> expected = scan.getAllowedCharacters(xPos, yPos, flags);
+                    assertEquals(expected, bitmask.getAllowedCharacters(xPos, yPos, flags));
+
+                    for (String character : gameState.game.characterSet) {
+                        for (boolean set : new boolean[] {true, false}) {
+                            assertEquals(
+                                scan.isCharacterAllowed(xPos, yPos, flags, character, set),
+                                bitmask.isCharacterAllowed(xPos, yPos, flags, character, set)
+                            );
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The bulk queries for the allowed characters must agree with checking each character
+     * separately, for a single field as well as for the whole board.
+     */
+    @Test
+    public void allowedCharacterMasks_matchSingleChecks() {
+        Random random = new Random(1337);
+
+        for (int size : new int[] {4, 9, 16}) {
+            GameState gameState = createGameState(size);
+            GameLogic gameLogic = new GameLogic(gameState);
+            CharacterCodec codec = gameLogic.getCodec();
+
+            for (int move = 0; move < size * size / 2; move++) {
+                int xPos = random.nextInt(size);
+                int yPos = random.nextInt(size);
+                int code = random.nextInt(size);
+
+                gameState.setCharacter(xPos, yPos, GameState.FLAG_NONE, code, true);
+            }
+
+            for (int flags : new int[] {GameState.FLAG_NONE, GameState.FLAG_PENCIL}) {
+                int[] masks = gameLogic.getAllowedCharacterMasks(flags);
+
+                for (int xPos = 0; xPos < size; xPos++) {
+                    for (int yPos = 0; yPos < size; yPos++) {
+                        int expected = 0;
+
+                        for (int code = 0; code < codec.size(); code++) {
+                            if (gameLogic.isCharacterAllowed(xPos, yPos, flags, code, true)) {
+                                expected |= 1 << code;
+                            }
+                        }
+
+                        assertEquals(expected, gameLogic.getAllowedCharacterMask(xPos, yPos, flags));
+                        assertEquals(expected, masks[PeerTable.forSize(size).getIndex(xPos, yPos)]);
+                    }
+                }
+            }
+
+            assertEquals(0, gameLogic.getAllowedCharacterMask(-1, -1, GameState.FLAG_NONE));
+        }
+    }
+
+    /**
+     * The incrementally tracked amount of filled fields and duplicates must always match a full
+     * scan of the board, even when duplicates are forced onto the board, and the game must only
+     * be solved once the last field has been filled with a valid character.
+     */
+    @Test
+    public void progressTracking_matchesFullScan() {
+        Random random = new Random(815);
+        int size = 9;
+        GameState gameState = createGameState(size);
+        GameLogic gameLogic = new GameLogic(gameState);
+
+        for (int move = 0; move < size * size * 4; move++) {
+            int xPos = random.nextInt(size);
+            int yPos = random.nextInt(size);
+            String character = gameState.game.characterSet.get(random.nextInt(size));
+            boolean set = random.nextInt(4) != 0;
+
+            gameLogic.changeCharacter(xPos, yPos, GameState.FLAG_NONE, character, set);
+
+            int filled = 0;
+
+            for (CharacterFieldEntity characterField : gameState.characterFields) {
+                if (!characterField.character.isEmpty()) {
+                    filled += 1;
+                }
+            }
+
+            assertEquals(filled, gameLogic.getBoard().getFilledCount());
+            assertEquals(countConflicts(gameLogic.getBoard()), gameLogic.getBoard().getConflictCount());
+            assertEquals(Math.round((float) filled / (float) (size * size) * 100), gameState.game.progress);
+        }
+
+        // Fill a valid solution, leaving out the last field
+        gameState = createGameState(size);
+        gameLogic = new GameLogic(gameState);
+        int sectionSize = 3;
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                if (xPos == size - 1 && yPos == size - 1) continue;
+
+                int code = (xPos * sectionSize + xPos / sectionSize + yPos) % size;
+                gameLogic.changeCharacter(xPos, yPos, GameState.FLAG_NONE, code, true);
+                assertFalse(gameLogic.isSolved());
+            }
+        }
+
+        int lastCode = ((size - 1) * sectionSize + (size - 1) / sectionSize + size - 1) % size;
+        int wrongCode = (lastCode + 1) % size;
+
+        gameLogic.changeCharacter(size - 1, size - 1, GameState.FLAG_NONE, wrongCode, true);
+        assertFalse(gameLogic.isSolved());
+
+        gameLogic.changeCharacter(size - 1, size - 1, GameState.FLAG_NONE, lastCode, true);
+        assertTrue(gameLogic.isSolved());
+        assertEquals(100, gameState.game.progress);
+
+        gameLogic.changeCharacter(0, 0, GameState.FLAG_NONE, CharacterCodec.EMPTY, false);
+        assertFalse(gameLogic.isSolved());
+    }
+
+    /**
+     * Count the duplicates on the board the slow way.
+     *
+     * @param board Packed game board
+     * @return Amount of duplicate characters per row, column and section
+     */
+    private static int countConflicts(PackedBoard board) {
+        int size = board.getSize();
+        int sectionSize = (int) Math.sqrt(size);
+        int conflicts = 0;
+
+        for (int unit = 0; unit < size; unit++) {
+            int[] xCounts = new int[size];
+            int[] yCounts = new int[size];
+            int[] sectionCounts = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                int sectionX = (unit / sectionSize) * sectionSize + i / sectionSize;
+                int sectionY = (unit % sectionSize) * sectionSize + i % sectionSize;
+
+                int[] codes = {board.getCharacter(unit, i), board.getCharacter(i, unit), board.getCharacter(sectionX, sectionY)};
+                int[][] counts = {xCounts, yCounts, sectionCounts};
+
+                for (int j = 0; j < 3; j++) {
+                    if (codes[j] >= 0 && counts[j][codes[j]]++ > 0) {
+                        conflicts += 1;
+                    }
+                }
+            }
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * Moves inside a batch must be visible on the board right away, while the rules and change
+     * listeners only run once when the batch is committed.
+     */
+    @Test
+    public void batch_defersRulesUntilCommit() {
+        GameState gameState = createGameState(4);
+        GameLogic gameLogic = new GameLogic(gameState);
+        List<ChangeSet> changeSets = new ArrayList<>();
+        gameLogic.addChangeListener(changeSets::add);
+
+        gameLogic.beginBatch();
+        gameLogic.changeCharacter(0, 0, GameState.FLAG_NONE, 0, true);
+        gameLogic.changeCharacter(1, 2, GameState.FLAG_LOCKED, 1, true);
+        gameLogic.changeCharacter(3, 3, GameState.FLAG_PENCIL, 2, true);
+        gameLogic.changeCharacter(0, 0, GameState.FLAG_NONE, 3, true);
+
+        assertEquals(3, gameLogic.getBoard().getCharacter(0, 0));
+        assertFalse(gameLogic.isCharacterAllowed(0, 1, GameState.FLAG_NONE, 3, true));
+        assertEquals(0, gameState.game.progress);
+        assertTrue(changeSets.isEmpty());
+
+        ChangeSet changeSet = gameLogic.commitBatch();
+
+        assertFalse(gameLogic.isBatchActive());
+        assertEquals(1, changeSets.size());
+        assertSame(changeSet, changeSets.get(0));
+        assertEquals(3, changeSet.count());
+        assertEquals(ChangeSet.CHANGED_CHARACTER, changeSet.getChanges(0));
+        assertEquals(ChangeSet.CHANGED_CHARACTER | ChangeSet.CHANGED_LOCKED, changeSet.getChanges(1 * 4 + 2));
+        assertEquals(ChangeSet.CHANGED_PENCIL, changeSet.getChanges(3 * 4 + 3));
+        assertFalse(changeSet.contains(2, 2));
+        assertEquals(Math.round(2 / 16.0f * 100), gameState.game.progress);
+
+        // A single move outside of a batch is committed right away
+        gameLogic.changeCharacter(2, 2, GameState.FLAG_NONE, 2, true);
+        assertEquals(2, changeSets.size());
+        assertTrue(changeSets.get(1).contains(2, 2));
+        assertEquals(Math.round(3 / 16.0f * 100), gameState.game.progress);
+    }
+}
@@ -0,0 +1,96 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for saving a game state: Checkpoints of the board and the journal of the moves
+ * after the last checkpoint.
+ */
+public class GameStateTest {
+    /**
+     * Checkpoints must only contain the encoded board, when the board has been changed, and
+     * decoding the board of each checkpoint must result in the same game again.
+     */
+    @Test
+    public void checkpoint_containsBoardOnlyWhenChanged() {
+        KnownWordTrie.setInstance(KnownWordTrie.build(KNOWN_WORDS));
+
+        try {
+            GameState gameState = createLetterGameState();
+            GameLogic gameLogic = gameState.getGameLogic();
+            Random random = new Random(3);
+
+            assertFalse(gameState.createCheckpoint().isBoardChanged());
+
+            for (int round = 0; round < 20; round++) {
+                playLetterGame(gameState, gameLogic, random, 15);
+
+                GameCheckpoint checkpoint = gameState.createCheckpoint();
+                assertTrue(checkpoint.isBoardChanged());
+
+                // Encode like GameDao.saveCheckpoint() does and load like GameDao.selectSingleGameState() does
+                checkpoint.encodeBoard();
+                GameState savedGameState = BoardCodec.decode(checkpoint.game);
+                new GameLogic(savedGameState);
+
+                assertEquals(describeWords(gameState), describeWords(savedGameState));
+                assertEquals(describeCharacters(gameState), describeCharacters(savedGameState));
+                assertWordNumbersConsistent(savedGameState);
+            }
+
+            assertFalse(gameState.createCheckpoint().isBoardChanged());
+        } finally {
+            KnownWordTrie.setInstance(null);
+        }
+    }
+
+    /**
+     * Restoring the board of a checkpoint and replaying the journaled moves after it must result
+     * in the same game again. Moves before the checkpoint must be skipped, even if they are still
+     * in the journal.
+     */
+    @Test
+    public void moveJournal_replayedAfterCheckpoint() {
+        GameState gameState = createGameState(9);
+        List<MoveEntity> journal = new ArrayList<>();
+        Random random = new Random(11);
+
+        gameState.setMoveListener(journal::add);
+        GameCheckpoint checkpoint = null;
+
+        for (int move = 0; move < 200; move++) {
+            int flags = random.nextInt(4) == 0 ? GameState.FLAG_PENCIL : GameState.FLAG_NONE;
+            gameState.setCharacter(random.nextInt(9), random.nextInt(9), flags, random.nextInt(9), random.nextInt(5) != 0);
+
+            if (move == 120) {
+                checkpoint = gameState.createCheckpoint();
+                assertEquals(journal.size(), checkpoint.foldedMoves);
+                assertEquals(journal.size(), checkpoint.game.journalSequence);
+            }
+        }
+
+        assertNotNull(checkpoint);
+        assertTrue(journal.size() > checkpoint.game.journalSequence);
+        checkpoint.encodeBoard();
+
+        // Load like GameDao.selectSingleGameState() does, with the moves in reverse order
+        Collections.reverse(journal);
+        GameState loadedGameState = BoardCodec.decode(checkpoint.game);
+        loadedGameState.setPendingMoves(journal);
+
+        assertEquals(journal.size() - checkpoint.game.journalSequence, loadedGameState.replayMoves());
+        assertEquals(gameState.game.journalSequence, loadedGameState.game.journalSequence);
+        assertEquals(describeCharacters(gameState), describeCharacters(loadedGameState));
+        assertEquals(0, loadedGameState.replayMoves());
+    }
+}
@@ -0,0 +1,274 @@
+package de.wpvs.sudo_ku.model.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Shared fixtures of the game model tests: Empty number and letter games, a random letter game
+ * with a small set of known words and descriptions of the game state, that can be compared.
+ */
+final class GameTestFixtures {
+    static final Set<String> KNOWN_WORDS = new HashSet<>(Arrays.asList(
+            "a", "at", "act", "cat", "scat", "tea", "eat", "sea", "is", "in", "tin", "gin",
+            "sting", "lint", "nail", "tail", "tails", "agile", "lace", "ice", "nice", "slice"));
+
+    /**
+     * Static helper class.
+     */
+    private GameTestFixtures() {
+    }
+
+    /**
+     * Create a new empty number game of the given size, without touching any Android resources.
+     *
+     * @param size Size of the game board
+     * @return New game state
+     */
+    static GameState createGameState(int size) {
+        GameState gameState = new GameState();
+        gameState.game.size = size;
+        gameState.game.gameType = GameEntity.GameType.NUMBER_GAME;
+        gameState.game.characterSet = new ArrayList<>();
+
+        for (int i = 1; i <= size; i++) {
+            gameState.game.characterSet.add(Integer.toString(i));
+        }
+
+        gameState.characterFields = GameUtils.createCharacterFields(size);
+        return gameState;
+    }
+
+    /**
+     * Save and load a game state like GameDao does, but without the move journal. The game
+     * logic is not created for the loaded game state.
+     *
+     * @param gameState Game state to copy
+     * @return Independent copy of the game state
+     */
+    static GameState reload(GameState gameState) {
+        GameEntity game = new GameEntity(gameState.game);
+        game.board = BoardCodec.encode(gameState.game, gameState.characterFields, gameState.words);
+        return BoardCodec.decode(game);
+    }
+
+    /**
+     * @return New empty letter game of size 9
+     */
+    static GameState createLetterGameState() {
+        GameState gameState = createGameState(9);
+        gameState.game.gameType = GameEntity.GameType.LETTER_GAME;
+        gameState.game.characterSet = Arrays.asList("a", "c", "e", "g", "i", "l", "n", "s", "t");
+        return gameState;
+    }
+
+    /**
+     * Randomly place and erase characters and check after each placed character, that all
+     * known words through the field have been matched.
+     *
+     * @param gameState Game state of a letter game
+     * @param gameLogic Game logic of the game state
+     * @param random Source of randomness
+     * @param moves Number of moves
+     * @return Number of matched occurrences
+     */
+    static int playLetterGame(GameState gameState, GameLogic gameLogic, Random random, int moves) {
+        int size = gameState.game.size;
+        int matchedWords = 0;
+
+        for (int move = 0; move < moves; move++) {
+            int xPos = random.nextInt(size);
+            int yPos = random.nextInt(size);
+            int code = random.nextInt(size);
+
+            if (gameLogic.getBoard().getCharacter(xPos, yPos) != CharacterCodec.EMPTY) {
+                if (random.nextInt(3) == 0) {
+                    gameLogic.changeCharacter(xPos, yPos, GameState.FLAG_NONE, CharacterCodec.EMPTY, false);
+                }
+
+                continue;
+            }
+
+            gameLogic.changeCharacter(xPos, yPos, GameState.FLAG_NONE, code, true);
+
+            for (Map.Entry<String, List<Set<CharacterFieldEntity>>> entry : findWordsThrough(gameLogic, xPos, yPos, KNOWN_WORDS).entrySet()) {
+                for (Set<CharacterFieldEntity> occurrence : entry.getValue()) {
+                    boolean found = false;
+                    matchedWords += 1;
+
+                    for (WordEntity wordEntity : gameState.words) {
+                        if (!wordEntity.word.equals(entry.getKey())) {
+                            continue;
+                        }
+
+                        boolean marked = true;
+
+                        for (CharacterFieldEntity characterField : occurrence) {
+                            marked &= characterField.words.contains(wordEntity.wordNumber);
+                        }
+
+                        found |= marked;
+                    }
+
+                    assertTrue(entry.getKey(), found);
+                }
+            }
+        }
+
+        return matchedWords;
+    }
+
+    /**
+     * Each word number must be unique and found on as many fields as its word has characters.
+     *
+     * @param gameState Game state of a letter game
+     */
+    static void assertWordNumbersConsistent(GameState gameState) {
+        Map<Integer, Integer> fieldCounts = new HashMap<>();
+
+        for (CharacterFieldEntity characterField : gameState.characterFields) {
+            assertEquals(characterField.words.size(), new HashSet<>(characterField.words).size());
+
+            for (int wordNumber : characterField.words) {
+                fieldCounts.merge(wordNumber, 1, Integer::sum);
+            }
+        }
+
+        assertEquals(gameState.words.size(), fieldCounts.size());
+
+        for (WordEntity wordEntity : gameState.words) {
+            assertEquals(wordEntity.word, Integer.valueOf(wordEntity.word.length()), fieldCounts.get(wordEntity.wordNumber));
+        }
+    }
+
+    /**
+     * @param gameState Game state of a letter game
+     * @return Sorted descriptions of all matched occurrences with their fields
+     */
+    static List<String> describeWords(GameState gameState) {
+        Map<Integer, StringBuilder> descriptions = new HashMap<>();
+
+        for (WordEntity wordEntity : gameState.words) {
+            descriptions.put(wordEntity.wordNumber, new StringBuilder(wordEntity.word));
+        }
+
+        for (CharacterFieldEntity characterField : gameState.characterFields) {
+            for (int wordNumber : characterField.words) {
+                descriptions.get(wordNumber).append(' ').append(characterField.xPos * 9 + characterField.yPos);
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+
+        for (StringBuilder description : descriptions.values()) {
+            result.add(description.toString());
+        }
+
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * @param gameState Game state
+     * @return Sorted descriptions of all fields with their characters
+     */
+    static List<String> describeCharacters(GameState gameState) {
+        List<String> result = new ArrayList<>();
+
+        for (CharacterFieldEntity characterField : gameState.characterFields) {
+            result.add(characterField.xPos + "/" + characterField.yPos + ":" + characterField.character + characterField.pencil + (characterField.locked ? "!" : ""));
+        }
+
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Reference implementation: Build every substring through the given field.
+     *
+     * @param gameLogic Game logic
+     * @param xPos Row
+     * @param yPos Column
+     * @param knownWords Known words
+     * @return Known words through the field with the fields of each occurrence
+     */
+    private static Map<String, List<Set<CharacterFieldEntity>>> findWordsThrough(GameLogic gameLogic, int xPos, int yPos, Set<String> knownWords) {
+        Map<String, List<Set<CharacterFieldEntity>>> words = new HashMap<>();
+        PackedBoard board = gameLogic.getBoard();
+        int size = board.getSize();
+
+        for (int axis = 0; axis < 2; axis++) {
+            int position = axis == 0 ? yPos : xPos;
+
+            for (int start = 0; start <= position; start++) {
+                for (int stop = position; stop < size; stop++) {
+                    StringBuilder word = new StringBuilder();
+                    Set<CharacterFieldEntity> characterFields = new HashSet<>();
+
+                    for (int i = start; i <= stop && word != null; i++) {
+                        int x = axis == 0 ? xPos : i;
+                        int y = axis == 0 ? i : yPos;
+                        int code = board.getCharacter(x, y);
+
+                        if (code == CharacterCodec.EMPTY) {
+                            word = null;
+                        } else {
+                            word.append(board.getCodec().decode(code));
+                            characterFields.add(gameLogic.getCharacterField(x, y));
+                        }
+                    }
+
+                    if (word != null && knownWords.contains(word.toString())) {
+                        words.computeIfAbsent(word.toString(), key -> new ArrayList<>()).add(characterFields);
+                    }
+                }
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Reference implementation calculating the related fields on each call, as it was done
+     * before the peer tables had been introduced.
+     */
+    static List<GameLogic.Coordinate> calculateCoordinates(int size, int xPos, int yPos) {
+        List<GameLogic.Coordinate> coordinates = new ArrayList<>();
+        double sectionSize = Math.sqrt(size);
+
+        for (int x = 0; x < size; x++) {
+            coordinates.add(new GameLogic.Coordinate(x, yPos));
+        }
+
+        for (int y = 0; y < size; y++) {
+            if (y != yPos) {
+                coordinates.add(new GameLogic.Coordinate(xPos, y));
+            }
+        }
+
+        int xMin = (int) (Math.floor(xPos / sectionSize) * sectionSize);
+        int yMin = (int) (Math.floor(yPos / sectionSize) * sectionSize);
+
+        for (int x = xMin; x < xMin + (int) sectionSize; x++) {
+            for (int y = yMin; y < yMin + (int) sectionSize; y++) {
+                if (x != xPos && y != yPos) {
+                    GameLogic.Coordinate coordinate = new GameLogic.Coordinate(x, y);
+
+                    if (!coordinates.contains(coordinate)) {
+                        coordinates.add(coordinate);
+                    }
+                }
+            }
+        }
+
+        return coordinates;
+    }
+}
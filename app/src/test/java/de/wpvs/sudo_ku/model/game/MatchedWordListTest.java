@@ -0,0 +1,85 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the sorted list of matched words.
+ */
+public class MatchedWordListTest {
+    /**
+     * Create a word entity.
+     *
+     * @param wordNumber Word number
+     * @param word The word
+     * @return New word entity
+     */
+    private static WordEntity createWord(int wordNumber, String word) {
+        WordEntity wordEntity = new WordEntity();
+        wordEntity.wordNumber = wordNumber;
+        wordEntity.word = word;
+        return wordEntity;
+    }
+
+    /**
+     * Words must be sorted and contained only once. Only the first and last occurrence of a word
+     * must insert or remove it, which must be reported with the correct positions.
+     */
+    @Test
+    public void update_insertsAndRemovesDistinctWords() {
+        MatchedWordList matchedWords = new MatchedWordList();
+        List<WordEntity> wordEntities = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+
+        MatchedWordList.Listener listener = new MatchedWordList.Listener() {
+            @Override
+            public void onWordInserted(int position) {
+                events.add("+" + position);
+            }
+
+            @Override
+            public void onWordRemoved(int position) {
+                events.add("-" + position);
+            }
+        };
+
+        wordEntities.add(createWord(1, "tea"));
+        wordEntities.add(createWord(2, "cat"));
+        wordEntities.add(createWord(3, "tea"));
+        matchedWords.update(wordEntities, listener);
+
+        assertEquals(2, matchedWords.size());
+        assertEquals("cat", matchedWords.get(0));
+        assertEquals("tea", matchedWords.get(1));
+        assertEquals("[+0, +0]", events.toString());
+        assertEquals("tea", matchedWords.getWord(3));
+
+        // Nothing changed
+        events.clear();
+        matchedWords.update(wordEntities, listener);
+        assertTrue(events.isEmpty());
+
+        // Erasing one of two occurrences keeps the word
+        wordEntities.remove(0);
+        wordEntities.add(createWord(4, "sea"));
+        matchedWords.update(wordEntities, listener);
+
+        assertEquals("[+1]", events.toString());
+        assertEquals(3, matchedWords.size());
+        assertEquals(2, matchedWords.indexOf("tea"));
+        assertNull(matchedWords.getWord(1));
+
+        // Erasing the last occurrence removes the word
+        events.clear();
+        wordEntities.remove(1);
+        matchedWords.update(wordEntities, listener);
+
+        assertEquals("[-2]", events.toString());
+        assertEquals(2, matchedWords.size());
+        assertTrue(matchedWords.indexOf("tea") < 0);
+    }
+}
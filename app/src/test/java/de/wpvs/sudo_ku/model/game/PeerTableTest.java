@@ -0,0 +1,33 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the shared tables of the related fields.
+ */
+public class PeerTableTest {
+    /**
+     * The shared peer tables must contain exactly the same fields in the same order as the
+     * coordinates previously calculated on each call.
+     */
+    @Test
+    public void forSize_matchesCalculatedCoordinates() {
+        for (int size : new int[] {4, 9, 16, 25}) {
+            PeerTable peerTable = PeerTable.forSize(size);
+            assertSame(peerTable, PeerTable.forSize(size));
+
+            for (int xPos = 0; xPos < size; xPos++) {
+                for (int yPos = 0; yPos < size; yPos++) {
+                    List<GameLogic.Coordinate> expected = calculateCoordinates(size, xPos, yPos);
+                    assertEquals(expected, peerTable.getCoordinates(xPos, yPos));
+                    assertEquals(expected.size() - 1, peerTable.getPeers(xPos, yPos).length);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for matching the known words of a letter game.
+ */
+public class RuleKnownWordsTest {
+    /**
+     * With the trie loaded, each move must synchronously match exactly the known words through
+     * the changed field, which are found by building every substring. Each occurrence must have
+     * its own word entity, whose number is found exactly on the fields of the occurrence.
+     */
+    @Test
+    public void knownWords_matchedThroughTrie() {
+        KnownWordTrie.setInstance(KnownWordTrie.build(KNOWN_WORDS));
+
+        try {
+            GameState gameState = createLetterGameState();
+            GameLogic gameLogic = new GameLogic(gameState);
+            int matchedWords = playLetterGame(gameState, gameLogic, new Random(21), 300);
+
+            assertTrue(matchedWords > 10);
+            assertWordNumbersConsistent(gameState);
+        } finally {
+            KnownWordTrie.setInstance(null);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.wpvs.sudo_ku.model.game;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import de.wpvs.sudo_ku.model.dictionary.KnownWordTrie;
+
+import static de.wpvs.sudo_ku.model.game.GameTestFixtures.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for rebuilding the index of the matched words, when a game is loaded.
+ */
+public class WordOccurrenceIndexTest {
+    /**
+     * When a game is loaded, the word index must be rebuilt from the persisted word entities and
+     * word numbers. Entities shared by several occurrences of the same word (as saved by older
+     * versions) must be split into one entity per occurrence.
+     */
+    @Test
+    public void knownWords_indexRebuiltFromPersistedWords() {
+        KnownWordTrie.setInstance(KnownWordTrie.build(KNOWN_WORDS));
+
+        try {
+            GameState gameState = createLetterGameState();
+            GameLogic gameLogic = new GameLogic(gameState);
+            playLetterGame(gameState, gameLogic, new Random(7), 300);
+
+            // Reload a copy of the game
+            GameState loadedGameState = reload(gameState);
+            new GameLogic(loadedGameState);
+
+            assertEquals(describeWords(gameState), describeWords(loadedGameState));
+            assertWordNumbersConsistent(loadedGameState);
+
+            // Merge all occurrences of each word into one entity, like older versions did
+            GameState legacyGameState = reload(gameState);
+            Map<String, Integer> mergedNumbers = new HashMap<>();
+            Map<Integer, Integer> renumbering = new HashMap<>();
+
+            for (WordEntity wordEntity : legacyGameState.words) {
+                Integer mergedNumber = mergedNumbers.putIfAbsent(wordEntity.word, wordEntity.wordNumber);
+                renumbering.put(wordEntity.wordNumber, mergedNumber != null ? mergedNumber : wordEntity.wordNumber);
+            }
+
+            legacyGameState.words.removeIf(wordEntity -> renumbering.get(wordEntity.wordNumber) != wordEntity.wordNumber);
+
+            for (CharacterFieldEntity characterField : legacyGameState.characterFields) {
+                Set<Integer> wordNumbers = new HashSet<>();
+
+                for (int wordNumber : characterField.words) {
+                    wordNumbers.add(renumbering.get(wordNumber));
+                }
+
+                characterField.words.clear();
+                characterField.words.addAll(wordNumbers);
+            }
+
+            new GameLogic(legacyGameState);
+
+            assertEquals(gameState.words.size(), legacyGameState.words.size());
+            assertEquals(describeWords(gameState), describeWords(legacyGameState));
+            assertWordNumbersConsistent(legacyGameState);
+        } finally {
+            KnownWordTrie.setInstance(null);
+        }
+    }
+}
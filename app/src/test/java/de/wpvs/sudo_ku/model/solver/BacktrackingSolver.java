@@ -0,0 +1,297 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+import de.wpvs.sudo_ku.model.game.PeerTable;
+
+/**
+ * Simple but fast solver for the Sudoku rules. The board is given as an array of character codes
+ * (see CharacterCodec) indexed by xPos * size + yPos, with CharacterCodec.EMPTY for empty fields.
+ *
+ * The solver keeps a bit mask of the used characters for each row, column and section and always
+ * continues with the empty field that has the least remaining candidates. This way most fields
+ * are determined without any guessing. Since a search can take very long for boards with only
+ * few characters, each search is bound to a deadline.
+ *
+ * An instance can be reused for many searches on boards of the same size, but it is not thread-safe.
+ *
+ * The game uses ExactCoverSolver instead. This solver is kept as an independent reference for
+ * the tests and benchmarks of the other solvers.
+ */
+public final class BacktrackingSolver implements Solver {
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final int size;
+    private final int allCharactersMask;
+    private final int[] sections;
+
+    private final int[] cells;
+    private final int[] xMasks;
+    private final int[] yMasks;
+    private final int[] sectionMasks;
+    private final int[] empty;
+    private int emptyCount;
+
+    private int excludedIndex;
+    private int excludedMask;
+    private int limit;
+    private int solutions;
+    private int[] solution;
+    private long deadline;
+    private int nodes;
+    private boolean timeout;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the game board
+     */
+    public BacktrackingSolver(int size) {
+        PeerTable peerTable = PeerTable.forSize(size);
+
+        this.size = size;
+        this.allCharactersMask = size >= 32 ? -1 : (1 << size) - 1;
+        this.sections = new int[size * size];
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                this.sections[peerTable.getIndex(xPos, yPos)] = peerTable.getSection(xPos, yPos);
+            }
+        }
+
+        this.cells = new int[size * size];
+        this.xMasks = new int[size];
+        this.yMasks = new int[size];
+        this.sectionMasks = new int[size];
+        this.empty = new int[size * size];
+    }
+
+    /**
+     * @return Size of the game board
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Count the solutions of the given board, but stop as soon as the given limit is reached.
+     * Use a limit of 2 to check, whether a board has a unique solution.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutions(int[] board, int limit, long deadline) {
+        try {
+            if (!this.init(board, limit, deadline, null)) {
+                return 0;
+            }
+
+            this.search();
+            return this.timeout ? TIMEOUT : this.solutions;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Count the solutions of the given board, in which the given field doesn't contain the given
+     * character. This is used to check, whether a character can be removed from a board with a
+     * unique solution: If no other solution exists with a different character on that field, the
+     * solution is still unique. This is usually much faster than counting all solutions, since
+     * the known solution doesn't need to be searched again.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param index Index of the field (xPos * size + yPos)
+     * @param code Character code, that must not be used on the field
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return Number of found solutions (at most limit) or TIMEOUT
+     */
+    @Override
+    public int countSolutionsWithout(int[] board, int index, int code, int limit, long deadline) {
+        try {
+            if (!this.init(board, limit, deadline, null)) {
+                return 0;
+            }
+
+            this.excludedIndex = index;
+            this.excludedMask = ~(1 << code);
+
+            this.search();
+            return this.timeout ? TIMEOUT : this.solutions;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Search one solution of the given board.
+     *
+     * @param board Character codes of the board (not modified)
+     * @param solution Array, that receives the solution
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @return true, if a solution has been found in time
+     */
+    @Override
+    public boolean solve(int[] board, int[] solution, long deadline) {
+        try {
+            if (!this.init(board, 1, deadline, solution)) {
+                return false;
+            }
+
+            this.search();
+            return !this.timeout && this.solutions > 0;
+        } finally {
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Cancel the currently running search from another thread. If no search is running, the
+     * next search is cancelled instead.
+     */
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Reset all search state for a new search.
+     *
+     * @param board Character codes of the board
+     * @param limit Maximum number of solutions to search
+     * @param deadline Value of System.nanoTime() after which the search is cancelled
+     * @param solution Array to receive the first solution or null
+     * @return false, if the given board already contains duplicates
+     */
+    private boolean init(int[] board, int limit, long deadline, int[] solution) {
+        this.excludedIndex = -1;
+        this.excludedMask = -1;
+        this.limit = limit;
+        this.solutions = 0;
+        this.solution = solution;
+        this.deadline = deadline;
+        this.nodes = 0;
+        this.timeout = false;
+        this.emptyCount = 0;
+
+        for (int i = 0; i < this.size; i++) {
+            this.xMasks[i] = 0;
+            this.yMasks[i] = 0;
+            this.sectionMasks[i] = 0;
+        }
+
+        for (int index = 0; index < this.cells.length; index++) {
+            int code = board[index];
+            this.cells[index] = code;
+
+            if (code == CharacterCodec.EMPTY) {
+                this.empty[this.emptyCount++] = index;
+                continue;
+            }
+
+            int bit = 1 << code;
+            int xPos = index / this.size;
+            int yPos = index % this.size;
+            int section = this.sections[index];
+
+            if (((this.xMasks[xPos] | this.yMasks[yPos] | this.sectionMasks[section]) & bit) != 0) {
+                return false;
+            }
+
+            this.xMasks[xPos] |= bit;
+            this.yMasks[yPos] |= bit;
+            this.sectionMasks[section] |= bit;
+        }
+
+        return true;
+    }
+
+    /**
+     * Recursive search. The empty fields are kept in the first emptyCount entries of the
+     * empty array, so that the already placed fields don't need to be scanned again.
+     */
+    private void search() {
+        if (this.emptyCount == 0) {
+            this.solutions += 1;
+
+            if (this.solution != null && this.solutions == 1) {
+                System.arraycopy(this.cells, 0, this.solution, 0, this.cells.length);
+            }
+
+            return;
+        }
+
+        if (++this.nodes % DEADLINE_CHECK_INTERVAL == 0 && (this.cancelled || System.nanoTime() - this.deadline > 0)) {
+            this.timeout = true;
+            return;
+        }
+
+        // Find the empty field with the least candidates
+        int bestSlot = -1;
+        int bestCandidates = 0;
+        int bestCount = Integer.MAX_VALUE;
+
+        for (int slot = 0; slot < this.emptyCount; slot++) {
+            int index = this.empty[slot];
+            int candidates = this.allCharactersMask & ~(this.xMasks[index / this.size]
+                    | this.yMasks[index % this.size]
+                    | this.sectionMasks[this.sections[index]]);
+
+            if (index == this.excludedIndex) {
+                candidates &= this.excludedMask;
+            }
+
+            int count = Integer.bitCount(candidates);
+
+            if (count < bestCount) {
+                bestSlot = slot;
+                bestCandidates = candidates;
+                bestCount = count;
+
+                if (count <= 1) {
+                    break;
+                }
+            }
+        }
+
+        if (bestCount == 0) {
+            return;
+        }
+
+        // Remove the field from the empty list and try all candidates
+        int index = this.empty[bestSlot];
+        int xPos = index / this.size;
+        int yPos = index % this.size;
+        int section = this.sections[index];
+
+        this.emptyCount -= 1;
+        this.empty[bestSlot] = this.empty[this.emptyCount];
+        this.empty[this.emptyCount] = index;
+
+        while (bestCandidates != 0 && this.solutions < this.limit && !this.timeout) {
+            int bit = bestCandidates & -bestCandidates;
+            bestCandidates &= ~bit;
+
+            this.cells[index] = Integer.numberOfTrailingZeros(bit);
+            this.xMasks[xPos] |= bit;
+            this.yMasks[yPos] |= bit;
+            this.sectionMasks[section] |= bit;
+
+            this.search();
+
+            this.xMasks[xPos] &= ~bit;
+            this.yMasks[yPos] &= ~bit;
+            this.sectionMasks[section] &= ~bit;
+        }
+
+        this.cells[index] = CharacterCodec.EMPTY;
+        this.empty[this.emptyCount] = this.empty[bestSlot];
+        this.empty[bestSlot] = index;
+        this.emptyCount += 1;
+    }
+}
@@ -0,0 +1,91 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.Benchmarks;
+
+/**
+ * Benchmark comparing the Dancing Links solver with the backtracking solver. Only run, when the
+ * benchmarks are enabled (see Benchmarks).
+ */
+public class ExactCoverSolverBenchmark {
+    private static final long BENCHMARK_DEADLINE = 1_000_000_000L;
+
+    /**
+     * Skip the benchmarks in the normal test run.
+     */
+    @Before
+    public void assumeEnabled() {
+        Benchmarks.assumeEnabled();
+    }
+
+    /**
+     * Compare both solvers on the uniqueness check of 9x9 and 16x16 corpora.
+     */
+    @Test
+    public void benchmark_uniquenessCheck() {
+        List<int[]> corpus9 = new ArrayList<>();
+
+        for (String puzzle : ExactCoverSolverTest.HARD_PUZZLES) {
+            corpus9.add(ExactCoverSolverTest.parse(puzzle));
+        }
+
+        corpus9.addAll(generateCorpus(9, 20));
+        benchmark(9, corpus9);
+        benchmark(16, generateCorpus(16, 10));
+    }
+
+    /**
+     * Run both solvers on the given corpus and print the results. Each check may take at most
+     * one second, the timeouts are counted separately.
+     *
+     * @param size Size of the game board
+     * @param corpus Puzzles to solve
+     */
+    private static void benchmark(int size, List<int[]> corpus) {
+        Solver[] solvers = {new BacktrackingSolver(size), new ExactCoverSolver(size)};
+
+        for (Solver solver : solvers) {
+            // Warm up
+            for (int[] board : corpus.subList(0, 3)) {
+                solver.countSolutions(board, 2, System.nanoTime() + BENCHMARK_DEADLINE);
+            }
+
+            long start = System.nanoTime();
+            int timeouts = 0;
+
+            for (int[] board : corpus) {
+                if (solver.countSolutions(board, 2, System.nanoTime() + BENCHMARK_DEADLINE) == Solver.TIMEOUT) {
+                    timeouts += 1;
+                }
+            }
+
+            long nanos = System.nanoTime() - start;
+
+            System.out.printf("%dx%d %s: %d puzzles, %.2f ms average, %d timeouts%n",
+                    size, size, solver.getClass().getSimpleName(), corpus.size(),
+                    nanos / corpus.size() / 1e6, timeouts);
+        }
+    }
+
+    /**
+     * @param size Size of the game board
+     * @param count Amount of puzzles
+     * @return Generated puzzles with as few characters as possible
+     */
+    private static List<int[]> generateCorpus(int size, int count) {
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, new Random(size));
+        List<int[]> corpus = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            corpus.add(puzzleGenerator.generate(1).board);
+        }
+
+        return corpus;
+    }
+}
@@ -0,0 +1,154 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Dancing Links solver. See ExactCoverSolverBenchmark for the comparison
+ * with the backtracking solver.
+ */
+public class ExactCoverSolverTest {
+    /**
+     * Well known hard 9x9 puzzles with a unique solution.
+     */
+    static final String[] HARD_PUZZLES = {
+            "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..",
+            "1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1",
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+    };
+
+    private static final long NO_DEADLINE = 10_000_000_000L;
+
+    /**
+     * The solver must find all solutions of an empty 4x4 board and detect contradictions.
+     */
+    @Test
+    public void countSolutions_countsUpToLimit() {
+        ExactCoverSolver solver = new ExactCoverSolver(4);
+        int[] board = new int[16];
+        long deadline = System.nanoTime() + NO_DEADLINE;
+
+        Arrays.fill(board, CharacterCodec.EMPTY);
+        assertEquals(288, solver.countSolutions(board, 1000, deadline));
+        assertEquals(2, solver.countSolutions(board, 2, deadline));
+
+        board[0] = 0;
+        board[1] = 0;
+        assertEquals(0, solver.countSolutions(board, 2, deadline));
+
+        // The same instance must be reusable after a contradiction
+        board[1] = CharacterCodec.EMPTY;
+        assertEquals(288 / 4, solver.countSolutions(board, 1000, deadline));
+    }
+
+    /**
+     * Both solvers must agree on generated and hand-made puzzles of all sizes.
+     */
+    @Test
+    public void solve_matchesBacktrackingSolver() {
+        Random random = new Random(4711);
+        long deadline = System.nanoTime() + NO_DEADLINE;
+
+        for (int size : new int[] {4, 9, 16}) {
+            ExactCoverSolver solver = new ExactCoverSolver(size);
+            BacktrackingSolver backtrackingSolver = new BacktrackingSolver(size);
+            PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, random);
+            int[] solution = new int[size * size];
+
+            for (int i = 0; i < 5; i++) {
+                PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(10);
+
+                assertEquals(1, solver.countSolutions(puzzle.board, 2, deadline));
+                assertTrue(solver.solve(puzzle.board, solution, deadline));
+                assertArrayEquals(puzzle.solution, solution);
+
+                // Remove some more characters to get multiple solutions
+                int[] board = puzzle.board.clone();
+
+                for (int index = 0; index < board.length; index += 3) {
+                    board[index] = CharacterCodec.EMPTY;
+                }
+
+                // The backtracking solver is too slow for this on 16x16 boards
+                if (size < 16) {
+                    assertEquals(backtrackingSolver.countSolutions(board, 50, deadline), solver.countSolutions(board, 50, deadline));
+                } else {
+                    assertEquals(50, solver.countSolutions(board, 50, deadline));
+                }
+            }
+        }
+
+        ExactCoverSolver solver = new ExactCoverSolver(9);
+        BacktrackingSolver backtrackingSolver = new BacktrackingSolver(9);
+        int[] solution = new int[81];
+        int[] expectedSolution = new int[81];
+
+        for (String puzzle : HARD_PUZZLES) {
+            int[] board = parse(puzzle);
+
+            assertEquals(1, solver.countSolutions(board, 2, deadline));
+            assertTrue(solver.solve(board, solution, deadline));
+            assertTrue(backtrackingSolver.solve(board, expectedSolution, deadline));
+            assertArrayEquals(expectedSolution, solution);
+        }
+    }
+
+    /**
+     * Searches must end at the deadline or when cancelled from another thread.
+     */
+    @Test
+    public void search_respectsDeadlineAndCancellation() throws InterruptedException {
+        ExactCoverSolver solver = new ExactCoverSolver(16);
+        int[] board = new int[256];
+        Arrays.fill(board, CharacterCodec.EMPTY);
+
+        assertEquals(Solver.TIMEOUT, solver.countSolutions(board, Integer.MAX_VALUE, System.nanoTime() + 50_000_000L));
+
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            solver.cancel();
+        });
+
+        long start = System.nanoTime();
+        canceller.start();
+
+        assertEquals(Solver.TIMEOUT, solver.countSolutions(board, Integer.MAX_VALUE, start + 60 * NO_DEADLINE));
+        assertTrue(System.nanoTime() - start < NO_DEADLINE);
+        canceller.join();
+
+        // A cancellation doesn't affect the next search
+        int[] solution = new int[256];
+        assertTrue(solver.solve(board, solution, System.nanoTime() + NO_DEADLINE));
+
+        // A cancellation before the search starts is not lost
+        solver.cancel();
+        assertEquals(Solver.TIMEOUT, solver.countSolutions(board, Integer.MAX_VALUE, System.nanoTime() + NO_DEADLINE));
+        assertTrue(solver.solve(board, solution, System.nanoTime() + NO_DEADLINE));
+    }
+
+    /**
+     * @param puzzle 9x9 puzzle with the digits 1 to 9 and dots for empty fields
+     * @return Character codes of the board
+     */
+    static int[] parse(String puzzle) {
+        int[] board = new int[puzzle.length()];
+
+        for (int index = 0; index < board.length; index++) {
+            char character = puzzle.charAt(index);
+            board[index] = character == '.' ? CharacterCodec.EMPTY : character - '1';
+        }
+
+        return board;
+    }
+}
@@ -0,0 +1,89 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import de.wpvs.sudo_ku.Benchmarks;
+
+import static org.junit.Assert.*;
+
+/**
+ * Speedup benchmark for the parallel solver. Only run, when the benchmarks are enabled (see
+ * Benchmarks).
+ */
+public class ParallelSolverBenchmark {
+    private static final long NO_DEADLINE = 10_000_000_000L;
+
+    /**
+     * Skip the benchmarks in the normal test run.
+     */
+    @Before
+    public void assumeEnabled() {
+        Benchmarks.assumeEnabled();
+    }
+
+    /**
+     * Compare the parallel solver with the sequential solver on 16x16 uniqueness checks.
+     */
+    @Test
+    public void benchmark_speedup() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(16, new Random(16));
+        List<int[]> corpus = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            corpus.add(puzzleGenerator.generate(1).board);
+        }
+
+        double sequentialMillis = benchmark(new ExactCoverSolver(16), corpus);
+        System.out.printf("16x16 sequential: %.2f ms average%n", sequentialMillis);
+
+        for (int threads = 1; threads <= Math.max(cores, 2); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            try {
+                ParallelSolver solver = new ParallelSolver(16, pool);
+                double parallelMillis = benchmark(solver, corpus);
+                int minTasks = Integer.MAX_VALUE;
+
+                // Without enough branches there is nothing to gain from more threads
+                for (int[] board : corpus) {
+                    solver.countSolutions(board, 2, System.nanoTime() + NO_DEADLINE);
+                    minTasks = Math.min(minTasks, solver.getLastTaskCount());
+                }
+
+                System.out.printf("16x16 parallel with %d threads (%d cores): %.2f ms average, speedup %.2f, at least %d tasks%n",
+                        threads, cores, parallelMillis, sequentialMillis / parallelMillis, minTasks);
+
+                assertTrue(minTasks >= threads);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @param solver Solver to measure
+     * @param corpus Puzzles to check
+     * @return Average time of one uniqueness check in milliseconds
+     */
+    private static double benchmark(Solver solver, List<int[]> corpus) {
+        // Warm up
+        for (int[] board : corpus) {
+            solver.countSolutions(board, 2, System.nanoTime() + NO_DEADLINE);
+        }
+
+        long start = System.nanoTime();
+
+        for (int[] board : corpus) {
+            assertEquals(1, solver.countSolutions(board, 2, System.nanoTime() + NO_DEADLINE));
+        }
+
+        return (System.nanoTime() - start) / corpus.size() / 1e6;
+    }
+}
@@ -0,0 +1,153 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the parallel solver. See ParallelSolverBenchmark for the speedup.
+ */
+public class ParallelSolverTest {
+    private static final long NO_DEADLINE = 10_000_000_000L;
+
+    private final List<ForkJoinPool> pools = new ArrayList<>();
+
+    /**
+     * @param parallelism Number of threads
+     * @return New pool, that is shut down after the test
+     */
+    private ForkJoinPool createPool(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        this.pools.add(pool);
+        return pool;
+    }
+
+    /**
+     * Shut down the pools created by the test.
+     */
+    @After
+    public void shutdownPools() {
+        for (ForkJoinPool pool : this.pools) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The parallel solver must find the same results as the sequential solver.
+     */
+    @Test
+    public void search_matchesSequentialSolver() {
+        Random random = new Random(1234);
+        long deadline = System.nanoTime() + NO_DEADLINE;
+
+        for (int size : new int[] {4, 9, 16}) {
+            ParallelSolver solver = new ParallelSolver(size, this.createPool(4));
+            ExactCoverSolver sequentialSolver = new ExactCoverSolver(size);
+            PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, random);
+            int[] solution = new int[size * size];
+
+            for (int i = 0; i < 3; i++) {
+                PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(10);
+
+                assertEquals(1, solver.countSolutions(puzzle.board, 2, deadline));
+                assertTrue(solver.solve(puzzle.board, solution, deadline));
+                assertArrayEquals(puzzle.solution, solution);
+
+                int[] board = puzzle.board.clone();
+
+                for (int index = 0; index < board.length; index += 2) {
+                    board[index] = CharacterCodec.EMPTY;
+                }
+
+                assertEquals(sequentialSolver.countSolutions(board, 20, deadline), solver.countSolutions(board, 20, deadline));
+            }
+        }
+
+        // Exhaustive count and contradictions
+        ParallelSolver solver = new ParallelSolver(4, this.createPool(2));
+        int[] board = new int[16];
+
+        Arrays.fill(board, CharacterCodec.EMPTY);
+        assertEquals(288, solver.countSolutions(board, 1000, deadline));
+        assertEquals(288 / 4 * 3, solver.countSolutionsWithout(board, 0, 0, 1000, deadline));
+
+        board[0] = 0;
+        board[1] = 0;
+        assertEquals(0, solver.countSolutions(board, 2, deadline));
+        assertFalse(solver.solve(board, new int[16], deadline));
+    }
+
+    /**
+     * Uniqueness checks of generated 16x16 puzzles must be split into multiple branches, even
+     * though these puzzles usually contain fields with only one candidate. The checks of the
+     * generator, which exclude one character, must give the same results as the sequential
+     * solver.
+     */
+    @Test
+    public void countSolutions_splitsGeneratedPuzzles() {
+        ParallelSolver solver = new ParallelSolver(16, this.createPool(4));
+        ExactCoverSolver sequentialSolver = new ExactCoverSolver(16);
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(16, new Random(16));
+        long deadline = System.nanoTime() + NO_DEADLINE;
+
+        for (int i = 0; i < 5; i++) {
+            int[] board = puzzleGenerator.generate(1).board;
+
+            assertEquals(1, solver.countSolutions(board, 2, deadline));
+            assertTrue(solver.getLastTaskCount() > 1);
+
+            for (int index = 0; index < board.length; index += 17) {
+                int code = board[index];
+
+                if (code == CharacterCodec.EMPTY) {
+                    continue;
+                }
+
+                board[index] = CharacterCodec.EMPTY;
+                assertEquals(sequentialSolver.countSolutionsWithout(board, index, code, 2, deadline), solver.countSolutionsWithout(board, index, code, 2, deadline));
+                board[index] = code;
+            }
+        }
+    }
+
+    /**
+     * Searches must end at the deadline or when cancelled from another thread.
+     */
+    @Test
+    public void search_respectsDeadlineAndCancellation() throws InterruptedException {
+        ParallelSolver solver = new ParallelSolver(16, this.createPool(2));
+        int[] board = new int[256];
+        Arrays.fill(board, CharacterCodec.EMPTY);
+
+        assertEquals(Solver.TIMEOUT, solver.countSolutions(board, Integer.MAX_VALUE, System.nanoTime() + 50_000_000L));
+
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            solver.cancel();
+        });
+
+        long start = System.nanoTime();
+        canceller.start();
+
+        assertEquals(Solver.TIMEOUT, solver.countSolutions(board, Integer.MAX_VALUE, start + 60 * NO_DEADLINE));
+        assertTrue(System.nanoTime() - start < NO_DEADLINE);
+        canceller.join();
+
+        // The next search is not affected
+        assertTrue(solver.solve(board, new int[256], System.nanoTime() + NO_DEADLINE));
+    }
+}
@@ -0,0 +1,52 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import de.wpvs.sudo_ku.Benchmarks;
+
+/**
+ * Benchmark for the puzzle generator. Only run, when the benchmarks are enabled (see
+ * Benchmarks).
+ */
+public class PuzzleGeneratorBenchmark {
+    /**
+     * Skip the benchmarks in the normal test run.
+     */
+    @Before
+    public void assumeEnabled() {
+        Benchmarks.assumeEnabled();
+    }
+
+    /**
+     * Measure the generation time and the amount of remaining characters per board size.
+     */
+    @Test
+    public void benchmark_generationTime() {
+        Random random = new Random(99);
+
+        for (int size : new int[] {4, 9, 16}) {
+            PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, random);
+            int rounds = 10;
+            long totalNanos = 0;
+            long maxNanos = 0;
+            int totalFilled = 0;
+
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(1);
+                long nanos = System.nanoTime() - start;
+
+                totalNanos += nanos;
+                maxNanos = Math.max(maxNanos, nanos);
+                totalFilled += puzzle.getFilledCount();
+            }
+
+            System.out.printf("%dx%d generation: %.1f ms average, %.1f ms max, %.1f%% prefilled%n",
+                    size, size, totalNanos / rounds / 1e6, maxNanos / 1e6,
+                    100.0 * totalFilled / rounds / (size * size));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import de.wpvs.sudo_ku.model.game.CharacterCodec;
+import de.wpvs.sudo_ku.model.game.PeerTable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the puzzle generator.
+ */
+public class PuzzleGeneratorTest {
+    /**
+     * Generated puzzles must be part of a valid solution and have exactly one solution.
+     */
+    @Test
+    public void generate_createsUniquePuzzles() {
+        Random random = new Random(2021);
+
+        for (int size : new int[] {4, 9, 16}) {
+            PuzzleGenerator puzzleGenerator = new PuzzleGenerator(size, random);
+            ExactCoverSolver solver = new ExactCoverSolver(size);
+
+            for (int i = 0; i < 5; i++) {
+                PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(10);
+                assertValidSolution(size, puzzle.solution);
+
+                for (int index = 0; index < puzzle.board.length; index++) {
+                    if (puzzle.board[index] != CharacterCodec.EMPTY) {
+                        assertEquals(puzzle.solution[index], puzzle.board[index]);
+                    }
+                }
+
+                int[] solution = new int[size * size];
+                long deadline = System.nanoTime() + 10_000_000_000L;
+
+                assertEquals(1, solver.countSolutions(puzzle.board, 2, deadline));
+                assertTrue(solver.solve(puzzle.board, solution, deadline));
+                assertArrayEquals(puzzle.solution, solution);
+                assertTrue(puzzle.getFilledCount() >= Math.ceil(size * size * 0.1));
+            }
+        }
+    }
+
+    /**
+     * The percentage of prefilled fields is a lower bound and zero means an empty board.
+     */
+    @Test
+    public void generate_respectsPrefill() {
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(9, new Random(7));
+
+        assertEquals(0, puzzleGenerator.generate(0).getFilledCount());
+        assertTrue(puzzleGenerator.generate(50).getFilledCount() >= 41);
+        assertEquals(81, puzzleGenerator.generate(100).getFilledCount());
+    }
+
+    /**
+     * The uniqueness checks must be run by the given solver.
+     */
+    @Test
+    public void generate_usesGivenSolver() {
+        CountingSolver solver = new CountingSolver(new ExactCoverSolver(9));
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(9, new Random(8), solver);
+
+        PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(10);
+        assertTrue(solver.checks >= 81 - puzzle.getFilledCount());
+    }
+
+    /**
+     * The solver must find all solutions of an empty 4x4 board and detect contradictions.
+     */
+    @Test
+    public void solver_countsSolutions() {
+        BacktrackingSolver solver = new BacktrackingSolver(4);
+        int[] board = new int[16];
+        long deadline = System.nanoTime() + 10_000_000_000L;
+
+        java.util.Arrays.fill(board, CharacterCodec.EMPTY);
+        assertEquals(288, solver.countSolutions(board, 1000, deadline));
+        assertEquals(2, solver.countSolutions(board, 2, deadline));
+
+        board[0] = 0;
+        board[1] = 0;
+        assertEquals(0, solver.countSolutions(board, 2, deadline));
+
+        // An empty 16x16 board can't be counted in time
+        BacktrackingSolver largeSolver = new BacktrackingSolver(16);
+        int[] largeBoard = new int[256];
+        java.util.Arrays.fill(largeBoard, CharacterCodec.EMPTY);
+        assertEquals(BacktrackingSolver.TIMEOUT, largeSolver.countSolutions(largeBoard, Integer.MAX_VALUE, System.nanoTime() + 50_000_000L));
+    }
+
+    /**
+     * Solver, that counts the uniqueness checks and passes them on to another solver.
+     */
+    private static class CountingSolver implements Solver {
+        final Solver solver;
+        int checks;
+
+        /**
+         * Constructor.
+         *
+         * @param solver Solver running the searches
+         */
+        CountingSolver(Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public int getSize() {
+            return this.solver.getSize();
+        }
+
+        @Override
+        public int countSolutions(int[] board, int limit, long deadline) {
+            return this.solver.countSolutions(board, limit, deadline);
+        }
+
+        @Override
+        public int countSolutionsWithout(int[] board, int index, int code, int limit, long deadline) {
+            this.checks += 1;
+            return this.solver.countSolutionsWithout(board, index, code, limit, deadline);
+        }
+
+        @Override
+        public boolean solve(int[] board, int[] solution, long deadline) {
+            return this.solver.solve(board, solution, deadline);
+        }
+
+        @Override
+        public void cancel() {
+            this.solver.cancel();
+        }
+    }
+
+    /**
+     * Check, that the given board is completely filled without duplicates.
+     *
+     * @param size Size of the game board
+     * @param solution Character codes of the board
+     */
+    private static void assertValidSolution(int size, int[] solution) {
+        PeerTable peerTable = PeerTable.forSize(size);
+
+        for (int xPos = 0; xPos < size; xPos++) {
+            for (int yPos = 0; yPos < size; yPos++) {
+                int code = solution[peerTable.getIndex(xPos, yPos)];
+                assertTrue(code >= 0 && code < size);
+
+                for (int peer : peerTable.getPeers(xPos, yPos)) {
+                    assertNotEquals(code, solution[peer]);
+                }
+            }
+        }
+    }
+}
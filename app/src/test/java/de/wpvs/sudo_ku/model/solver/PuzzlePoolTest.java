@@ -0,0 +1,125 @@
+package de.wpvs.sudo_ku.model.solver;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the bounded puzzle pool.
+ */
+public class PuzzlePoolTest {
+    /**
+     * The pool must only keep a few puzzles for the most recently wanted combinations.
+     */
+    @Test
+    public void pool_isBounded() {
+        PuzzlePool puzzlePool = new PuzzlePool();
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(4, new Random(1));
+
+        puzzlePool.want(4, 0);
+        assertNull(puzzlePool.findMissing());
+
+        for (int prefill = 1; prefill <= PuzzlePool.MAX_KEYS + 1; prefill++) {
+            puzzlePool.want(4, prefill);
+        }
+
+        // The first combination has been dropped, the latest is missing first
+        PuzzlePool.Key key = puzzlePool.findMissing();
+        assertEquals(PuzzlePool.MAX_KEYS + 1, key.prefill);
+        assertFalse(puzzlePool.add(new PuzzlePool.Key(4, 1), puzzleGenerator.generate(1)));
+
+        for (int i = 0; i < PuzzlePool.MAX_PUZZLES_PER_KEY + 1; i++) {
+            puzzlePool.add(key, puzzleGenerator.generate(key.prefill));
+        }
+
+        assertEquals(PuzzlePool.MAX_PUZZLES_PER_KEY, puzzlePool.count(4, key.prefill));
+        assertEquals(PuzzlePool.MAX_KEYS, puzzlePool.findMissing().prefill);
+
+        // Taking a puzzle makes the combination missing again
+        assertNotNull(puzzlePool.take(4, key.prefill));
+        assertEquals(key.prefill, puzzlePool.findMissing().prefill);
+        assertNull(puzzlePool.take(9, 5));
+    }
+
+    /**
+     * Persisted puzzles must be restored exactly.
+     */
+    @Test
+    public void pool_persistsPuzzles() throws IOException {
+        PuzzlePool puzzlePool = new PuzzlePool();
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(9, new Random(2));
+        PuzzleGenerator.Puzzle puzzle = puzzleGenerator.generate(20);
+
+        puzzlePool.want(9, 20);
+        puzzlePool.add(new PuzzlePool.Key(9, 20), puzzle);
+        puzzlePool.want(16, 10);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        puzzlePool.writeTo(new DataOutputStream(bytes));
+
+        PuzzlePool restoredPuzzlePool = new PuzzlePool();
+        restoredPuzzlePool.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(16, restoredPuzzlePool.findMissing().size);
+        assertEquals(1, restoredPuzzlePool.count(9, 20));
+
+        PuzzleGenerator.Puzzle restoredPuzzle = restoredPuzzlePool.take(9, 20);
+        assertArrayEquals(puzzle.board, restoredPuzzle.board);
+        assertArrayEquals(puzzle.solution, restoredPuzzle.solution);
+    }
+
+    /**
+     * A corrupt file must be rejected as a whole, without adding any of its puzzles.
+     */
+    @Test
+    public void pool_rejectsCorruptFile() throws IOException {
+        PuzzlePool puzzlePool = new PuzzlePool();
+        PuzzleGenerator puzzleGenerator = new PuzzleGenerator(4, new Random(3));
+
+        puzzlePool.want(4, 30);
+        puzzlePool.add(new PuzzlePool.Key(4, 30), puzzleGenerator.generate(30));
+        puzzlePool.want(9, 40);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        puzzlePool.writeTo(new DataOutputStream(bytes));
+        byte[] valid = bytes.toByteArray();
+
+        // Header of the first combination after the version and count, then its first field
+        int[][] corruptions = {{8, 5}, {9, 101}, {10, PuzzlePool.MAX_PUZZLES_PER_KEY + 1}, {11, 4}, {12, -1}};
+
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = valid.clone();
+            corrupt[corruption[0]] = (byte) corruption[1];
+            assertRejected(corrupt);
+        }
+
+        assertRejected(Arrays.copyOf(valid, valid.length - 1));
+    }
+
+    /**
+     * Check, that reading the given file fails and leaves the pool empty.
+     *
+     * @param file Content of the persisted pool
+     */
+    private static void assertRejected(byte[] file) {
+        PuzzlePool puzzlePool = new PuzzlePool();
+
+        try {
+            puzzlePool.readFrom(new DataInputStream(new ByteArrayInputStream(file)));
+            fail("Corrupt file has been read");
+        } catch (IOException ex) {
+            // Expected
+        }
+
+        assertNull(puzzlePool.findMissing());
+        assertEquals(0, puzzlePool.count(4, 30));
+    }
+}